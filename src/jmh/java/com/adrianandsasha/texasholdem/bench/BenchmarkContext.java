@@ -0,0 +1,94 @@
+package com.adrianandsasha.texasholdem.bench;
+
+import com.adrianandsasha.texasholdem.dto.PlayerAction;
+import com.adrianandsasha.texasholdem.service.BoardTextureCache;
+import com.adrianandsasha.texasholdem.service.BotService;
+import com.adrianandsasha.texasholdem.service.BroadcastCoalescer;
+import com.adrianandsasha.texasholdem.service.EquityService;
+import com.adrianandsasha.texasholdem.service.GameMetrics;
+import com.adrianandsasha.texasholdem.service.GameService;
+import com.adrianandsasha.texasholdem.service.TableBroadcaster;
+import com.adrianandsasha.texasholdem.service.TableRegistry;
+import com.adrianandsasha.texasholdem.service.TurnTimers;
+import com.adrianandsasha.texasholdem.service.WireFormats;
+import com.adrianandsasha.texasholdem.table.Table;
+import com.adrianandsasha.texasholdem.table.TableEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The game's own beans (GameService, TableRegistry, TableBroadcaster, BroadcastCoalescer,
+ * EquityService and the rest the tables get) in a small Spring context, with a
+ * SimpMessagingTemplate whose channel just drops every message and meters kept in memory. Payloads are still converted to JSON like the real broker template does,
+ * only nothing is sent.
+ */
+final class BenchmarkContext implements AutoCloseable {
+
+    private final AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+
+    BenchmarkContext() {
+        context.registerBean(SimpMessagingTemplate.class, BenchmarkContext::stubTemplate);
+        context.registerBean(BroadcastCoalescer.class);
+        context.registerBean(WireFormats.class);
+        context.registerBean(HandCounter.class);
+        context.registerBean(EquityService.class);
+        context.registerBean(BoardTextureCache.class);
+        context.registerBean(TurnTimers.class);
+        context.registerBean(MeterRegistry.class, SimpleMeterRegistry::new);
+        context.registerBean(GameMetrics.class);
+        context.registerBean(BotService.class);
+        context.registerBean(TableRegistry.class);
+        context.registerBean(GameService.class);
+        context.refresh();
+    }
+
+    private static SimpMessagingTemplate stubTemplate() {
+        SimpMessagingTemplate template = new SimpMessagingTemplate((message, timeout) -> true);
+        template.setMessageConverter(new MappingJackson2MessageConverter());
+        return template;
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    HandCounter handCounter() {
+        return context.getBean(HandCounter.class);
+    }
+
+    static PlayerAction action(String playerId, String actionType) {
+        PlayerAction action = new PlayerAction();
+        action.setPlayerId(playerId);
+        action.setActionType(actionType);
+        return action;
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+
+    /**
+     * The real broadcaster, plus a count of finished hands so a benchmark knows when a hand is over.
+     */
+    static class HandCounter extends TableBroadcaster {
+        private final AtomicLong handsEnded = new AtomicLong();
+
+        @Override
+        public void onEvent(Table table, TableEvent event) {
+            super.onEvent(table, event);
+            if (event instanceof TableEvent.HandEnded) {
+                handsEnded.incrementAndGet();
+            }
+        }
+
+        long handsEnded() {
+            return handsEnded.get();
+        }
+    }
+}
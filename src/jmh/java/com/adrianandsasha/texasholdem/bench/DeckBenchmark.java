@@ -0,0 +1,92 @@
+package com.adrianandsasha.texasholdem.bench;
+
+import com.adrianandsasha.texasholdem.model.Card;
+import com.adrianandsasha.texasholdem.model.Cards;
+import com.adrianandsasha.texasholdem.model.Deck;
+import com.adrianandsasha.texasholdem.model.ShuffleMode;
+import com.adrianandsasha.texasholdem.model.Shuffler;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What a hand costs the deck: shuffle, then deal a full 6-handed hand (12 hole cards + 5 board).
+ * The reused deck and the raw shuffles run once per shuffler.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeckBenchmark {
+
+    private static final int CARDS_PER_HAND = 6 * 2 + 5;
+    private static final long DEAD = Cards.mask(12) | Cards.mask(25) | Cards.mask(3) | Cards.mask(41);
+
+    @Param({"SECURE", "FAST"})
+    private ShuffleMode mode;
+
+    private Shuffler shuffler;
+    private Deck deck;
+    private final int[] cards = new int[52];
+
+    @Setup
+    public void setUp() {
+        shuffler = Shuffler.create(mode, 42);
+        deck = new Deck(shuffler);
+        for (int i = 0; i < cards.length; i++) {
+            cards[i] = i;
+        }
+    }
+
+    /** A new Deck every hand (the default Table deck factory). */
+    @Benchmark
+    public void newDeckShuffleDeal(Blackhole bh) {
+        Deck d = new Deck();
+        for (int i = 0; i < CARDS_PER_HAND; i++) {
+            bh.consume(d.dealCard());
+        }
+    }
+
+    /** Same deal from one reused Deck, what a Table with a shuffler does. */
+    @Benchmark
+    public void reshuffleDeal(Blackhole bh) {
+        deck.shuffle();
+        for (int i = 0; i < CARDS_PER_HAND; i++) {
+            bh.consume(deck.dealCardIndex());
+        }
+    }
+
+    /** Equity style: two known hands out of the deck, then a runout. */
+    @Benchmark
+    public void resetDeadDeal(Blackhole bh) {
+        deck.reset(DEAD);
+        for (int i = 0; i < 5; i++) {
+            bh.consume(deck.dealCardIndex());
+        }
+    }
+
+    /** Fisher-Yates over all 52. */
+    @Benchmark
+    public int[] shuffleAll() {
+        shuffler.shuffle(cards);
+        return cards;
+    }
+
+    /** Only the 17 cards the hand needs. */
+    @Benchmark
+    public int[] shufflePartial() {
+        shuffler.shuffle(cards, CARDS_PER_HAND);
+        return cards;
+    }
+
+    @Benchmark
+    public Card dealOneCard() {
+        if (deck.remaining() == 0) {
+            deck.shuffle();
+        }
+        return deck.dealCard();
+    }
+}
@@ -0,0 +1,161 @@
+package com.adrianandsasha.texasholdem.bench;
+
+import com.adrianandsasha.texasholdem.model.BoardTexture;
+import com.adrianandsasha.texasholdem.model.Card;
+import com.adrianandsasha.texasholdem.model.Cards;
+import com.adrianandsasha.texasholdem.model.FastHandEvaluator;
+import com.adrianandsasha.texasholdem.model.HandRank;
+import com.adrianandsasha.texasholdem.model.SuitIsomorphism;
+import com.adrianandsasha.texasholdem.model.TexasHoldemHandEvaluator;
+import com.adrianandsasha.texasholdem.service.BoardTextureCache;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hand evaluation on random hands. The hands are dealt once up front from a fixed seed, so
+ * every run (and the committed baseline) measures the same inputs.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvaluatorBenchmark {
+
+    private static final int HANDS = 1024; // power of two, the index wraps with a mask
+
+    private List<List<Card>> sevenCards;
+    private List<List<Card>> fiveCards;
+    private long[] sevenMasks;
+    // the same hands as a 5-card board plus 2 hole cards
+    private long[] boards;
+    private long[] holes;
+    private BoardTexture[] textures;
+    private int[] flushSuits;
+    private BoardTextureCache boardCache;
+    private int[] strengths;
+    private int[] sevenCardInts;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom rng = new SplittableRandom(42);
+        sevenCards = new ArrayList<>(HANDS);
+        fiveCards = new ArrayList<>(HANDS);
+        sevenMasks = new long[HANDS];
+        boards = new long[HANDS];
+        holes = new long[HANDS];
+        textures = new BoardTexture[HANDS];
+        flushSuits = new int[HANDS];
+        boardCache = new BoardTextureCache();
+        strengths = new int[HANDS];
+        sevenCardInts = new int[HANDS * 7];
+        for (int i = 0; i < HANDS; i++) {
+            sevenMasks[i] = randomHand(rng, 7);
+            sevenCards.add(Cards.toList(sevenMasks[i]));
+            fiveCards.add(Cards.toList(randomHand(rng, 5)));
+            long hole = sevenMasks[i] & -sevenMasks[i];
+            hole |= Long.highestOneBit(sevenMasks[i]);
+            holes[i] = hole;
+            boards[i] = sevenMasks[i] & ~hole;
+            textures[i] = BoardTexture.of(boards[i]);
+            flushSuits[i] = BoardTexture.flushSuit(boards[i]);
+            boardCache.get(boards[i]);
+            int k = 0;
+            for (long m = sevenMasks[i]; m != 0; m &= m - 1) {
+                sevenCardInts[i * 7 + k++] = Long.numberOfTrailingZeros(m);
+            }
+        }
+    }
+
+    private static long randomHand(SplittableRandom rng, int size) {
+        long mask = 0L;
+        while (Long.bitCount(mask) < size) {
+            mask |= Cards.mask(rng.nextInt(Cards.DECK_SIZE));
+        }
+        return mask;
+    }
+
+    private int nextIndex() {
+        next = (next + 1) & (HANDS - 1);
+        return next;
+    }
+
+    /** The original 21-combination evaluator on a 7-card list. */
+    @Benchmark
+    public HandRank getBestHandRank() {
+        return TexasHoldemHandEvaluator.getBestHandRank(sevenCards.get(nextIndex()));
+    }
+
+    @Benchmark
+    public HandRank evaluate5CardHand() {
+        return TexasHoldemHandEvaluator.evaluate5CardHand(fiveCards.get(nextIndex()));
+    }
+
+    @Benchmark
+    public int compareHands() {
+        int i = nextIndex();
+        return TexasHoldemHandEvaluator.compareHands(sevenCards.get(i), sevenCards.get((i + 1) & (HANDS - 1)));
+    }
+
+    /** Lookup-table evaluator on the same hands, as a mask. */
+    @Benchmark
+    public int fastEvaluate() {
+        return FastHandEvaluator.evaluate(sevenMasks[nextIndex()]);
+    }
+
+    /** Lookup-table evaluator starting from a List<Card>, i.e. including the mask conversion. */
+    @Benchmark
+    public HandRank fastGetBestHandRank() {
+        return FastHandEvaluator.getBestHandRank(sevenCards.get(nextIndex()));
+    }
+
+    /** Finishing a hand from a board texture that's already worked out: two cards of work. */
+    @Benchmark
+    public int textureEvaluate() {
+        int i = nextIndex();
+        return textures[i].evaluate(holes[i], flushSuits[i]);
+    }
+
+    /** The same with the texture looked up in BoardTextureCache (every board is in it). */
+    @Benchmark
+    public int cachedTextureEvaluate() {
+        int i = nextIndex();
+        return boardCache.get(boards[i]).evaluate(holes[i], flushSuits[i]);
+    }
+
+    /** Canonical key of the hole cards on the board, what a suit-blind cache would look up by. */
+    @Benchmark
+    public long suitIsomorphism() {
+        int i = nextIndex();
+        return SuitIsomorphism.canonical(holes[i], boards[i]);
+    }
+
+    /** All the hands one at a time, the baseline for the batch below. Time is per call of 1024. */
+    @Benchmark
+    public int[] fastEvaluateLoop() {
+        for (int i = 0; i < HANDS; i++) {
+            strengths[i] = FastHandEvaluator.evaluate(sevenMasks[i]);
+        }
+        return strengths;
+    }
+
+    /** All the hands through the batch API. */
+    @Benchmark
+    public int[] fastEvaluateBatch() {
+        FastHandEvaluator.evaluateAll(sevenMasks, strengths, HANDS);
+        return strengths;
+    }
+
+    /** The same hands as 7 card ints each. */
+    @Benchmark
+    public int[] fastEvaluateBatchInts() {
+        FastHandEvaluator.evaluateAll(sevenCardInts, 7, strengths, HANDS);
+        return strengths;
+    }
+}
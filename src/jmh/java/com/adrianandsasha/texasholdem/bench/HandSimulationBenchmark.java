@@ -0,0 +1,127 @@
+package com.adrianandsasha.texasholdem.bench;
+
+import com.adrianandsasha.texasholdem.model.Player;
+import com.adrianandsasha.texasholdem.service.EquityService;
+import com.adrianandsasha.texasholdem.service.GameService;
+import com.adrianandsasha.texasholdem.table.Table;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One complete 6-handed hand per invocation, every player calling (or checking) down to
+ * showdown, including the events, private payloads and their JSON conversion.
+ *
+ * gameServiceHand goes through GameService like the controller does, so each action and each
+ * state read is a hop onto the table's mailbox. tableHand drives a Table on the calling thread
+ * to show what the rules themselves cost.
+ *
+ * Tables never close and a new one is opened whenever somebody runs low, so every iteration
+ * starts from a fresh context. Otherwise the registry keeps growing through the run (and hits
+ * texasholdem.max-tables) and the later iterations measure the GC more than the hand.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HandSimulationBenchmark {
+
+    private static final int SEATS = 6;
+
+    // Nobody calls off a whole stack when everyone has more than this, so no hand turns into an
+    // all-in equity calculation (those are measured on their own, see EquityService)
+    private static final int MIN_STACK = 200;
+
+    private BenchmarkContext context;
+    private BenchmarkContext.HandCounter counter;
+    private GameService gameService;
+    private int tablesOpened;
+
+    private Table table;
+    private String tableId;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        context = new BenchmarkContext();
+        counter = context.handCounter();
+        gameService = context.bean(GameService.class);
+        openTable();
+        openServiceTable();
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public long tableHand() {
+        if (!fullStacks(table.getPlayers())) {
+            openTable(); // somebody is running low, start over with full stacks
+        }
+        long target = counter.handsEnded() + 1;
+        while (counter.handsEnded() < target) {
+            table.submit(BenchmarkContext.action(actor(table.getGameState()), "CALL"));
+        }
+        return counter.handsEnded();
+    }
+
+    // Two thread hops per action. On one core the JIT shares it with the benchmark and the table
+    // thread and takes about 12 iterations to settle, hence the long warmup
+    @Benchmark
+    @Warmup(iterations = 20, time = 2)
+    @Fork(2)
+    @SuppressWarnings("unchecked")
+    public long gameServiceHand() {
+        Map<String, Object> state = gameService.getGameState(tableId).join();
+        if (!fullStacks((Collection<Player>) state.get("players"))) {
+            openServiceTable();
+            state = gameService.getGameState(tableId).join();
+        }
+        long target = counter.handsEnded() + 1;
+        while (counter.handsEnded() < target) {
+            gameService.handlePlayerAction(tableId, BenchmarkContext.action(actor(state), "CALL"));
+            // queued behind the action, so it sees its result
+            state = gameService.getGameState(tableId).join();
+        }
+        return counter.handsEnded();
+    }
+
+    private static boolean fullStacks(Collection<Player> players) {
+        if (players.size() < SEATS) {
+            return false;
+        }
+        for (Player p : players) {
+            if (p.getChipStack() < MIN_STACK) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String actor(Map<String, Object> state) {
+        List<String> seats = (List<String>) state.get("activePlayersThisHand");
+        return seats.get((Integer) state.get("actionIndex"));
+    }
+
+    private void openTable() {
+        table = new Table("bench-direct-" + (++tablesOpened), Runnable::run, counter);
+        table.setEquityService(context.bean(EquityService.class), Runnable::run);
+        for (int i = 0; i < SEATS; i++) {
+            table.join("bot" + i);
+        }
+    }
+
+    private void openServiceTable() {
+        tableId = "bench-" + (++tablesOpened);
+        for (int i = 0; i < SEATS; i++) {
+            gameService.addNewPlayer(tableId, "bot" + i);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.adrianandsasha.texasholdem.bench;
+
+import com.adrianandsasha.texasholdem.table.BinaryEvents;
+import com.adrianandsasha.texasholdem.table.Table;
+import com.adrianandsasha.texasholdem.table.TableEvent;
+import com.adrianandsasha.texasholdem.table.TableListener;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON cost of what goes over the wire: the full getGameState snapshot (join / resync) and a
+ * batch of events (what a normal broadcast frame is), for a 6-handed table on the flop. The
+ * batch also in the binary form binary sessions get, base64'd like it goes out.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private Table table;
+    private TableEvent[] eventBatch;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        table = new Table("bench", Runnable::run, TableListener.NONE);
+        for (int i = 0; i < 6; i++) {
+            table.join("bot" + i);
+        }
+        // everybody calls the big blind => flop is out
+        for (int i = 0; i < 6; i++) {
+            Map<String, Object> state = table.getGameState();
+            List<String> seats = (List<String>) state.get("activePlayersThisHand");
+            table.submit(BenchmarkContext.action(seats.get((Integer) state.get("actionIndex")), "CALL"));
+        }
+        Map<String, Object> since = table.getStateSince(0);
+        eventBatch = (TableEvent[]) since.get("events");
+    }
+
+    @Benchmark
+    public byte[] gameStateJson() throws Exception {
+        return mapper.writeValueAsBytes(table.getGameState());
+    }
+
+    @Benchmark
+    public byte[] eventBatchJson() throws Exception {
+        return mapper.writeValueAsBytes(eventBatch);
+    }
+
+    @Benchmark
+    public byte[] eventBatchBinary() {
+        return Base64.getEncoder().encode(BinaryEvents.encode(eventBatch));
+    }
+}
@@ -0,0 +1,191 @@
+package com.adrianandsasha.texasholdem.loadtest;
+
+import com.adrianandsasha.texasholdem.config.WebSocketConfig;
+import com.adrianandsasha.texasholdem.dto.PlayerAction;
+import com.adrianandsasha.texasholdem.service.TableBroadcaster;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One simulated player: joins over REST like the browser, connects to /ws with its token,
+ * follows the table topic and its private queue, and acts whenever the private state says it's
+ * its turn. Everything happens in STOMP callbacks, so a client costs no thread of its own.
+ *
+ * The latency it records is from sending an action to seeing that action (the BetPlaced or
+ * PlayerFolded for it) come back on the table topic, i.e. the whole round trip through the
+ * controller, the table's mailbox and the broadcast.
+ *
+ * A StompSession can't be written from two threads at once, and sends come from the STOMP
+ * callbacks, the scheduler (think time) and the rejoin, so every write to it holds the client's
+ * lock.
+ */
+final class LoadClient extends StompSessionHandlerAdapter {
+
+    private final LoadTest test;
+    private final String tableId;
+    private final String nickname;
+
+    private volatile String playerId;
+    private volatile StompSession session;
+    private volatile long actedAt;  // nanoTime the pending action went out, 0 when there's none
+    private volatile long actedTurn;  // the private state's "turn" last acted on
+    private volatile boolean stopped;  // the run is over: no more actions or rejoins
+
+    LoadClient(LoadTest test, String tableId, String nickname) {
+        this.test = test;
+        this.tableId = tableId;
+        this.nickname = nickname;
+    }
+
+    /** Join the table and connect; done once the subscriptions are in. */
+    void connect() throws Exception {
+        JsonNode joined = test.join(tableId, nickname);
+        playerId = joined.path("playerId").asText();
+        String token = joined.path("token").asText();
+        actedAt = 0;
+        actedTurn = 0;
+        StompHeaders connect = new StompHeaders();
+        connect.add(WebSocketConfig.TOKEN_HEADER, token);
+        session = test.stompClient().connectAsync(test.wsUrl(), new WebSocketHttpHeaders(), connect, this)
+                .get(10, TimeUnit.SECONDS);
+        // the join may have made it our turn before we subscribed, and that frame isn't sent again
+        onPrivateState(test.privateState(tableId, token));
+    }
+
+    /** Stop acting and rejoining, ahead of the disconnect at the end of the run. */
+    synchronized void stop() {
+        stopped = true;
+    }
+
+    boolean isStopped() {
+        return stopped;
+    }
+
+    /** Hang up. A failure counts as an error rather than ending the run. */
+    synchronized void disconnect() {
+        StompSession s = session;
+        if (s != null && s.isConnected()) {
+            try {
+                s.disconnect();
+            } catch (RuntimeException e) {
+                test.error();
+            }
+        }
+    }
+
+    @Override
+    public void afterConnected(StompSession session, StompHeaders connectedHeaders) {
+        session.subscribe(TableBroadcaster.topic(tableId), new Handler(true));
+        session.subscribe("/user" + TableBroadcaster.PRIVATE_QUEUE, new Handler(false));
+    }
+
+    @Override
+    public void handleException(StompSession session, StompCommand command, StompHeaders headers, byte[] payload,
+                                Throwable exception) {
+        test.error();
+    }
+
+    @Override
+    public void handleTransportError(StompSession session, Throwable exception) {
+        test.error();
+    }
+
+    // A frame on the topic is a JSON array of events
+    private void onEvents(JsonNode events) {
+        for (JsonNode event : events) {
+            String type = event.path("type").asText();
+            if (type.equals("PlayersRemoved") && contains(event.path("playerIds"), playerId)) {
+                // busted: come back as a new player, like somebody rebuying
+                if (!stopped) {
+                    test.rejoin(this);
+                }
+                return;
+            }
+            if (!playerId.equals(event.path("playerId").asText())) {
+                continue;
+            }
+            boolean mine = type.equals("PlayerFolded")
+                    || (type.equals("BetPlaced") && !event.path("action").asText().endsWith("_BLIND"));
+            long sent = actedAt;
+            if (mine && sent != 0) {
+                actedAt = 0;
+                test.actionSeen(System.nanoTime() - sent);
+            }
+        }
+    }
+
+    private synchronized void onPrivateState(JsonNode state) {
+        long turn = state.path("turn").asLong();
+        if (!state.path("yourTurn").asBoolean() || turn == actedTurn) {
+            return;
+        }
+        List<String> allowed = new ArrayList<>();
+        for (JsonNode a : state.path("allowedActions")) {
+            allowed.add(a.asText());
+        }
+        if (allowed.isEmpty()) {
+            return;
+        }
+        // who acts is the session's player, so no player id in the action
+        PlayerAction action = test.policy().decide(allowed);
+        actedTurn = turn;
+        if (test.thinkMillis() > 0) {
+            test.scheduler().schedule(() -> send(action), ThreadLocalRandom.current().nextLong(test.thinkMillis() + 1),
+                    TimeUnit.MILLISECONDS);
+        } else {
+            send(action);
+        }
+    }
+
+    private synchronized void send(PlayerAction action) {
+        if (stopped) {
+            return;
+        }
+        actedAt = System.nanoTime();
+        session.send("/app/table/" + tableId + "/action", action);
+        test.actionSent();
+    }
+
+    private static boolean contains(JsonNode ids, String id) {
+        for (JsonNode n : ids) {
+            if (n.asText().equals(id)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private final class Handler implements StompFrameHandler {
+        private final boolean topic;
+
+        Handler(boolean topic) {
+            this.topic = topic;
+        }
+
+        @Override
+        public Type getPayloadType(StompHeaders headers) {
+            return JsonNode.class;
+        }
+
+        @Override
+        public void handleFrame(StompHeaders headers, Object payload) {
+            test.frameReceived();
+            if (topic) {
+                onEvents((JsonNode) payload);
+            } else {
+                onPrivateState((JsonNode) payload);
+            }
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package com.adrianandsasha.texasholdem.loadtest;
+
+import com.adrianandsasha.texasholdem.TexasHoldemApplication;
+import com.adrianandsasha.texasholdem.controller.GameController;
+import com.adrianandsasha.texasholdem.dto.PlayerAction;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Starts the app in this JVM and ramps up simulated players against it over real STOMP
+ * connections (see {@link LoadClient}), so we can see how many the /ws endpoint and the tables
+ * take before latency goes. Each stage adds clients up to the next count, then measures for a
+ * while:
+ * - action-to-broadcast latency (HdrHistogram, p50/p99/p99.9/max)
+ * - actions sent and frames received per second
+ * - heap used at the end of the stage, and GC count and time during it
+ *
+ * Heap and GC are this JVM's, which runs the clients too, so they're an upper bound for the
+ * server. Java 17 has no virtual threads; the clients don't need them, they only ever run in
+ * the STOMP client's callbacks.
+ *
+ * Run with: mvn -Ploadtest compile exec:exec -Dloadtest.args="[clients,clients,...] [seconds per stage] [players per table] [policy] [think ms]"
+ * Policies: passive (check or call) and random. Arguments starting with -- go to Spring, e.g. --texasholdem.turn.timeout-ms=5000.
+ */
+public class LoadTest {
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final int playersPerTable;
+    private final Policy policy;
+    private final long thinkMillis;
+
+    private final HttpClient http = HttpClient.newHttpClient();
+    private final ObjectMapper json = new ObjectMapper();
+    private final WebSocketStompClient stompClient;
+    private final ScheduledExecutorService scheduler;
+    private String baseUrl;
+    private String wsUrl;
+
+    private final List<LoadClient> clients = new ArrayList<>();
+    private final Recorder latency = new Recorder(MAX_LATENCY_MICROS, 3);
+    private final Histogram total = new Histogram(MAX_LATENCY_MICROS, 3);
+    private final LongAdder actionsSent = new LongAdder();
+    private final LongAdder framesReceived = new LongAdder();
+    private final LongAdder rejoins = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    public LoadTest(int playersPerTable, Policy policy, long thinkMillis) {
+        this.playersPerTable = playersPerTable;
+        this.policy = policy;
+        this.thinkMillis = thinkMillis;
+        stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+        stompClient.setMessageConverter(new MappingJackson2MessageConverter());
+        AtomicInteger counter = new AtomicInteger();
+        scheduler = Executors.newScheduledThreadPool(2, r -> {
+            Thread t = new Thread(r, "loadtest-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /** Run every stage against the server on {@code port}, printing a line per stage. */
+    public void run(int port, int[] stages, long stageSeconds) throws Exception {
+        baseUrl = "http://localhost:" + port;
+        // the raw WebSocket transport of the SockJS endpoint, what browsers end up on too
+        wsUrl = "ws://localhost:" + port + "/ws/websocket";
+
+        System.out.printf("%d players per table, policy %s, think time up to %d ms, %d s per stage%n",
+                playersPerTable, policy, thinkMillis, stageSeconds);
+        System.out.printf("%8s %10s %10s %9s %9s %9s %9s %9s %6s %7s%n",
+                "clients", "actions/s", "frames/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "heap MB", "GCs", "GC ms");
+        for (int target : stages) {
+            while (clients.size() < target) {
+                int n = clients.size();
+                LoadClient client = new LoadClient(this, "load-" + n / playersPerTable, "load-" + n);
+                client.connect();
+                clients.add(client);
+            }
+            measure(target, stageSeconds);
+        }
+        // quiet down before hanging up: no new actions or rejoins, the scheduled ones run out
+        // (as no-ops), and only then the disconnects, so none of them races a send
+        for (LoadClient client : clients) {
+            client.stop();
+        }
+        scheduler.shutdown();
+        if (!scheduler.awaitTermination(10, TimeUnit.SECONDS)) {
+            errors.increment();
+        }
+        for (LoadClient client : clients) {
+            client.disconnect();
+        }
+
+        System.out.printf("%nall stages: %,d actions, p50 %.2f ms, p99 %.2f ms, p99.9 %.2f ms, max %.2f ms, %d rejoins, %d errors%n",
+                total.getTotalCount(), millis(total, 50), millis(total, 99), millis(total, 99.9),
+                total.getMaxValue() / 1000.0, rejoins.sum(), errors.sum());
+    }
+
+    private void measure(int clientCount, long seconds) throws InterruptedException {
+        latency.getIntervalHistogram(); // drop what the ramp-up recorded
+        long actions = actionsSent.sum();
+        long frames = framesReceived.sum();
+        long gcCount = gcCount();
+        long gcMillis = gcMillis();
+        long start = System.nanoTime();
+
+        Thread.sleep(TimeUnit.SECONDS.toMillis(seconds));
+
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        Histogram stage = latency.getIntervalHistogram();
+        total.add(stage);
+        long heapUsed = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        System.out.printf("%8d %10.0f %10.0f %9.2f %9.2f %9.2f %9.2f %9d %6d %7d%n",
+                clientCount, (actionsSent.sum() - actions) / elapsed, (framesReceived.sum() - frames) / elapsed,
+                millis(stage, 50), millis(stage, 99), millis(stage, 99.9), stage.getMaxValue() / 1000.0,
+                heapUsed >> 20, gcCount() - gcCount, gcMillis() - gcMillis);
+    }
+
+    // ------------------------------------------------------------------
+    // For the clients
+    // ------------------------------------------------------------------
+
+    /** Join over REST like the browser: {playerId, token}. */
+    JsonNode join(String tableId, String nickname) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/table/" + tableId + "/join?nickname="
+                        + URLEncoder.encode(nickname, StandardCharsets.UTF_8)))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+        HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IOException("Join failed with " + response.statusCode() + ": " + response.body());
+        }
+        return json.readTree(response.body());
+    }
+
+    JsonNode privateState(String tableId, String token) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/table/" + tableId + "/private"))
+                .header(GameController.TOKEN_HEADER, token)
+                .build();
+        return json.readTree(http.send(request, HttpResponse.BodyHandlers.ofString()).body());
+    }
+
+    /** Reconnect a busted client as a new player, off the STOMP thread (joining blocks). */
+    void rejoin(LoadClient client) {
+        try {
+            scheduler.execute(() -> {
+                client.disconnect();
+                if (client.isStopped()) {
+                    return;
+                }
+                try {
+                    client.connect();
+                } catch (Exception e) {
+                    errors.increment();
+                }
+            });
+            rejoins.increment();
+        } catch (RejectedExecutionException e) {
+            // the run is over
+        }
+    }
+
+    WebSocketStompClient stompClient() {
+        return stompClient;
+    }
+
+    String wsUrl() {
+        return wsUrl;
+    }
+
+    ScheduledExecutorService scheduler() {
+        return scheduler;
+    }
+
+    Policy policy() {
+        return policy;
+    }
+
+    long thinkMillis() {
+        return thinkMillis;
+    }
+
+    void actionSent() {
+        actionsSent.increment();
+    }
+
+    void actionSeen(long nanos) {
+        latency.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), MAX_LATENCY_MICROS));
+    }
+
+    void frameReceived() {
+        framesReceived.increment();
+    }
+
+    void error() {
+        errors.increment();
+    }
+
+    private static double millis(Histogram h, double percentile) {
+        return h.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    private static long gcCount() {
+        long n = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            n += Math.max(gc.getCollectionCount(), 0);
+        }
+        return n;
+    }
+
+    private static long gcMillis() {
+        long n = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            n += Math.max(gc.getCollectionTime(), 0);
+        }
+        return n;
+    }
+
+    // ------------------------------------------------------------------
+    // Policies
+    // ------------------------------------------------------------------
+
+    /** How a client picks its action from the ones the private state allows. */
+    public enum Policy {
+        /** Check if it can, call otherwise: hands go to showdown and stacks last. */
+        PASSIVE {
+            @Override
+            PlayerAction decide(List<String> allowed) {
+                return action(allowed.contains("CHECK") ? "CHECK" : "CALL", 0);
+            }
+        },
+        /** Any allowed action, raises of 1 to 3 big blinds. More folds and busts, so more rejoins. */
+        RANDOM {
+            @Override
+            PlayerAction decide(List<String> allowed) {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                String type = allowed.get(random.nextInt(allowed.size()));
+                return action(type, type.equals("RAISE") ? 100 * (1 + random.nextInt(3)) : 0);
+            }
+        };
+
+        abstract PlayerAction decide(List<String> allowed);
+
+        private static PlayerAction action(String type, int amount) {
+            PlayerAction action = new PlayerAction();
+            action.setActionType(type);
+            action.setAmount(amount);
+            return action;
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // Command line
+    // ------------------------------------------------------------------
+
+    public static void main(String[] args) throws Exception {
+        List<String> positional = new ArrayList<>();
+        // the app's own files would only slow it down and litter the working directory
+        Map<String, String> springArgs = new LinkedHashMap<>();
+        springArgs.put("server.port", "0");
+        springArgs.put("texasholdem.eventlog.enabled", "false");
+        springArgs.put("texasholdem.journal.enabled", "false");
+        for (String arg : args) {
+            if (arg.startsWith("--")) {
+                int eq = arg.indexOf('=');
+                springArgs.put(arg.substring(2, eq > 0 ? eq : arg.length()), eq > 0 ? arg.substring(eq + 1) : "true");
+            } else {
+                positional.add(arg);
+            }
+        }
+        String[] counts = positional.size() > 0 ? positional.get(0).split(",") : new String[]{"12", "60", "120", "240"};
+        int[] stages = new int[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            stages[i] = Integer.parseInt(counts[i].trim());
+        }
+        long stageSeconds = positional.size() > 1 ? Long.parseLong(positional.get(1)) : 15;
+        int playersPerTable = positional.size() > 2 ? Integer.parseInt(positional.get(2)) : 6;
+        Policy policy = positional.size() > 3 ? Policy.valueOf(positional.get(3).toUpperCase()) : Policy.PASSIVE;
+        long thinkMillis = positional.size() > 4 ? Long.parseLong(positional.get(4)) : 0;
+
+        List<String> spring = new ArrayList<>();
+        springArgs.forEach((key, value) -> spring.add("--" + key + "=" + value));
+        ConfigurableApplicationContext app = SpringApplication.run(TexasHoldemApplication.class, spring.toArray(new String[0]));
+        try {
+            int port = ((WebServerApplicationContext) app).getWebServer().getPort();
+            new LoadTest(playersPerTable, policy, thinkMillis).run(port, stages, stageSeconds);
+        } finally {
+            app.close();
+        }
+    }
+}
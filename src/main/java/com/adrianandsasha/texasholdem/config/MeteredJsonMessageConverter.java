@@ -0,0 +1,36 @@
+package com.adrianandsasha.texasholdem.config;
+
+import com.adrianandsasha.texasholdem.service.GameMetrics;
+import com.adrianandsasha.texasholdem.table.TableEvent;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.DefaultContentTypeResolver;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.util.MimeTypeUtils;
+
+/**
+ * The same JSON converter Spring sets up for STOMP by default, timing each outgoing payload's
+ * serialization and recording its size. Everything the server sends (event batches on the table
+ * topics, private state) goes through here, except the binary event frames (see WireFormats).
+ */
+public class MeteredJsonMessageConverter extends MappingJackson2MessageConverter {
+
+    private final GameMetrics metrics;
+
+    public MeteredJsonMessageConverter(GameMetrics metrics) {
+        this.metrics = metrics;
+        // like Spring's default: frames without a content-type are JSON
+        DefaultContentTypeResolver resolver = new DefaultContentTypeResolver();
+        resolver.setDefaultMimeType(MimeTypeUtils.APPLICATION_JSON);
+        setContentTypeResolver(resolver);
+    }
+
+    @Override
+    protected Object convertToInternal(Object payload, MessageHeaders headers, Object conversionHint) {
+        long start = System.nanoTime();
+        Object json = super.convertToInternal(payload, headers, conversionHint);
+        if (json instanceof byte[] bytes) {
+            metrics.jsonSerialized(payload instanceof TableEvent[], bytes.length, System.nanoTime() - start);
+        }
+        return json;
+    }
+}
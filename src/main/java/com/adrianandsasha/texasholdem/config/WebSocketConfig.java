@@ -1,19 +1,51 @@
 package com.adrianandsasha.texasholdem.config;
 //Importing spring. weird name for package but wtv. I will be relying on spring for all communication
+import com.adrianandsasha.texasholdem.service.GameMetrics;
+import com.adrianandsasha.texasholdem.service.PlayerTokens;
+import com.adrianandsasha.texasholdem.service.WireFormats;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.converter.ByteArrayMessageConverter;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.converter.StringMessageConverter;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
 import org.springframework.web.socket.config.annotation.*;
 
+import java.security.Principal;
+import java.util.List;
+
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    // STOMP CONNECT header the client puts the token from join in
+    public static final String TOKEN_HEADER = "token";
+
+    @Autowired
+    private GameMetrics gameMetrics;
+
+    @Autowired
+    private WireFormats wireFormats;
+
+    @Autowired
+    private PlayerTokens playerTokens;
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
         // /topic is used for broadcasting messages to multiple clients
-        // /queue could be used for direct messages (not required here honestly)
-        config.enableSimpleBroker("/topic");
+        // /queue is for messages to one player (hole cards etc.), addressed as /user/queue/...
+        config.enableSimpleBroker("/topic", "/queue");
         config.setApplicationDestinationPrefixes("/app");
+        config.setUserDestinationPrefix("/user");
+        // frames to one session leave in the order they were sent (table events are sequenced)
+        config.setPreservePublishOrder(true);
     }
 
     @Override
@@ -21,4 +53,59 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         // Clients will connect their potato PCs to the /ws endpoint
         registry.addEndpoint("/ws").setAllowedOriginPatterns("*").withSockJS();
     }
+
+    @Override
+    public boolean configureMessageConverters(List<MessageConverter> messageConverters) {
+        // Spring's defaults in Spring's order, only the JSON one measures what it sends
+        messageConverters.add(new StringMessageConverter());
+        messageConverters.add(new ByteArrayMessageConverter());
+        messageConverters.add(new MeteredJsonMessageConverter(gameMetrics));
+        return false;
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        // The session's user is the player whose token came with CONNECT, so convertAndSendToUser(playerId, ...)
+        // reaches them and their actions are theirs. No valid token, no user: the session can only watch.
+        registration.interceptors(new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+                if (accessor == null) {
+                    return message;
+                }
+                if (StompCommand.CONNECT.equals(accessor.getCommand())) {
+                    String playerId = playerTokens.playerId(accessor.getFirstNativeHeader(TOKEN_HEADER));
+                    if (playerId != null) {
+                        Principal user = () -> playerId;
+                        accessor.setUser(user);
+                    }
+                }
+                String destination = accessor.getDestination();
+                if (destination != null) {
+                    // Clients only send to the app and only get someone's private queue through /user/queue/...
+                    // (which resolves to their own). Sending straight to the broker would fake table events,
+                    // subscribing straight to /queue/... could pick up another session's private state.
+                    if (StompCommand.SEND.equals(accessor.getCommand()) && !destination.startsWith("/app/")) {
+                        return null;
+                    }
+                    if (StompCommand.SUBSCRIBE.equals(accessor.getCommand()) && destination.startsWith("/queue/")) {
+                        return null;
+                    }
+                }
+                return message;
+            }
+        });
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        // Sessions that asked for "wire: binary" on CONNECT get table events in the binary form
+        registration.interceptors(new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                return wireFormats.forSession(message);
+            }
+        });
+    }
 }
@@ -0,0 +1,33 @@
+package com.adrianandsasha.texasholdem.controller;
+
+import com.adrianandsasha.texasholdem.dto.RangeEquityResult;
+import com.adrianandsasha.texasholdem.model.Cards;
+import com.adrianandsasha.texasholdem.model.HandRange;
+import com.adrianandsasha.texasholdem.service.RangeEquityService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+//analysis tools, not tied to any table
+@RestController
+public class EquityController {
+
+    @Autowired
+    private RangeEquityService rangeEquityService;
+
+    // e.g. /api/equity/range?hero=QQ+,AKs&villain=random&board=Ah7c2d
+    @GetMapping("/api/equity/range")
+    public RangeEquityResult rangeEquity(@RequestParam String hero, @RequestParam String villain,
+                                         @RequestParam(required = false, defaultValue = "") String board) {
+        return rangeEquityService.calculate(HandRange.parse(hero), HandRange.parse(villain), Cards.parseMask(board));
+    }
+
+    // a range or board that doesn't parse is the caller's mistake
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String, String> badRequest(IllegalArgumentException e) {
+        return Map.of("error", e.getMessage());
+    }
+}
@@ -1,42 +1,121 @@
 package com.adrianandsasha.texasholdem.controller;
 
 import com.adrianandsasha.texasholdem.dto.PlayerAction;
+import com.adrianandsasha.texasholdem.service.BotService;
 import com.adrianandsasha.texasholdem.service.GameService;
-import com.adrianandsasha.texasholdem.model.Player;
+import com.adrianandsasha.texasholdem.service.PlayerTokens;
+import com.adrianandsasha.texasholdem.service.TableRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.messaging.handler.annotation.*;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.security.Principal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 public class GameController {
 
+    private static final int MAX_BOTS_PER_REQUEST = 9;
+
+    // request header the private state endpoint takes the player's token in
+    public static final String TOKEN_HEADER = "X-Player-Token";
+
     @Autowired
     private GameService gameService;
 
     @Autowired
-    private SimpMessagingTemplate messagingTemplate;
+    private PlayerTokens playerTokens;
+
+    @Autowired
+    private BotService botService;
 
-    //REST endpoint: a new player with nickname joins the table to spend their life savings in poker.
-    //Returns the playerId that is assigned  (UUID or something).
+    //REST endpoint: a new player with nickname joins a table to spend their life savings in poker.
+    //Returns {playerId, token}. The id is public (it's in the table state), the token is the player's secret.
+    @PostMapping("/api/table/{tableId}/join")
+    public CompletableFuture<Map<String, String>> join(@PathVariable String tableId, @RequestParam String nickname) {
+        return gameService.addNewPlayer(tableId, nickname).thenApply(playerId -> {
+            Map<String, String> joined = new LinkedHashMap<>();
+            joined.put("playerId", playerId);
+            joined.put("token", playerTokens.issue(playerId));
+            return joined;
+        });
+    }
+
+    // server-side players, they act by themselves. ids come back like join's, only for the ones
+    // there was room for. Off unless texasholdem.bots.api-enabled is set
+    @PostMapping("/api/table/{tableId}/bots")
+    public CompletableFuture<List<String>> addBots(@PathVariable String tableId, @RequestParam(defaultValue = "1") int count) {
+        if (!botService.isApiEnabled()) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Adding bots is turned off");
+        }
+        return gameService.addBots(tableId, Math.min(Math.max(count, 0), MAX_BOTS_PER_REQUEST));
+    }
+
+    // old single-table endpoint, sits you at the default table
     @PostMapping("/api/join")
-    public String join(@RequestParam String nickname) {
-        String playerId = gameService.addNewPlayer(nickname);
-        return playerId;
+    public CompletableFuture<Map<String, String>> join(@RequestParam String nickname) {
+        return join(TableRegistry.DEFAULT_TABLE_ID, nickname);
     }
 
 //WebSocket listener: handle a player's actions (fold (if coward), call (wants to be like their friends), raise (real gambler, makes betMGM proud), etc.).
-// Because we might send actions from the client to /app/action.
+// Clients send to /app/table/{tableId}/action. The table broadcasts the new state to /topic/table/{tableId} itself.
+// Whoever acts is the session's user (from the token on CONNECT), never the playerId in the message.
+    @MessageMapping("/table/{tableId}/action")
+    public void playerAction(@DestinationVariable String tableId, PlayerAction action, Principal user) {
+        if (user == null) {
+            return; // connected without a valid token, can watch but not play
+        }
+        action.setPlayerId(user.getName());
+        gameService.handlePlayerAction(tableId, action);
+    }
+
     @MessageMapping("/action")
-    public void playerAction(PlayerAction action) {
-        gameService.handlePlayerAction(action);
-        // Broadcast the updated game state to everyone
-        messagingTemplate.convertAndSend("/topic/game-state", gameService.getGameState());
+    public void playerAction(PlayerAction action, Principal user) {
+        playerAction(TableRegistry.DEFAULT_TABLE_ID, action, user);
+    }
+
+// full snapshot, or with ?since=seq just the events a client missed (falls back to the snapshot if they're gone)
+    @GetMapping("/api/table/{tableId}/state")
+    public CompletableFuture<Map<String, Object>> getState(@PathVariable String tableId,
+                                                           @RequestParam(required = false) Long since) {
+        if (since != null) {
+            return gameService.getGameStateSince(tableId, since);
+        }
+        return gameService.getGameState(tableId);
+    }
+
+    // your own hole cards and allowed actions, for the token join gave you (in the X-Player-Token header)
+    @GetMapping("/api/table/{tableId}/private")
+    public CompletableFuture<Map<String, Object>> getPrivateState(@PathVariable String tableId,
+                                                                  @RequestHeader(TOKEN_HEADER) String token) {
+        String playerId = playerTokens.playerId(token);
+        if (playerId == null) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Not a player token");
+        }
+        return gameService.getPrivateState(tableId, playerId);
     }
 
-// optional but ill probably use it for debugging to get the game state
     @GetMapping("/api/state")
-    public Object getState() {
-        return gameService.getGameState();
+    public CompletableFuture<Map<String, Object>> getState(@RequestParam(required = false) Long since) {
+        return getState(TableRegistry.DEFAULT_TABLE_ID, since);
+    }
+
+    // a table id that isn't allowed
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String, String> badRequest(IllegalArgumentException e) {
+        return Map.of("error", e.getMessage());
+    }
+
+    // no room for another table, or at this one
+    @ExceptionHandler(IllegalStateException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public Map<String, String> unavailable(IllegalStateException e) {
+        return Map.of("error", e.getMessage());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,59 @@
+package com.adrianandsasha.texasholdem.controller;
+
+import com.adrianandsasha.texasholdem.eventlog.TableEventLog;
+import com.adrianandsasha.texasholdem.eventlog.TableRecovery;
+import com.adrianandsasha.texasholdem.history.HandJournalWriter;
+import com.adrianandsasha.texasholdem.service.BoardTextureCache;
+import com.adrianandsasha.texasholdem.service.BotService;
+import com.adrianandsasha.texasholdem.service.BroadcastCoalescer;
+import com.adrianandsasha.texasholdem.service.TurnTimers;
+import com.adrianandsasha.texasholdem.service.WireFormats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+//counters for keeping an eye on the server
+@RestController
+public class MetricsController {
+
+    @Autowired
+    private BroadcastCoalescer broadcastCoalescer;
+
+    @Autowired
+    private HandJournalWriter handJournalWriter;
+
+    @Autowired
+    private TableEventLog tableEventLog;
+
+    @Autowired
+    private TableRecovery tableRecovery;
+
+    @Autowired
+    private BoardTextureCache boardTextureCache;
+
+    @Autowired
+    private TurnTimers turnTimers;
+
+    @Autowired
+    private BotService botService;
+
+    @Autowired
+    private WireFormats wireFormats;
+
+    @GetMapping("/api/metrics")
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("broadcast", broadcastCoalescer.getStats());
+        metrics.put("journal", handJournalWriter.getStats());
+        metrics.put("tableLog", tableEventLog.getStats());
+        metrics.put("recovery", tableRecovery.getStats());
+        metrics.put("boardCache", boardTextureCache.getStats());
+        metrics.put("turnTimers", turnTimers.getStats());
+        metrics.put("bots", botService.getStats());
+        metrics.put("wire", wireFormats.getStats());
+        return metrics;
+    }
+}
@@ -0,0 +1,43 @@
+package com.adrianandsasha.texasholdem.dto;
+//result of an equity calculation. every array is indexed the same way as the hands that were passed in, values are percentages
+public class EquityResult {
+    private final double[] win;      // won the whole pot
+    private final double[] tie;      // split the pot with someone
+    private final double[] equity;   // share of the pot on average (win + tie shares)
+    private final long runouts;      // boards looked at
+    private final boolean exhaustive;
+    private final long elapsedMicros;
+
+    public EquityResult(double[] win, double[] tie, double[] equity, long runouts, boolean exhaustive, long elapsedMicros) {
+        this.win = win;
+        this.tie = tie;
+        this.equity = equity;
+        this.runouts = runouts;
+        this.exhaustive = exhaustive;
+        this.elapsedMicros = elapsedMicros;
+    }
+
+    public double[] getWin() {
+        return win;
+    }
+
+    public double[] getTie() {
+        return tie;
+    }
+
+    public double[] getEquity() {
+        return equity;
+    }
+
+    public long getRunouts() {
+        return runouts;
+    }
+
+    public boolean isExhaustive() {
+        return exhaustive;
+    }
+
+    public long getElapsedMicros() {
+        return elapsedMicros;
+    }
+}
@@ -0,0 +1,64 @@
+package com.adrianandsasha.texasholdem.dto;
+
+import java.util.Map;
+
+//result of a range against range calculation. equities are percentages for the first (hero) range
+public class RangeEquityResult {
+    private final double heroEquity;
+    private final double heroCombos;        // weighted combos left once the board's cards are out
+    private final double villainCombos;
+    private final Map<String, Double> classEquity;  // hero's equity per hand class in the range, best first
+    private final double[] comboEquity;     // per combo (see Combos), NaN if it isn't in the hero range
+    private final long runouts;
+    private final boolean exhaustive;
+    private final long elapsedMicros;
+
+    public RangeEquityResult(double heroEquity, double heroCombos, double villainCombos, Map<String, Double> classEquity,
+                             double[] comboEquity, long runouts, boolean exhaustive, long elapsedMicros) {
+        this.heroEquity = heroEquity;
+        this.heroCombos = heroCombos;
+        this.villainCombos = villainCombos;
+        this.classEquity = classEquity;
+        this.comboEquity = comboEquity;
+        this.runouts = runouts;
+        this.exhaustive = exhaustive;
+        this.elapsedMicros = elapsedMicros;
+    }
+
+    public double getHeroEquity() {
+        return heroEquity;
+    }
+
+    public double getVillainEquity() {
+        return 100.0 - heroEquity;
+    }
+
+    public double getHeroCombos() {
+        return heroCombos;
+    }
+
+    public double getVillainCombos() {
+        return villainCombos;
+    }
+
+    public Map<String, Double> getClassEquity() {
+        return classEquity;
+    }
+
+    // not a getter, so the 1326 numbers stay out of the JSON
+    public double comboEquity(int combo) {
+        return comboEquity[combo];
+    }
+
+    public long getRunouts() {
+        return runouts;
+    }
+
+    public boolean isExhaustive() {
+        return exhaustive;
+    }
+
+    public long getElapsedMicros() {
+        return elapsedMicros;
+    }
+}
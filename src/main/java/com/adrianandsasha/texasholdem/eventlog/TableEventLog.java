@@ -0,0 +1,330 @@
+package com.adrianandsasha.texasholdem.eventlog;
+
+import com.adrianandsasha.texasholdem.dto.PlayerAction;
+import com.adrianandsasha.texasholdem.model.Card;
+import com.adrianandsasha.texasholdem.model.Player;
+import com.adrianandsasha.texasholdem.table.Table;
+import com.adrianandsasha.texasholdem.table.TableCommand;
+import com.adrianandsasha.texasholdem.table.TableEvent;
+import com.adrianandsasha.texasholdem.table.TableListener;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Logs every input each table takes (joins, accepted actions, the cards dealt, the equity that
+ * went out) and when it closes, so the tables can be rebuilt after a restart, see
+ * {@link TableRecovery}.
+ *
+ * Same shape as the hand journal: the table threads only queue records, one writer thread
+ * encodes them in batches into a direct buffer and writes each batch in one go. Unlike the
+ * journal a record is never dropped, because a gap would stop that table's recovery there: if
+ * the queue is full the table thread waits (counted as a stall).
+ */
+@Component
+public class TableEventLog implements TableListener {
+    private static final Logger log = LoggerFactory.getLogger(TableEventLog.class);
+
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final int MAX_BATCH = 4096;
+
+    @Value("${texasholdem.eventlog.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${texasholdem.eventlog.dir:table-state}")
+    private String dir = "table-state";
+
+    @Value("${texasholdem.eventlog.queue-capacity:65536}")
+    private int queueCapacity = 65536;
+
+    // force() after every batch; off means a crash of the machine (not just the JVM) can lose the last few
+    @Value("${texasholdem.eventlog.fsync:false}")
+    private boolean fsync;
+
+    // Joins + actions so far per open table id; each entry is only touched by its table's thread
+    private final Map<String, long[]> versions = new ConcurrentHashMap<>();
+
+    private Path directory;
+    private BlockingQueue<Object> queue;  // Entry, or Rotate to start the next segment
+    private FileChannel channel;
+    private final AtomicInteger segment = new AtomicInteger();
+    private Thread writer;
+    private volatile boolean running;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+    private final LongAdder written = new LongAdder();
+    private final LongAdder stalls = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+
+    private record Rotate(int segment, CompletableFuture<Integer> opened) {
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        directory = Paths.get(dir);
+        Files.createDirectories(directory);
+        // always a fresh segment: the last one may end in a torn record
+        int last = 0;
+        for (int n : TableLog.segments(directory)) last = Math.max(last, n);
+        for (int n : TableLog.snapshots(directory)) last = Math.max(last, n);
+        segment.set(last + 1);
+        openSegment(last + 1);
+
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        writer = new Thread(this::writeLoop, "table-log");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("Logging table state to {}", directory.toAbsolutePath());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /** The segment new records go to; everything before it was written by an earlier run or rotated out. */
+    public int getSegment() {
+        return segment.get();
+    }
+
+    /** How many records were written so far. */
+    public long getRecordsWritten() {
+        return written.sum();
+    }
+
+    // ------------------------------------------------------------------
+    // Versions, table thread only
+    // ------------------------------------------------------------------
+
+    /** Joins and actions logged for the table so far. Call on the table's thread. */
+    public long version(String tableId) {
+        long[] v = versions.get(tableId);
+        return v == null ? 0 : v[0];
+    }
+
+    /** Where a recovered table left off, so its next record carries the next version. */
+    public void setVersion(String tableId, long version) {
+        versions.computeIfAbsent(tableId, id -> new long[1])[0] = version;
+    }
+
+    // ------------------------------------------------------------------
+    // Listener, on the table threads
+    // ------------------------------------------------------------------
+
+    @Override
+    public void onAction(Table table, PlayerAction action) {
+        if (!enabled || action.getActionType() == null) {
+            return; // without a type the table throws before it changes anything
+        }
+        append(table.getId(), true, new TableCommand.Act(action.getPlayerId(), action.getActionType(), action.getAmount()));
+    }
+
+    @Override
+    public void onEvent(Table table, TableEvent event) {
+        if (!enabled) {
+            return;
+        }
+        if (event instanceof TableEvent.PlayerJoined joined) {
+            append(table.getId(), true, new TableCommand.Join(joined.playerId(), joined.nickname()));
+        } else if (event instanceof TableEvent.HandStarted started) {
+            int[] cards = new int[started.activePlayersThisHand().size() * 2];
+            int n = 0;
+            for (String playerId : started.activePlayersThisHand()) {
+                Player p = table.getPlayer(playerId);
+                for (Card c : p.getHoleCards()) {
+                    cards[n++] = c.getIndex();
+                }
+            }
+            append(table.getId(), false, new TableCommand.HoleCards(cards));
+        } else if (event instanceof TableEvent.CardsDealt dealt) {
+            int[] cards = new int[dealt.cards().size()];
+            for (int i = 0; i < cards.length; i++) {
+                cards[i] = dealt.cards().get(i).getIndex();
+            }
+            append(table.getId(), false, new TableCommand.Board(cards));
+        } else if (event instanceof TableEvent.EquityUpdated equity) {
+            append(table.getId(), true, new TableCommand.Equity(equity.allInEquity()));
+        }
+    }
+
+    @Override
+    public void onClosed(Table table) {
+        if (!enabled) {
+            return;
+        }
+        append(table.getId(), true, new TableCommand.Close());
+        versions.remove(table.getId());
+    }
+
+    private void append(String tableId, boolean newVersion, TableCommand command) {
+        long[] v = versions.computeIfAbsent(tableId, id -> new long[1]);
+        if (newVersion) {
+            v[0]++;
+        }
+        TableLog.Entry entry = new TableLog.Entry(tableId, v[0], command);
+        if (queue.offer(entry)) {
+            return;
+        }
+        stalls.increment();
+        try {
+            queue.put(entry);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failed.increment();
+        }
+    }
+
+    /**
+     * Start a new segment: everything queued after this call goes there. Completes with the new
+     * segment number once the old one is closed.
+     */
+    public CompletableFuture<Integer> rotate() {
+        CompletableFuture<Integer> opened = new CompletableFuture<>();
+        // the number is taken here, so records queued before this call can't end up in the new segment
+        synchronized (segment) {
+            Rotate rotate = new Rotate(segment.incrementAndGet(), opened);
+            try {
+                queue.put(rotate);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                opened.completeExceptionally(e);
+            }
+        }
+        return opened;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("segment", enabled ? segment.get() : null);
+        stats.put("recordsWritten", written.sum());
+        stats.put("recordsFailed", failed.sum());
+        stats.put("bytesWritten", bytes.sum());
+        stats.put("stalls", stalls.sum());
+        stats.put("queued", queue == null ? 0 : queue.size());
+        return stats;
+    }
+
+    // ------------------------------------------------------------------
+    // Writer thread
+    // ------------------------------------------------------------------
+
+    private void writeLoop() {
+        List<Object> batch = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            try {
+                Object first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH - 1);
+                for (Object item : batch) {
+                    if (item instanceof Rotate rotate) {
+                        flush();
+                        channel.close();
+                        openSegment(rotate.segment());
+                        rotate.opened().complete(rotate.segment());
+                    } else {
+                        encode((TableLog.Entry) item);
+                    }
+                }
+                flush();
+            } catch (InterruptedException e) {
+                // close() is waiting for us: finish what's queued, then stop
+                running = false;
+            } catch (IOException | RuntimeException e) {
+                failed.add(batch.size());
+                log.error("Couldn't write {} records to the table log", batch.size(), e);
+                buffer.clear();
+                for (Object item : batch) {
+                    if (item instanceof Rotate rotate) {
+                        rotate.opened().completeExceptionally(e);
+                    }
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void openSegment(int number) throws IOException {
+        channel = FileChannel.open(TableLog.segmentFile(directory, number),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        if (channel.size() == 0) {
+            TableLog.writeHeader(buffer);
+            flush();
+        }
+    }
+
+    private void encode(TableLog.Entry entry) throws IOException {
+        int mark = buffer.position();
+        try {
+            TableLog.encode(entry, buffer);
+        } catch (BufferOverflowException e) {
+            // write out what's there and try again with the whole buffer (a record is far smaller)
+            buffer.position(mark);
+            flush();
+            TableLog.encode(entry, buffer);
+        } catch (RuntimeException e) {
+            buffer.position(mark);
+            failed.increment();
+            log.error("Couldn't log {} for table {}", entry.command(), entry.tableId(), e);
+            return;
+        }
+        written.increment();
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        bytes.add(buffer.remaining());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+        if (fsync) {
+            channel.force(false);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException, InterruptedException {
+        if (!enabled) {
+            return;
+        }
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+        channel.close();
+    }
+}
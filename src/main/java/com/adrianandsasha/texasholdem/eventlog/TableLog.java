@@ -0,0 +1,295 @@
+package com.adrianandsasha.texasholdem.eventlog;
+
+import com.adrianandsasha.texasholdem.table.TableCommand;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * The table log and snapshot formats, and where their files go.
+ *
+ * The log is split into numbered segments, table-log-NNNNNN.log. Each one is an 8 byte header
+ * (magic "PKTL", int version) followed by records:
+ * <pre>
+ *   int length | body (length bytes) | int CRC32 of the body
+ *
+ *   body: byte type, str tableId, long version, then by type
+ *     JOIN   str playerId, str nickname
+ *     ACT    str playerId, str actionType, int amount
+ *     HOLE   byte n { byte card }
+ *     BOARD  byte n { byte card }
+ *     EQUITY byte n { str playerId, double equity }
+ *     CLOSE  (nothing)
+ * </pre>
+ * version counts the joins, actions and equity updates of one table; cards carry the version of
+ * the join or action that dealt them. After a CLOSE the id starts over at version 1.
+ *
+ * Snapshot N (table-snapshot-NNNNNN.snap) holds every table as of some point after segment N
+ * was started, so recovery is snapshot N plus segments N, N+1, ... with the records the
+ * snapshot already covers skipped:
+ * <pre>
+ *   int magic "PKTS", int version, long takenAt, int tables
+ *   { str tableId, long version, int length, state (length bytes) }
+ *   int CRC32 of everything after the header
+ * </pre>
+ * str is a short length plus UTF-8 bytes. All big-endian.
+ */
+public final class TableLog {
+    public static final int MAGIC = 0x504B544C;          // "PKTL"
+    public static final int SNAPSHOT_MAGIC = 0x504B5453; // "PKTS"
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 8;
+
+    private static final byte JOIN = 0;
+    private static final byte ACT = 1;
+    private static final byte HOLE = 2;
+    private static final byte BOARD = 3;
+    private static final byte EQUITY = 4;
+    private static final byte CLOSE = 5;
+
+    private static final Pattern SEGMENT = Pattern.compile("table-log-(\\d+)\\.log");
+    private static final Pattern SNAPSHOT = Pattern.compile("table-snapshot-(\\d+)\\.snap");
+
+    /** One log record: a command for a table, at that table's version. */
+    public record Entry(String tableId, long version, TableCommand command) {
+    }
+
+    /** One table in a snapshot: its saved state and the version it's at. */
+    public record SavedTable(String tableId, long version, byte[] state) {
+    }
+
+    private TableLog() {
+    }
+
+    // ------------------------------------------------------------------
+    // Files
+    // ------------------------------------------------------------------
+
+    public static Path segmentFile(Path dir, int segment) {
+        return dir.resolve(String.format("table-log-%06d.log", segment));
+    }
+
+    public static Path snapshotFile(Path dir, int segment) {
+        return dir.resolve(String.format("table-snapshot-%06d.snap", segment));
+    }
+
+    /** Numbers of the log segments in the directory, oldest first. */
+    public static List<Integer> segments(Path dir) throws IOException {
+        return numbers(dir, SEGMENT);
+    }
+
+    /** Numbers of the snapshots in the directory, oldest first. */
+    public static List<Integer> snapshots(Path dir) throws IOException {
+        return numbers(dir, SNAPSHOT);
+    }
+
+    private static List<Integer> numbers(Path dir, Pattern pattern) throws IOException {
+        List<Integer> numbers = new ArrayList<>();
+        if (!Files.isDirectory(dir)) {
+            return numbers;
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            files.forEach(f -> {
+                Matcher m = pattern.matcher(f.getFileName().toString());
+                if (m.matches()) {
+                    numbers.add(Integer.parseInt(m.group(1)));
+                }
+            });
+        }
+        numbers.sort(null);
+        return numbers;
+    }
+
+    // ------------------------------------------------------------------
+    // Log records
+    // ------------------------------------------------------------------
+
+    public static void writeHeader(ByteBuffer buf) {
+        buf.putInt(MAGIC);
+        buf.putInt(VERSION);
+    }
+
+    /**
+     * Append one record (length, body, CRC) at the buffer's position.
+     *
+     * @throws java.nio.BufferOverflowException if it doesn't fit; the buffer position is then undefined
+     */
+    public static void encode(Entry entry, ByteBuffer buf) {
+        int start = buf.position();
+        buf.putInt(0); // length, patched below
+        int bodyStart = buf.position();
+
+        TableCommand command = entry.command();
+        if (command instanceof TableCommand.Join join) {
+            buf.put(JOIN);
+            putHead(buf, entry);
+            putString(buf, join.playerId());
+            putString(buf, join.nickname());
+        } else if (command instanceof TableCommand.Act act) {
+            buf.put(ACT);
+            putHead(buf, entry);
+            putString(buf, act.playerId());
+            putString(buf, act.actionType());
+            buf.putInt(act.amount());
+        } else if (command instanceof TableCommand.HoleCards hole) {
+            buf.put(HOLE);
+            putHead(buf, entry);
+            putCards(buf, hole.cards());
+        } else if (command instanceof TableCommand.Board board) {
+            buf.put(BOARD);
+            putHead(buf, entry);
+            putCards(buf, board.cards());
+        } else if (command instanceof TableCommand.Equity equity) {
+            buf.put(EQUITY);
+            putHead(buf, entry);
+            buf.put((byte) equity.equity().size());
+            for (Map.Entry<String, Double> e : equity.equity().entrySet()) {
+                putString(buf, e.getKey());
+                buf.putDouble(e.getValue());
+            }
+        } else if (command instanceof TableCommand.Close) {
+            buf.put(CLOSE);
+            putHead(buf, entry);
+        } else {
+            throw new IllegalArgumentException("Can't log " + command);
+        }
+
+        int end = buf.position();
+        buf.putInt(start, end - bodyStart);
+        buf.putInt(checksum(buf, bodyStart, end));
+    }
+
+    /**
+     * Read a record body (without its length and CRC).
+     */
+    public static Entry decode(ByteBuffer body) {
+        byte type = body.get();
+        String tableId = getString(body);
+        long version = body.getLong();
+        TableCommand command = switch (type) {
+            case JOIN -> new TableCommand.Join(getString(body), getString(body));
+            case ACT -> new TableCommand.Act(getString(body), getString(body), body.getInt());
+            case HOLE -> new TableCommand.HoleCards(getCards(body));
+            case BOARD -> new TableCommand.Board(getCards(body));
+            case EQUITY -> new TableCommand.Equity(getEquity(body));
+            case CLOSE -> new TableCommand.Close();
+            default -> throw new IllegalArgumentException("Unknown record type " + type);
+        };
+        return new Entry(tableId, version, command);
+    }
+
+    // ------------------------------------------------------------------
+    // Snapshots
+    // ------------------------------------------------------------------
+
+    public static byte[] encodeSnapshot(long takenAt, List<SavedTable> tables) {
+        int size = HEADER_SIZE + 12 + 4;
+        for (SavedTable t : tables) {
+            size += 2 + t.tableId().length() * 3 + 12 + t.state().length;
+        }
+        ByteBuffer buf = ByteBuffer.allocate(size);
+        buf.putInt(SNAPSHOT_MAGIC);
+        buf.putInt(VERSION);
+        buf.putLong(takenAt);
+        buf.putInt(tables.size());
+        for (SavedTable t : tables) {
+            putString(buf, t.tableId());
+            buf.putLong(t.version());
+            buf.putInt(t.state().length);
+            buf.put(t.state());
+        }
+        buf.putInt(checksum(buf, HEADER_SIZE, buf.position()));
+        byte[] bytes = new byte[buf.position()];
+        buf.flip().get(bytes);
+        return bytes;
+    }
+
+    /**
+     * @throws IOException if it isn't a complete snapshot
+     */
+    public static List<SavedTable> decodeSnapshot(byte[] bytes) throws IOException {
+        ByteBuffer buf = ByteBuffer.wrap(bytes);
+        if (bytes.length < HEADER_SIZE + 16 || buf.getInt() != SNAPSHOT_MAGIC || buf.getInt() != VERSION) {
+            throw new IOException("Not a version " + VERSION + " table snapshot");
+        }
+        if (checksum(buf, HEADER_SIZE, bytes.length - 4) != buf.getInt(bytes.length - 4)) {
+            throw new IOException("Snapshot checksum doesn't match");
+        }
+        buf.getLong(); // takenAt
+        int count = buf.getInt();
+        List<SavedTable> tables = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String tableId = getString(buf);
+            long version = buf.getLong();
+            byte[] state = new byte[buf.getInt()];
+            buf.get(state);
+            tables.add(new SavedTable(tableId, version, state));
+        }
+        return tables;
+    }
+
+    // ------------------------------------------------------------------
+    // Helpers
+    // ------------------------------------------------------------------
+
+    static int checksum(ByteBuffer buf, int from, int to) {
+        CRC32 crc = new CRC32();
+        crc.update(buf.duplicate().limit(to).position(from));
+        return (int) crc.getValue();
+    }
+
+    private static void putHead(ByteBuffer buf, Entry entry) {
+        putString(buf, entry.tableId());
+        buf.putLong(entry.version());
+    }
+
+    private static void putCards(ByteBuffer buf, int[] cards) {
+        buf.put((byte) cards.length);
+        for (int card : cards) {
+            buf.put((byte) card);
+        }
+    }
+
+    private static int[] getCards(ByteBuffer buf) {
+        int[] cards = new int[buf.get()];
+        for (int i = 0; i < cards.length; i++) {
+            cards[i] = buf.get();
+        }
+        return cards;
+    }
+
+    private static Map<String, Double> getEquity(ByteBuffer buf) {
+        int n = buf.get();
+        Map<String, Double> equity = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            equity.put(getString(buf), buf.getDouble());
+        }
+        return equity;
+    }
+
+    private static void putString(ByteBuffer buf, String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("String too long for the table log: " + bytes.length + " bytes");
+        }
+        buf.putShort((short) bytes.length);
+        buf.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buf) {
+        byte[] bytes = new byte[buf.getShort() & 0xFFFF];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
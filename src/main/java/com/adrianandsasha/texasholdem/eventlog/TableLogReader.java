@@ -0,0 +1,85 @@
+package com.adrianandsasha.texasholdem.eventlog;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Streams the records back out of one log segment. Like the hand journal, a torn or corrupt
+ * record can only be the last one written before a crash; reading stops there and
+ * {@link #isTornTail()} says so.
+ */
+public class TableLogReader implements Closeable {
+    private final DataInputStream in;
+    private boolean tornTail;
+    private long recordsRead;
+
+    public TableLogReader(Path file) throws IOException {
+        in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16));
+        int magic;
+        int version;
+        try {
+            magic = in.readInt();
+            version = in.readInt();
+        } catch (EOFException e) {
+            // crashed before the header made it out: nothing in it
+            tornTail = true;
+            return;
+        }
+        if (magic != TableLog.MAGIC || version != TableLog.VERSION) {
+            in.close();
+            throw new IOException(file + " is not a version " + TableLog.VERSION + " table log");
+        }
+    }
+
+    /**
+     * The next record, or null at the end of the segment.
+     */
+    public TableLog.Entry next() throws IOException {
+        if (tornTail) {
+            return null;
+        }
+        int length;
+        try {
+            length = in.readInt();
+        } catch (EOFException e) {
+            return null; // clean end
+        }
+        try {
+            if (length <= 0) {
+                throw new EOFException();
+            }
+            byte[] body = new byte[length];
+            in.readFully(body);
+            int crc = in.readInt();
+            ByteBuffer buf = ByteBuffer.wrap(body);
+            if (TableLog.checksum(buf, 0, length) != crc) {
+                throw new EOFException();
+            }
+            recordsRead++;
+            return TableLog.decode(buf);
+        } catch (EOFException | OutOfMemoryError e) {
+            // half-written last record (crash) or garbage length
+            tornTail = true;
+            return null;
+        }
+    }
+
+    public boolean isTornTail() {
+        return tornTail;
+    }
+
+    public long getRecordsRead() {
+        return recordsRead;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
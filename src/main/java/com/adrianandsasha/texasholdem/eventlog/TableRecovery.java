@@ -0,0 +1,274 @@
+package com.adrianandsasha.texasholdem.eventlog;
+
+import com.adrianandsasha.texasholdem.service.GameMetrics;
+import com.adrianandsasha.texasholdem.service.TableRegistry;
+import com.adrianandsasha.texasholdem.table.Table;
+import com.adrianandsasha.texasholdem.table.TableCommand;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Brings the tables back after a restart and keeps the work that takes small.
+ *
+ * At startup every table is rebuilt from the newest snapshot plus the log records written after
+ * it (see {@link TableLog}), before the server takes any requests. Then every
+ * texasholdem.eventlog.snapshot-interval-ms all tables are saved into a new snapshot, taken on
+ * each table's own thread, and the log segments and snapshots it replaces are deleted, so a
+ * restart never has more than one interval of log to replay.
+ */
+@Component
+public class TableRecovery {
+    private static final Logger log = LoggerFactory.getLogger(TableRecovery.class);
+
+    @Autowired
+    private TableRegistry tableRegistry;
+
+    @Autowired
+    private TableEventLog eventLog;
+
+    @Autowired
+    private GameMetrics gameMetrics;
+
+    @Value("${texasholdem.eventlog.snapshot-interval-ms:60000}")
+    private long snapshotIntervalMillis = 60_000;
+
+    private ScheduledExecutorService scheduler;
+
+    // Startup recovery
+    private long recoveryMillis;
+    private int snapshotLoaded;
+    private int tablesRecovered;
+    private long commandsReplayed;
+    private int gaps;
+    private boolean tornTail;
+
+    // Snapshots, only written by the snapshot thread
+    private volatile long snapshotsTaken;
+    private volatile long snapshotsFailed;
+    private volatile long lastSnapshotMillis;
+    private volatile long lastSnapshotBytes;
+    private volatile long lastSnapshotAt;
+    private long recordsAtLastSnapshot = -1;
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!eventLog.isEnabled()) {
+            return;
+        }
+        recover();
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "table-snapshot");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::snapshot, snapshotIntervalMillis, snapshotIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // ------------------------------------------------------------------
+    // Recovery
+    // ------------------------------------------------------------------
+
+    private void recover() throws IOException {
+        long start = System.nanoTime();
+        Path dir = eventLog.getDirectory();
+
+        // Newest snapshot that reads back whole; the older ones only exist if a newer one broke
+        Map<String, TableLog.SavedTable> saved = new HashMap<>();
+        List<Integer> snapshots = TableLog.snapshots(dir);
+        for (int i = snapshots.size() - 1; i >= 0; i--) {
+            try {
+                for (TableLog.SavedTable t : TableLog.decodeSnapshot(Files.readAllBytes(TableLog.snapshotFile(dir, snapshots.get(i))))) {
+                    saved.put(t.tableId(), t);
+                }
+                snapshotLoaded = snapshots.get(i);
+                break;
+            } catch (IOException e) {
+                log.warn("Skipping table snapshot {}: {}", snapshots.get(i), e.getMessage());
+            }
+        }
+
+        // Log records after the snapshot, per table, in order
+        Set<String> tableIds = new LinkedHashSet<>(saved.keySet());
+        Map<String, List<TableCommand>> commands = new HashMap<>();
+        Map<String, Long> versions = new HashMap<>();
+        Set<String> broken = new LinkedHashSet<>();
+        for (int segment : TableLog.segments(dir)) {
+            if (segment < snapshotLoaded || segment >= eventLog.getSegment()) {
+                continue;
+            }
+            try (TableLogReader reader = new TableLogReader(TableLog.segmentFile(dir, segment))) {
+                TableLog.Entry entry;
+                while ((entry = reader.next()) != null) {
+                    String id = entry.tableId();
+                    if (entry.command() instanceof TableCommand.Close) {
+                        // whatever the snapshot or the log had for it is gone; if the id comes up
+                        // again it's a new table, and all of it is in the log from here on
+                        saved.remove(id);
+                        commands.remove(id);
+                        versions.remove(id);
+                        broken.remove(id);
+                        tableIds.remove(id);
+                        continue;
+                    }
+                    TableLog.SavedTable table = saved.get(id);
+                    long savedVersion = table == null ? 0 : table.version();
+                    if (entry.version() <= savedVersion || broken.contains(id)) {
+                        continue; // already in the snapshot
+                    }
+                    long current = versions.getOrDefault(id, savedVersion);
+                    boolean isCards = entry.command() instanceof TableCommand.HoleCards
+                            || entry.command() instanceof TableCommand.Board;
+                    if (entry.version() != (isCards ? current : current + 1)) {
+                        // a lost record: what comes after it can't be trusted
+                        log.warn("Table {} log jumps from version {} to {}, recovering up to the gap", id, current, entry.version());
+                        broken.add(id);
+                        gaps++;
+                        continue;
+                    }
+                    versions.put(id, entry.version());
+                    tableIds.add(id);
+                    commands.computeIfAbsent(id, k -> new ArrayList<>()).add(entry.command());
+                }
+                tornTail |= reader.isTornTail();
+            }
+        }
+
+        List<CompletableFuture<Void>> pending = new ArrayList<>();
+        for (String id : tableIds) {
+            TableLog.SavedTable table = saved.get(id);
+            List<TableCommand> tail = commands.getOrDefault(id, List.of());
+            commandsReplayed += tail.size();
+            eventLog.setVersion(id, versions.getOrDefault(id, table == null ? 0 : table.version()));
+            pending.add(tableRegistry.getOrCreate(id).recover(table == null ? null : table.state(), tail));
+        }
+        CompletableFuture.allOf(pending.toArray(CompletableFuture<?>[]::new)).join();
+        tablesRecovered = tableIds.size();
+        recoveryMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        gameMetrics.recovered(recoveryMillis, tablesRecovered, commandsReplayed, gaps);
+
+        if (tablesRecovered > 0) {
+            log.info("Recovered {} tables in {} ms (snapshot {}, {} log records replayed)",
+                    tablesRecovered, recoveryMillis, snapshotLoaded, commandsReplayed);
+            // start the next restart from here, and get rid of the old segments
+            snapshot();
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // Snapshots
+    // ------------------------------------------------------------------
+
+    /**
+     * Save every table into a new snapshot and drop the log it makes unnecessary. Skipped if
+     * nothing was logged since the last one.
+     */
+    public synchronized void snapshot() {
+        long records = eventLog.getRecordsWritten();
+        if (records == recordsAtLastSnapshot) {
+            return;
+        }
+        long start = System.nanoTime();
+        Path dir = eventLog.getDirectory();
+        try {
+            // first the new segment, then the tables: whatever they log after being saved lands in it
+            CompletableFuture<Integer> rotated = eventLog.rotate();
+            List<CompletableFuture<TableLog.SavedTable>> pending = new ArrayList<>();
+            for (Table table : tableRegistry.getTables()) {
+                // a table being closed has logged that it's gone
+                pending.add(table.call(t -> t.isClosed() ? null
+                        : new TableLog.SavedTable(t.getId(), eventLog.version(t.getId()), t.saveState())));
+            }
+            List<TableLog.SavedTable> tables = new ArrayList<>(pending.size());
+            for (CompletableFuture<TableLog.SavedTable> f : pending) {
+                TableLog.SavedTable table = f.get(10, TimeUnit.SECONDS);
+                if (table != null) {
+                    tables.add(table);
+                }
+            }
+            int segment = rotated.get(10, TimeUnit.SECONDS);
+
+            byte[] bytes = TableLog.encodeSnapshot(System.currentTimeMillis(), tables);
+            Path file = TableLog.snapshotFile(dir, segment);
+            Path tmp = dir.resolve(file.getFileName() + ".tmp");
+            try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buf = ByteBuffer.wrap(bytes);
+                while (buf.hasRemaining()) {
+                    out.write(buf);
+                }
+                out.force(true);
+            }
+            Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE);
+
+            for (int n : TableLog.segments(dir)) {
+                if (n < segment) Files.deleteIfExists(TableLog.segmentFile(dir, n));
+            }
+            for (int n : TableLog.snapshots(dir)) {
+                if (n < segment) Files.deleteIfExists(TableLog.snapshotFile(dir, n));
+            }
+
+            recordsAtLastSnapshot = records;
+            snapshotsTaken++;
+            lastSnapshotBytes = bytes.length;
+            lastSnapshotAt = System.currentTimeMillis();
+            lastSnapshotMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            gameMetrics.snapshotTaken(System.nanoTime() - start, bytes.length);
+        } catch (Exception e) {
+            // the older snapshot and segments are still there, so nothing is lost
+            snapshotsFailed++;
+            gameMetrics.snapshotFailed();
+            log.error("Table snapshot failed", e);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("recoveryMillis", recoveryMillis);
+        stats.put("snapshotLoaded", snapshotLoaded);
+        stats.put("tablesRecovered", tablesRecovered);
+        stats.put("commandsReplayed", commandsReplayed);
+        stats.put("gaps", gaps);
+        stats.put("tornTail", tornTail);
+        stats.put("snapshotIntervalMillis", snapshotIntervalMillis);
+        stats.put("snapshotsTaken", snapshotsTaken);
+        stats.put("snapshotsFailed", snapshotsFailed);
+        stats.put("lastSnapshotMillis", lastSnapshotMillis);
+        stats.put("lastSnapshotBytes", lastSnapshotBytes);
+        stats.put("lastSnapshotAt", lastSnapshotAt);
+        return stats;
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdownNow();
+        // a clean shutdown restarts from a snapshot with nothing to replay
+        snapshot();
+    }
+}
@@ -0,0 +1,196 @@
+package com.adrianandsasha.texasholdem.history;
+
+import com.adrianandsasha.texasholdem.model.Cards;
+import com.adrianandsasha.texasholdem.model.GameRound;
+
+import java.io.IOException;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+
+/**
+ * Writes hands in the common text hand-history layout (the PokerStars style most trackers and
+ * replayers read): header, seats, blinds, one section per street, showdown and summary. All
+ * hole cards are shown since this is an audit export.
+ */
+public final class HandHistoryExporter {
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm:ss").withZone(ZoneOffset.UTC);
+    private static final String RANK_CHARS = "23456789TJQKA";
+    private static final String SUIT_CHARS = "hdcs"; // Suit order: HEARTS, DIAMONDS, CLUBS, SPADES
+
+    private HandHistoryExporter() {
+    }
+
+    public static void write(HandRecord hand, Appendable out) throws IOException {
+        int seats = hand.seats().size();
+        int[] stack = new int[seats];
+        int[] streetBet = new int[seats];
+        boolean[] folded = new boolean[seats];
+        for (int i = 0; i < seats; i++) {
+            stack[i] = hand.seats().get(i).stack();
+        }
+
+        out.append("PokerCPT Hand #").append(Long.toString(hand.handId())).append(": Hold'em No Limit (")
+                .append(Integer.toString(hand.smallBlind())).append('/').append(Integer.toString(hand.bigBlind()))
+                .append(") - ").append(TIME.format(Instant.ofEpochMilli(hand.startedAt()))).append(" UTC\n");
+        out.append("Table '").append(hand.tableId()).append("' ").append(Integer.toString(seats))
+                .append("-max Seat #1 is the button\n");
+        for (int i = 0; i < seats; i++) {
+            out.append("Seat ").append(Integer.toString(i + 1)).append(": ").append(name(hand, i))
+                    .append(" (").append(Integer.toString(stack[i])).append(" in chips)\n");
+        }
+
+        GameRound street = GameRound.PRE_FLOP;
+        int highest = 0;
+        boolean holeCardsShown = false;
+        for (HandRecord.Action action : hand.actions()) {
+            if (!action.type().endsWith("_BLIND") && !holeCardsShown) {
+                holeCards(hand, out);
+                holeCardsShown = true;
+            }
+            while (street != action.round()) {
+                street = GameRound.values()[street.ordinal() + 1];
+                streetHeader(hand, street, out);
+                Arrays.fill(streetBet, 0);
+                highest = 0;
+            }
+
+            int seat = action.seat();
+            stack[seat] -= action.amount();
+            streetBet[seat] += action.amount();
+            out.append(name(hand, seat)).append(": ");
+            switch (action.type()) {
+                case "SMALL_BLIND" -> out.append("posts small blind ").append(Integer.toString(action.amount()));
+                case "BIG_BLIND" -> out.append("posts big blind ").append(Integer.toString(action.amount()));
+                case "FOLD" -> {
+                    folded[seat] = true;
+                    out.append("folds");
+                }
+                case "CHECK" -> {
+                    if (streetBet[seat] < highest) {
+                        folded[seat] = true; // the table folds a check that doesn't match the bet
+                        out.append("folds");
+                    } else {
+                        out.append("checks");
+                    }
+                }
+                case "CALL" -> {
+                    if (action.amount() == 0) {
+                        out.append("checks");
+                    } else {
+                        out.append("calls ").append(Integer.toString(action.amount()));
+                    }
+                }
+                case "RAISE" -> {
+                    if (streetBet[seat] > highest) {
+                        out.append("raises ").append(Integer.toString(streetBet[seat] - highest))
+                                .append(" to ").append(Integer.toString(streetBet[seat]));
+                    } else {
+                        out.append("calls ").append(Integer.toString(action.amount()));
+                    }
+                }
+                default -> out.append(action.type().toLowerCase());
+            }
+            highest = Math.max(highest, streetBet[seat]);
+            if (stack[seat] == 0 && action.amount() > 0) {
+                out.append(" and is all-in");
+            }
+            out.append('\n');
+        }
+        if (!holeCardsShown) {
+            holeCards(hand, out);
+        }
+        // streets dealt after the last action (everyone all-in)
+        while (street.ordinal() < hand.endedIn().ordinal() && street != GameRound.RIVER) {
+            street = GameRound.values()[street.ordinal() + 1];
+            streetHeader(hand, street, out);
+        }
+
+        int total = 0;
+        for (HandRecord.Payout payout : hand.payouts()) {
+            total += payout.amount();
+        }
+        if (hand.endedIn() == GameRound.SHOWDOWN) {
+            out.append("*** SHOW DOWN ***\n");
+            for (int i = 0; i < seats; i++) {
+                if (!folded[i]) {
+                    out.append(name(hand, i)).append(": shows ").append(hole(hand, i)).append('\n');
+                }
+            }
+        }
+        for (HandRecord.Payout payout : hand.payouts()) {
+            out.append(name(hand, payout.seat())).append(" collected ").append(Integer.toString(payout.amount()))
+                    .append(" from pot\n");
+        }
+
+        out.append("*** SUMMARY ***\n");
+        out.append("Total pot ").append(Integer.toString(total)).append(" | Rake 0\n");
+        if (hand.board().length > 0) {
+            out.append("Board ").append(cards(hand.board(), 0, hand.board().length)).append('\n');
+        }
+        for (int i = 0; i < seats; i++) {
+            out.append("Seat ").append(Integer.toString(i + 1)).append(": ").append(name(hand, i));
+            if (i == 0) out.append(" (button)");
+            else if (i == 1) out.append(" (small blind)");
+            else if (i == 2 && seats > 2) out.append(" (big blind)");
+            int won = 0;
+            for (HandRecord.Payout payout : hand.payouts()) {
+                if (payout.seat() == i) won += payout.amount();
+            }
+            if (folded[i]) {
+                out.append(" folded");
+            } else if (hand.endedIn() == GameRound.SHOWDOWN) {
+                out.append(" showed ").append(hole(hand, i)).append(won > 0 ? " and won (" + won + ")" : " and lost");
+            } else if (won > 0) {
+                out.append(" collected (").append(Integer.toString(won)).append(')');
+            }
+            out.append('\n');
+        }
+        out.append('\n');
+    }
+
+    private static void holeCards(HandRecord hand, Appendable out) throws IOException {
+        out.append("*** HOLE CARDS ***\n");
+        for (int i = 0; i < hand.seats().size(); i++) {
+            out.append("Dealt to ").append(name(hand, i)).append(' ').append(hole(hand, i)).append('\n');
+        }
+    }
+
+    private static void streetHeader(HandRecord hand, GameRound street, Appendable out) throws IOException {
+        int[] board = hand.board();
+        switch (street) {
+            case FLOP -> out.append("*** FLOP *** ").append(cards(board, 0, 3));
+            case TURN -> out.append("*** TURN *** ").append(cards(board, 0, 3)).append(' ').append(cards(board, 3, 4));
+            case RIVER -> out.append("*** RIVER *** ").append(cards(board, 0, 4)).append(' ').append(cards(board, 4, 5));
+            default -> {
+                return;
+            }
+        }
+        out.append('\n');
+    }
+
+    private static String name(HandRecord hand, int seat) {
+        return hand.seats().get(seat).nickname();
+    }
+
+    private static String hole(HandRecord hand, int seat) {
+        HandRecord.Seat s = hand.seats().get(seat);
+        return "[" + card(s.card1()) + " " + card(s.card2()) + "]";
+    }
+
+    private static String cards(int[] cards, int from, int to) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = from; i < Math.min(to, cards.length); i++) {
+            if (i > from) sb.append(' ');
+            sb.append(card(cards[i]));
+        }
+        return sb.append(']').toString();
+    }
+
+    /** "Ah", "Td", "2c" */
+    static String card(int card) {
+        return "" + RANK_CHARS.charAt(Cards.rankValue(card) - 2) + SUIT_CHARS.charAt(Cards.suit(card).ordinal());
+    }
+}
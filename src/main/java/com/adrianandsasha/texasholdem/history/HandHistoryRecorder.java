@@ -0,0 +1,60 @@
+package com.adrianandsasha.texasholdem.history;
+
+import com.adrianandsasha.texasholdem.dto.PlayerAction;
+import com.adrianandsasha.texasholdem.table.Table;
+import com.adrianandsasha.texasholdem.table.TableEvent;
+import com.adrianandsasha.texasholdem.table.TableListener;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Builds a {@link HandRecord} for every hand on every table and hands it to the journal once
+ * the hand is over. Runs on the table threads, so all it does per hand is fill in a few lists.
+ */
+@Component
+public class HandHistoryRecorder implements TableListener {
+
+    @Autowired
+    private HandJournalWriter journal;
+
+    // Hand in progress per table id; each entry is only touched by its table's thread
+    private final Map<String, HandRecordBuilder> openHands = new ConcurrentHashMap<>();
+
+    @Override
+    public void onAction(Table table, PlayerAction action) {
+        HandRecordBuilder hand = openHands.get(table.getId());
+        if (hand != null) {
+            hand.action(action);
+        }
+    }
+
+    @Override
+    public void onEvent(Table table, TableEvent event) {
+        if (!journal.isEnabled()) {
+            return;
+        }
+        if (event instanceof TableEvent.HandStarted started) {
+            openHands.put(table.getId(), new HandRecordBuilder(table, started));
+            return;
+        }
+        HandRecordBuilder hand = openHands.get(table.getId());
+        if (hand == null) {
+            return;
+        }
+        if (event instanceof TableEvent.HandEnded ended) {
+            openHands.remove(table.getId());
+            journal.append(hand.finish(ended));
+        } else {
+            hand.event(event);
+        }
+    }
+
+    // a hand cut off by the table closing never ends, so it isn't journaled
+    @Override
+    public void onClosed(Table table) {
+        openHands.remove(table.getId());
+    }
+}
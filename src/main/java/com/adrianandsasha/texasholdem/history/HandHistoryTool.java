@@ -0,0 +1,74 @@
+package com.adrianandsasha.texasholdem.history;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Command line for journals:
+ * <pre>
+ *   HandHistoryTool export hands.journal [hands.txt]   text hand histories (stdout without a file)
+ *   HandHistoryTool replay hands.journal               replay every hand through the rules and check it
+ * </pre>
+ */
+public final class HandHistoryTool {
+
+    private HandHistoryTool() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: HandHistoryTool export <journal> [out.txt] | replay <journal>");
+            System.exit(2);
+        }
+        Path journal = Paths.get(args[1]);
+        switch (args[0]) {
+            case "export" -> export(journal, args.length > 2 ? Paths.get(args[2]) : null);
+            case "replay" -> System.exit(replay(journal) ? 0 : 1);
+            default -> {
+                System.err.println("Unknown command: " + args[0]);
+                System.exit(2);
+            }
+        }
+    }
+
+    private static void export(Path journal, Path out) throws IOException {
+        try (HandJournalReader reader = new HandJournalReader(journal);
+             Writer writer = out != null ? Files.newBufferedWriter(out, StandardCharsets.UTF_8)
+                     : new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))) {
+            HandRecord hand;
+            while ((hand = reader.next()) != null) {
+                HandHistoryExporter.write(hand, writer);
+            }
+            writer.flush();
+            report(reader);
+        }
+    }
+
+    private static boolean replay(Path journal) throws IOException {
+        long mismatches = 0;
+        try (HandJournalReader reader = new HandJournalReader(journal)) {
+            HandRecord hand;
+            while ((hand = reader.next()) != null) {
+                HandReplayer.Result result = HandReplayer.replay(hand);
+                if (!result.matches()) {
+                    if (mismatches++ < 10) {
+                        System.err.println("Hand " + hand.handId() + " on table " + hand.tableId() + ": " + result.mismatch());
+                    }
+                }
+            }
+            report(reader);
+            System.err.println(mismatches + " of " + reader.getHandsRead() + " hands didn't replay the same");
+        }
+        return mismatches == 0;
+    }
+
+    private static void report(HandJournalReader reader) {
+        System.err.println(reader.getHandsRead() + " hands read" + (reader.isTornTail() ? ", the last record is torn (ignored)" : ""));
+    }
+}
@@ -0,0 +1,162 @@
+package com.adrianandsasha.texasholdem.history;
+
+import com.adrianandsasha.texasholdem.model.GameRound;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * The binary journal format.
+ *
+ * A journal file is an 8 byte header (magic "PKHJ", int version) followed by records:
+ * <pre>
+ *   int length | body (length bytes) | int CRC32 of the body
+ * </pre>
+ * Records are only ever appended, so a crash can at worst leave a torn record at the end,
+ * which the length / CRC check catches. Body, all big-endian:
+ * <pre>
+ *   long handId, long startedAt, str tableId, int smallBlind, int bigBlind
+ *   byte seats    { str playerId, str nickname, int stack, byte card1, byte card2 }
+ *   byte board    { byte card }
+ *   short actions { byte seat, byte type, byte round, int amount }
+ *   byte endedIn
+ *   byte payouts  { byte seat, int amount }
+ * </pre>
+ * str is a short length plus UTF-8 bytes.
+ */
+public final class HandJournal {
+    public static final int MAGIC = 0x504B484A; // "PKHJ"
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 8;
+
+    // Action types by their byte code
+    private static final String[] ACTION_TYPES = {"SMALL_BLIND", "BIG_BLIND", "FOLD", "CHECK", "CALL", "RAISE", "UNKNOWN"};
+    private static final GameRound[] ROUNDS = GameRound.values();
+
+    private HandJournal() {
+    }
+
+    public static void writeHeader(ByteBuffer buf) {
+        buf.putInt(MAGIC);
+        buf.putInt(VERSION);
+    }
+
+    /**
+     * Append one record (length, body, CRC) at the buffer's position.
+     *
+     * @throws java.nio.BufferOverflowException if it doesn't fit; the buffer position is then undefined
+     */
+    public static void encode(HandRecord hand, ByteBuffer buf) {
+        int start = buf.position();
+        buf.putInt(0); // length, patched below
+        int bodyStart = buf.position();
+
+        buf.putLong(hand.handId());
+        buf.putLong(hand.startedAt());
+        putString(buf, hand.tableId());
+        buf.putInt(hand.smallBlind());
+        buf.putInt(hand.bigBlind());
+
+        buf.put((byte) hand.seats().size());
+        for (HandRecord.Seat seat : hand.seats()) {
+            putString(buf, seat.playerId());
+            putString(buf, seat.nickname());
+            buf.putInt(seat.stack());
+            buf.put((byte) seat.card1());
+            buf.put((byte) seat.card2());
+        }
+
+        buf.put((byte) hand.board().length);
+        for (int card : hand.board()) {
+            buf.put((byte) card);
+        }
+
+        buf.putShort((short) hand.actions().size());
+        for (HandRecord.Action action : hand.actions()) {
+            buf.put((byte) action.seat());
+            buf.put(actionCode(action.type()));
+            buf.put((byte) action.round().ordinal());
+            buf.putInt(action.amount());
+        }
+
+        buf.put((byte) hand.endedIn().ordinal());
+        buf.put((byte) hand.payouts().size());
+        for (HandRecord.Payout payout : hand.payouts()) {
+            buf.put((byte) payout.seat());
+            buf.putInt(payout.amount());
+        }
+
+        int end = buf.position();
+        buf.putInt(start, end - bodyStart);
+        buf.putInt(checksum(buf, bodyStart, end));
+    }
+
+    /**
+     * Read a record body (without its length and CRC).
+     */
+    public static HandRecord decode(ByteBuffer body) {
+        long handId = body.getLong();
+        long startedAt = body.getLong();
+        String tableId = getString(body);
+        int smallBlind = body.getInt();
+        int bigBlind = body.getInt();
+
+        int seatCount = body.get();
+        List<HandRecord.Seat> seats = new ArrayList<>(seatCount);
+        for (int i = 0; i < seatCount; i++) {
+            seats.add(new HandRecord.Seat(getString(body), getString(body), body.getInt(), body.get(), body.get()));
+        }
+
+        int[] board = new int[body.get()];
+        for (int i = 0; i < board.length; i++) {
+            board[i] = body.get();
+        }
+
+        int actionCount = body.getShort() & 0xFFFF;
+        List<HandRecord.Action> actions = new ArrayList<>(actionCount);
+        for (int i = 0; i < actionCount; i++) {
+            actions.add(new HandRecord.Action(body.get(), ACTION_TYPES[body.get()], ROUNDS[body.get()], body.getInt()));
+        }
+
+        GameRound endedIn = ROUNDS[body.get()];
+        int payoutCount = body.get();
+        List<HandRecord.Payout> payouts = new ArrayList<>(payoutCount);
+        for (int i = 0; i < payoutCount; i++) {
+            payouts.add(new HandRecord.Payout(body.get(), body.getInt()));
+        }
+        return new HandRecord(tableId, handId, startedAt, smallBlind, bigBlind, seats, board, actions, endedIn, payouts);
+    }
+
+    static int checksum(ByteBuffer buf, int from, int to) {
+        CRC32 crc = new CRC32();
+        crc.update(buf.duplicate().limit(to).position(from));
+        return (int) crc.getValue();
+    }
+
+    private static byte actionCode(String type) {
+        for (int i = 0; i < ACTION_TYPES.length; i++) {
+            if (ACTION_TYPES[i].equals(type)) {
+                return (byte) i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown action type: " + type);
+    }
+
+    private static void putString(ByteBuffer buf, String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("String too long for the journal: " + bytes.length + " bytes");
+        }
+        buf.putShort((short) bytes.length);
+        buf.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buf) {
+        byte[] bytes = new byte[buf.getShort() & 0xFFFF];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
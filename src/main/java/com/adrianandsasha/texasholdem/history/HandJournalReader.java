@@ -0,0 +1,84 @@
+package com.adrianandsasha.texasholdem.history;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Streams the hands back out of a journal file, one record at a time, so any size of journal
+ * can be exported or replayed. A torn or corrupt record can only be at the end (the file is
+ * append-only); reading stops there and {@link #isTornTail()} says so.
+ */
+public class HandJournalReader implements Closeable {
+    private final DataInputStream in;
+    private boolean tornTail;
+    private long handsRead;
+
+    public HandJournalReader(Path file) throws IOException {
+        in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16));
+        int magic;
+        int version;
+        try {
+            magic = in.readInt();
+            version = in.readInt();
+        } catch (EOFException e) {
+            in.close();
+            throw new IOException(file + " is not a hand journal (too short)");
+        }
+        if (magic != HandJournal.MAGIC || version != HandJournal.VERSION) {
+            in.close();
+            throw new IOException(file + " is not a version " + HandJournal.VERSION + " hand journal");
+        }
+    }
+
+    /**
+     * The next hand, or null at the end of the journal.
+     */
+    public HandRecord next() throws IOException {
+        if (tornTail) {
+            return null;
+        }
+        int length;
+        try {
+            length = in.readInt();
+        } catch (EOFException e) {
+            return null; // clean end
+        }
+        try {
+            if (length <= 0) {
+                throw new EOFException();
+            }
+            byte[] body = new byte[length];
+            in.readFully(body);
+            int crc = in.readInt();
+            ByteBuffer buf = ByteBuffer.wrap(body);
+            if (HandJournal.checksum(buf, 0, length) != crc) {
+                throw new EOFException();
+            }
+            handsRead++;
+            return HandJournal.decode(buf);
+        } catch (EOFException | OutOfMemoryError e) {
+            // half-written last record (crash) or garbage length
+            tornTail = true;
+            return null;
+        }
+    }
+
+    public boolean isTornTail() {
+        return tornTail;
+    }
+
+    public long getHandsRead() {
+        return handsRead;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
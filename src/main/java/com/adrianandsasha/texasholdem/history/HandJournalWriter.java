@@ -0,0 +1,197 @@
+package com.adrianandsasha.texasholdem.history;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Appends finished hands to the journal file without the table threads ever touching the disk.
+ *
+ * append() only offers the record to a bounded queue (if the writer can't keep up the hand is
+ * dropped and counted rather than stalling a table). One writer thread drains the queue in
+ * batches, encodes them into a direct buffer and hands each batch to the FileChannel in a single
+ * write. Every server start gets a new file, hands-yyyyMMdd-HHmmss.journal.
+ */
+@Component
+public class HandJournalWriter {
+    private static final Logger log = LoggerFactory.getLogger(HandJournalWriter.class);
+
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final int MAX_BATCH = 4096;
+
+    @Value("${texasholdem.journal.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${texasholdem.journal.dir:hand-history}")
+    private String dir = "hand-history";
+
+    @Value("${texasholdem.journal.queue-capacity:65536}")
+    private int queueCapacity = 65536;
+
+    // force() after every batch; off means the OS decides when the page cache hits the disk
+    @Value("${texasholdem.journal.fsync:false}")
+    private boolean fsync;
+
+    private BlockingQueue<HandRecord> queue;
+    private FileChannel channel;
+    private Path file;
+    private Thread writer;
+    private volatile boolean running;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+
+    @PostConstruct
+    public void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Path directory = Paths.get(dir);
+        Files.createDirectories(directory);
+        file = directory.resolve("hands-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".journal");
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        if (channel.size() == 0) {
+            HandJournal.writeHeader(buffer);
+            flush();
+        }
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        writer = new Thread(this::writeLoop, "hand-journal");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("Writing hand history to {}", file.toAbsolutePath());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Queue a finished hand. Never blocks; false if journaling is off or the queue is full.
+     */
+    public boolean append(HandRecord hand) {
+        if (!enabled) {
+            return false;
+        }
+        if (!queue.offer(hand)) {
+            dropped.increment();
+            return false;
+        }
+        return true;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("file", file == null ? null : file.toString());
+        stats.put("handsWritten", written.sum());
+        stats.put("handsDropped", dropped.sum());
+        stats.put("handsFailed", failed.sum());
+        stats.put("bytesWritten", bytes.sum());
+        stats.put("queued", queue == null ? 0 : queue.size());
+        return stats;
+    }
+
+    private void writeLoop() {
+        List<HandRecord> batch = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            try {
+                HandRecord first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH - 1);
+                for (HandRecord hand : batch) {
+                    encode(hand);
+                }
+                flush();
+            } catch (InterruptedException e) {
+                // close() is waiting for us: finish what's queued, then stop
+                running = false;
+            } catch (IOException | RuntimeException e) {
+                failed.add(batch.size());
+                log.error("Couldn't write {} hands to the journal", batch.size(), e);
+                buffer.clear();
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void encode(HandRecord hand) throws IOException {
+        int mark = buffer.position();
+        try {
+            HandJournal.encode(hand, buffer);
+        } catch (BufferOverflowException e) {
+            // write out what's there and try again with the whole buffer
+            buffer.position(mark);
+            flush();
+            try {
+                HandJournal.encode(hand, buffer);
+            } catch (BufferOverflowException tooBig) {
+                buffer.clear();
+                failed.increment();
+                log.error("Hand {} on table {} is too big for the journal", hand.handId(), hand.tableId());
+                return;
+            }
+        } catch (RuntimeException e) {
+            buffer.position(mark);
+            failed.increment();
+            log.error("Couldn't encode hand {} on table {}", hand.handId(), hand.tableId(), e);
+            return;
+        }
+        written.increment();
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        bytes.add(buffer.remaining());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+        if (fsync) {
+            channel.force(false);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException, InterruptedException {
+        if (!enabled) {
+            return;
+        }
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+        channel.close();
+    }
+}
@@ -0,0 +1,61 @@
+package com.adrianandsasha.texasholdem.history;
+
+import com.adrianandsasha.texasholdem.model.GameRound;
+
+import java.util.List;
+
+/**
+ * Everything about one finished hand: who sat where with what, their hole cards, the blinds and
+ * every player action, the board and who got paid. Cards are 0..51
+ * indexes (see Cards).
+ *
+ * Seats are in the order the hand was dealt: seat 0 is the button, seat 1 posts the small
+ * blind. Hole cards and board are in deal order too, which is what a replay needs.
+ *
+ * @param handId    the seq of the hand's HandStarted event on its table
+ * @param startedAt epoch millis
+ * @param board     0 to 5 cards
+ * @param endedIn   round the hand ended in (SHOWDOWN, or the round everyone else folded in)
+ */
+public record HandRecord(String tableId, long handId, long startedAt, int smallBlind, int bigBlind,
+                         List<Seat> seats, int[] board, List<Action> actions, GameRound endedIn,
+                         List<Payout> payouts) {
+
+    /**
+     * @param stack chips before the blinds went in
+     */
+    public record Seat(String playerId, String nickname, int stack, int card1, int card2) {
+    }
+
+    /**
+     * @param type   SMALL_BLIND or BIG_BLIND (posted by the table), otherwise the action as the
+     *               player submitted it: FOLD, CHECK, CALL, RAISE (UNKNOWN for anything else)
+     * @param amount chips put in by this action
+     */
+    public record Action(int seat, String type, GameRound round, int amount) {
+    }
+
+    public record Payout(int seat, int amount) {
+    }
+
+    public int seatOf(String playerId) {
+        for (int i = 0; i < seats.size(); i++) {
+            if (seats.get(i).playerId().equals(playerId)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** Cards in the order a replay has to deal them: both hole cards per seat, then the board. */
+    public int[] dealOrder() {
+        int[] order = new int[seats.size() * 2 + board.length];
+        int n = 0;
+        for (Seat seat : seats) {
+            order[n++] = seat.card1();
+            order[n++] = seat.card2();
+        }
+        System.arraycopy(board, 0, order, n, board.length);
+        return order;
+    }
+}
@@ -0,0 +1,90 @@
+package com.adrianandsasha.texasholdem.history;
+
+import com.adrianandsasha.texasholdem.dto.PlayerAction;
+import com.adrianandsasha.texasholdem.model.Card;
+import com.adrianandsasha.texasholdem.model.GameRound;
+import com.adrianandsasha.texasholdem.model.Player;
+import com.adrianandsasha.texasholdem.table.Table;
+import com.adrianandsasha.texasholdem.table.TableEvent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Collects one hand from a table's callbacks, from its HandStarted to its HandEnded. Used by
+ * the recorder on the live tables and by the replayer on the replay table, so both describe a
+ * hand the same way.
+ *
+ * Player actions are recorded as submitted (that's what a replay has to submit again, e.g. a
+ * CHECK the table turned into a fold), with the chips they actually put in.
+ */
+final class HandRecordBuilder {
+    private static final Set<String> ACTION_TYPES = Set.of("FOLD", "CHECK", "CALL", "RAISE");
+
+    private final String tableId;
+    private final long handId;
+    private final long startedAt = System.currentTimeMillis();
+    private final int smallBlind;
+    private final int bigBlind;
+    private final List<HandRecord.Seat> seats = new ArrayList<>();
+    private final List<HandRecord.Action> actions = new ArrayList<>();
+    private final int[] board = new int[5];
+    private int boardSize;
+    private GameRound round = GameRound.PRE_FLOP;
+
+    /**
+     * Called from the HandStarted event: cards are dealt, blinds aren't in yet.
+     */
+    HandRecordBuilder(Table table, TableEvent.HandStarted started) {
+        tableId = table.getId();
+        handId = started.seq();
+        smallBlind = table.getSmallBlind();
+        bigBlind = table.getBigBlind();
+        for (String playerId : started.activePlayersThisHand()) {
+            Player p = table.getPlayer(playerId);
+            List<Card> hole = p.getHoleCards();
+            seats.add(new HandRecord.Seat(playerId, p.getNickname(), p.getChipStack(),
+                    hole.get(0).getIndex(), hole.get(1).getIndex()));
+        }
+    }
+
+    void action(PlayerAction action) {
+        String type = action.getActionType() == null ? "UNKNOWN" : action.getActionType().toUpperCase();
+        actions.add(new HandRecord.Action(seatOf(action.getPlayerId()), ACTION_TYPES.contains(type) ? type : "UNKNOWN", round, 0));
+    }
+
+    void event(TableEvent event) {
+        if (event instanceof TableEvent.BetPlaced bet) {
+            if (bet.action().endsWith("_BLIND")) {
+                actions.add(new HandRecord.Action(seatOf(bet.playerId()), bet.action(), round, bet.amount()));
+            } else {
+                // the chips that went in for the action recorded just before
+                HandRecord.Action last = actions.remove(actions.size() - 1);
+                actions.add(new HandRecord.Action(last.seat(), last.type(), last.round(), bet.amount()));
+            }
+        } else if (event instanceof TableEvent.CardsDealt dealt) {
+            round = dealt.round();
+            for (Card card : dealt.cards()) {
+                board[boardSize++] = card.getIndex();
+            }
+        }
+    }
+
+    HandRecord finish(TableEvent.HandEnded ended) {
+        List<HandRecord.Payout> payouts = new ArrayList<>();
+        ended.payouts().forEach((playerId, amount) -> payouts.add(new HandRecord.Payout(seatOf(playerId), amount)));
+        return new HandRecord(tableId, handId, startedAt, smallBlind, bigBlind, seats,
+                Arrays.copyOf(board, boardSize), actions, ended.round(), payouts);
+    }
+
+    private int seatOf(String playerId) {
+        for (int i = 0; i < seats.size(); i++) {
+            if (seats.get(i).playerId().equals(playerId)) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("Player " + playerId + " isn't in hand " + handId);
+    }
+}
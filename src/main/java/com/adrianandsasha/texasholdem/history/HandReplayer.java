@@ -0,0 +1,108 @@
+package com.adrianandsasha.texasholdem.history;
+
+import com.adrianandsasha.texasholdem.dto.PlayerAction;
+import com.adrianandsasha.texasholdem.model.Deck;
+import com.adrianandsasha.texasholdem.table.Table;
+import com.adrianandsasha.texasholdem.table.TableEvent;
+import com.adrianandsasha.texasholdem.table.TableListener;
+
+import java.util.Arrays;
+
+/**
+ * Plays a recorded hand again through the real rules and checks the table comes out the same.
+ *
+ * The replay table gets the recorded seats and stacks in deal order and a deck stacked with the
+ * recorded cards, the blinds are posted by the table itself, and every recorded player action is
+ * submitted again. The hand matches if the table accepts the same actions with the same chips,
+ * deals the same board, ends in the same round and pays out the same amounts.
+ */
+public final class HandReplayer {
+
+    private HandReplayer() {
+    }
+
+    /**
+     * @param matches  true if the replay reproduced the hand
+     * @param mismatch what differed first, null if it matched
+     */
+    public record Result(boolean matches, String mismatch) {
+    }
+
+    public static Result replay(HandRecord hand) {
+        Capture capture = new Capture();
+        Table table = new Table(hand.tableId(), Runnable::run, capture);
+        // the stacked deck for this hand; the table deals the next one by itself, that one gets a normal deck
+        Deck[] stacked = {Deck.stacked(hand.dealOrder())};
+        table.setDeckFactory(() -> {
+            Deck deck = stacked[0] != null ? stacked[0] : new Deck();
+            stacked[0] = null;
+            return deck;
+        });
+        for (HandRecord.Seat seat : hand.seats()) {
+            table.seat(seat.playerId(), seat.nickname(), seat.stack());
+        }
+        table.deal();
+
+        PlayerAction action = new PlayerAction();
+        for (HandRecord.Action recorded : hand.actions()) {
+            if (recorded.type().endsWith("_BLIND")) {
+                continue; // the table posts those itself
+            }
+            if (capture.replayed != null) {
+                return new Result(false, "hand ended before " + recorded);
+            }
+            action.setPlayerId(hand.seats().get(recorded.seat()).playerId());
+            action.setActionType(recorded.type());
+            action.setAmount(recorded.amount());
+            table.submit(action);
+        }
+
+        HandRecord replayed = capture.replayed;
+        if (replayed == null) {
+            return new Result(false, "hand didn't end after the recorded actions");
+        }
+        if (!replayed.actions().equals(hand.actions())) {
+            return new Result(false, "actions differ: replayed " + replayed.actions() + ", recorded " + hand.actions());
+        }
+        if (!Arrays.equals(replayed.board(), hand.board())) {
+            return new Result(false, "board differs: replayed " + Arrays.toString(replayed.board())
+                    + ", recorded " + Arrays.toString(hand.board()));
+        }
+        if (replayed.endedIn() != hand.endedIn()) {
+            return new Result(false, "ended in " + replayed.endedIn() + ", recorded " + hand.endedIn());
+        }
+        if (!replayed.payouts().equals(hand.payouts())) {
+            return new Result(false, "payouts differ: replayed " + replayed.payouts() + ", recorded " + hand.payouts());
+        }
+        return new Result(true, null);
+    }
+
+    /** Records the replay table's one hand the same way the live tables are recorded. */
+    private static final class Capture implements TableListener {
+        private HandRecordBuilder builder;
+        private HandRecord replayed;
+
+        @Override
+        public void onAction(Table table, PlayerAction action) {
+            if (builder != null) {
+                builder.action(action);
+            }
+        }
+
+        @Override
+        public void onEvent(Table table, TableEvent event) {
+            if (replayed != null) {
+                return; // the table starts the next hand by itself, not ours
+            }
+            if (event instanceof TableEvent.HandStarted started) {
+                builder = new HandRecordBuilder(table, started);
+            } else if (event instanceof TableEvent.HandEnded ended) {
+                if (builder != null) {
+                    replayed = builder.finish(ended);
+                }
+            } else if (builder != null) {
+                builder.event(event);
+            }
+        }
+    }
+}
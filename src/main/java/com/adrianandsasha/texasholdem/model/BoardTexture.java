@@ -0,0 +1,133 @@
+package com.adrianandsasha.texasholdem.model;
+
+/**
+ * What a board (0..5 community cards) already decides about every hand played on it: the rank
+ * histogram, the ranks of the one suit that could still make a flush, and whether a straight is
+ * possible. Finishing a hand from it is two cards of work instead of seven.
+ *
+ * Which suit is which never matters for that, so a texture describes a whole class of boards
+ * that only differ by suits (see {@link SuitIsomorphism#canonicalBoard(long)}): the board it holds is the canonical
+ * one, and the flush suit of the actual board is passed in when evaluating. Immutable, so one
+ * texture can be shared by every table and thread.
+ */
+public final class BoardTexture {
+    private static final int WHEEL = 0x100F; // A-2-3-4-5
+
+    private final long board;
+    private final int cardCount;
+    private final int ranks;       // ranks on the board at least once
+    private final int pairs;       // ... at least twice
+    private final int trips;       // ... three times
+    private final int quads;
+    private final int flushRanks;  // ranks of the suit with 3+ cards, 0 if no flush is possible
+    private final int flushCount;
+    private final boolean straightPossible;
+    private final int strength;    // the board on its own
+
+    private BoardTexture(long board) {
+        this.board = board;
+        this.cardCount = Long.bitCount(board);
+        int r = 0, two = 0, three = 0, four = 0;
+        for (long m = board; m != 0; m &= m - 1) {
+            int bit = 1 << (Long.numberOfTrailingZeros(m) % Cards.RANKS);
+            four |= three & bit;
+            three |= two & bit;
+            two |= r & bit;
+            r |= bit;
+        }
+        this.ranks = r;
+        this.pairs = two;
+        this.trips = three;
+        this.quads = four;
+        int suit = flushSuit(board);
+        this.flushRanks = suit < 0 ? 0 : Cards.suitRanks(board, suit);
+        this.flushCount = Integer.bitCount(flushRanks);
+        this.straightPossible = straightPossible(r);
+        this.strength = FastHandEvaluator.evaluate(board);
+    }
+
+    /** The texture of this board, worked out from scratch (see BoardTextureCache for a cached one). */
+    public static BoardTexture of(long board) {
+        if (Long.bitCount(board) > 5) {
+            throw new IllegalArgumentException("Board has more than 5 cards");
+        }
+        return new BoardTexture(SuitIsomorphism.canonicalBoard(board));
+    }
+
+    /**
+     * The suit (0..3) with 3 or more cards on this board, the only one two hole cards can still
+     * make a flush in, or -1. With 5 cards or fewer there's never more than one.
+     */
+    public static int flushSuit(long board) {
+        for (int suit = 0; suit < Cards.SUITS; suit++) {
+            if (Integer.bitCount(Cards.suitRanks(board, suit)) >= 3) {
+                return suit;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Strength (as {@link FastHandEvaluator#evaluate(long)}) of two hole cards on a board with
+     * this texture. {@code flushSuit} is {@link #flushSuit(long)} of the actual board, since the
+     * texture itself doesn't know the real suits.
+     */
+    public int evaluate(long hole, int flushSuit) {
+        int r = ranks, two = pairs, three = trips, four = quads, flush = flushRanks;
+        for (long m = hole; m != 0; m &= m - 1) {
+            int card = Long.numberOfTrailingZeros(m);
+            int suit = card / Cards.RANKS;
+            int bit = 1 << (card - suit * Cards.RANKS);
+            four |= three & bit;
+            three |= two & bit;
+            two |= r & bit;
+            r |= bit;
+            flush |= suit == flushSuit ? bit : 0;
+        }
+        return FastHandEvaluator.evaluate(Integer.bitCount(flush) >= 5 ? flush : 0, r, two, three, four);
+    }
+
+    // Some 5-rank window (the wheel included) already has 3 cards on the board
+    private static boolean straightPossible(int ranks) {
+        if (Integer.bitCount(ranks & WHEEL) >= 3) {
+            return true;
+        }
+        for (int low = 0; low + 5 <= Cards.RANKS; low++) {
+            if (Integer.bitCount(ranks & (0x1F << low)) >= 3) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** The canonical board this texture is for. */
+    public long getBoard() {
+        return board;
+    }
+
+    public int getCardCount() {
+        return cardCount;
+    }
+
+    public boolean isPaired() {
+        return pairs != 0;
+    }
+
+    public boolean isFlushPossible() {
+        return flushRanks != 0;
+    }
+
+    /** Three or more cards and all of one suit. */
+    public boolean isMonotone() {
+        return cardCount >= 3 && flushCount == cardCount;
+    }
+
+    public boolean isStraightPossible() {
+        return straightPossible;
+    }
+
+    /** What the board is worth on its own, as {@link FastHandEvaluator#evaluate(long)}. */
+    public int getStrength() {
+        return strength;
+    }
+}
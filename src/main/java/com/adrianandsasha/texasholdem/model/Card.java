@@ -1,12 +1,36 @@
 package com.adrianandsasha.texasholdem.model;
-//details for each individual card.
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+//details for each individual card. there are only 52 of them so they're interned, use Card.of(...)
 public class Card {
+    private static final Card[] DECK = new Card[Cards.DECK_SIZE];
+
+    static {
+        for (Suit suit : Suit.values()) {
+            for (Rank rank : Rank.values()) {
+                Card c = new Card(suit, rank);
+                DECK[c.index] = c;
+            }
+        }
+    }
+
     private final Suit suit;
     private final Rank rank;
+    private final int index; // 0..51, see Cards
 
-    public Card(Suit suit, Rank rank) {
+    private Card(Suit suit, Rank rank) {
         this.suit = suit;
         this.rank = rank;
+        this.index = Cards.index(suit, rank);
+    }
+
+    public static Card of(int index) {
+        return DECK[index];
+    }
+
+    public static Card of(Suit suit, Rank rank) {
+        return DECK[Cards.index(suit, rank)];
     }
 
     public Suit getSuit() {
@@ -17,8 +41,28 @@ public class Card {
         return rank;
     }
 
+    @JsonIgnore
+    public int getIndex() {
+        return index;
+    }
+
+    @JsonIgnore
+    public long getMask() {
+        return 1L << index;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Card && ((Card) o).index == index;
+    }
+
+    @Override
+    public int hashCode() {
+        return index;
+    }
+
     @Override
     public String toString() {
         return rank + " of " + suit;
     }
-}
\ No newline at end of file
+}
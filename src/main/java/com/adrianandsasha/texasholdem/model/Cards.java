@@ -0,0 +1,152 @@
+package com.adrianandsasha.texasholdem.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Primitive card encoding shared by the deck, players and evaluators.
+ *
+ * A card is an int 0..51 = suit ordinal * 13 + (rank value - 2), so HEARTS take 0..12,
+ * DIAMONDS 13..25 and so on. A set of cards (hole cards, a board, a full hand) is a long with
+ * bit {@code index} set for every card in it, which makes unions, overlaps and dead-card checks
+ * single bitwise ops.
+ */
+public final class Cards {
+
+    public static final int DECK_SIZE = 52;
+    public static final int RANKS = 13;
+    public static final int SUITS = 4;
+
+    /** Every card in the deck. */
+    public static final long FULL_DECK = (1L << DECK_SIZE) - 1;
+
+    private static final Suit[] SUIT_VALUES = Suit.values();
+    private static final Rank[] RANK_VALUES = Rank.values();
+    private static final String RANK_CHARS = "23456789TJQKA";
+    private static final String SUIT_CHARS = "HDCS";  // same order as Suit
+
+    private Cards() {
+    }
+
+    public static int index(Suit suit, Rank rank) {
+        return suit.ordinal() * RANKS + rank.ordinal();
+    }
+
+    public static int index(Card card) {
+        return card.getIndex();
+    }
+
+    public static Suit suit(int index) {
+        return SUIT_VALUES[index / RANKS];
+    }
+
+    public static Rank rank(int index) {
+        return RANK_VALUES[index % RANKS];
+    }
+
+    /** Rank value 2..14 of a card index (ACE = 14). */
+    public static int rankValue(int index) {
+        return index % RANKS + 2;
+    }
+
+    public static long mask(int index) {
+        return 1L << index;
+    }
+
+    public static long toMask(List<Card> cards) {
+        long mask = 0L;
+        for (int i = 0; i < cards.size(); i++) {
+            mask |= 1L << cards.get(i).getIndex();
+        }
+        return mask;
+    }
+
+    public static long toMask(int[] indexes, int count) {
+        return toMask(indexes, 0, count);
+    }
+
+    public static long toMask(int[] indexes, int from, int count) {
+        long mask = 0L;
+        for (int i = from; i < from + count; i++) {
+            mask |= 1L << indexes[i];
+        }
+        return mask;
+    }
+
+    /** Expand a mask back into interned cards, lowest index first. Allocates, so keep it off hot paths. */
+    public static List<Card> toList(long mask) {
+        List<Card> cards = new ArrayList<>(Long.bitCount(mask));
+        while (mask != 0) {
+            cards.add(Card.of(Long.numberOfTrailingZeros(mask)));
+            mask &= mask - 1;
+        }
+        return cards;
+    }
+
+    /** 13-bit rank mask of one suit inside a card mask (bit 0 = TWO). */
+    public static int suitRanks(long mask, int suitOrdinal) {
+        return (int) (mask >>> (suitOrdinal * RANKS)) & ((1 << RANKS) - 1);
+    }
+
+    public static int count(long mask) {
+        return Long.bitCount(mask);
+    }
+
+    /**
+     * A card from its name: rank then suit, "Ah", "Td", "10h" or the "AS" / "10H" of
+     * {@link #shortName(int)} (case doesn't matter).
+     *
+     * @throws IllegalArgumentException if it isn't one
+     */
+    public static int parse(String name) {
+        String s = name.trim().toUpperCase();
+        if (s.length() < 2) {
+            throw new IllegalArgumentException("Not a card: " + name);
+        }
+        String rank = s.substring(0, s.length() - 1);
+        int r = rank.equals("10") ? 8 : rank.length() == 1 ? RANK_CHARS.indexOf(rank.charAt(0)) : -1;
+        int suit = SUIT_CHARS.indexOf(s.charAt(s.length() - 1));
+        if (r < 0 || suit < 0) {
+            throw new IllegalArgumentException("Not a card: " + name);
+        }
+        return suit * RANKS + r;
+    }
+
+    /**
+     * Cards written one after another, with or without spaces or commas: "AhKd7c", "Ah Kd 7c".
+     *
+     * @throws IllegalArgumentException on something that isn't a card, or the same card twice
+     */
+    public static long parseMask(String cards) {
+        String s = cards.replaceAll("[\\s,]", "");
+        long mask = 0L;
+        int i = 0;
+        while (i < s.length()) {
+            int length = s.startsWith("10", i) ? 3 : 2;
+            if (i + length > s.length()) {
+                throw new IllegalArgumentException("Not a card: " + s.substring(i));
+            }
+            int card = parse(s.substring(i, i + length));
+            if ((mask & mask(card)) != 0) {
+                throw new IllegalArgumentException("The same card shows up twice: " + s.substring(i, i + length));
+            }
+            mask |= mask(card);
+            i += length;
+        }
+        return mask;
+    }
+
+    /** Short name like "AS" or "10H", same as the card image file names. */
+    public static String shortName(int index) {
+        int value = rankValue(index);
+        String r;
+        switch (value) {
+            case 11: r = "J"; break;
+            case 12: r = "Q"; break;
+            case 13: r = "K"; break;
+            case 14: r = "A"; break;
+            default: r = Integer.toString(value);
+        }
+        return r + suit(index).name().charAt(0);
+    }
+}
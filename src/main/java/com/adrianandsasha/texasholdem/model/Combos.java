@@ -0,0 +1,58 @@
+package com.adrianandsasha.texasholdem.model;
+
+/**
+ * The 1326 two-card combos (every pair of hole cards) as dense ints 0..1325, so anything per
+ * combo (range weights, per-hand results) is a plain array. For cards low < high the combo is
+ * high * (high - 1) / 2 + low.
+ */
+public final class Combos {
+
+    public static final int COUNT = Cards.DECK_SIZE * (Cards.DECK_SIZE - 1) / 2;
+
+    private static final long[] MASKS = new long[COUNT];
+
+    static {
+        for (int high = 1; high < Cards.DECK_SIZE; high++) {
+            for (int low = 0; low < high; low++) {
+                MASKS[index(low, high)] = Cards.mask(low) | Cards.mask(high);
+            }
+        }
+    }
+
+    private Combos() {
+    }
+
+    /** The combo of two different cards, in either order. */
+    public static int index(int card1, int card2) {
+        int low = Math.min(card1, card2);
+        int high = Math.max(card1, card2);
+        return high * (high - 1) / 2 + low;
+    }
+
+    /** The combo of a two card mask. */
+    public static int index(long holeMask) {
+        return index(Long.numberOfTrailingZeros(holeMask), 63 - Long.numberOfLeadingZeros(holeMask));
+    }
+
+    /** The combo's two cards as a mask; a blocker check is one AND against it. */
+    public static long mask(int combo) {
+        return MASKS[combo];
+    }
+
+    /** "AhKd" style name, higher card first. */
+    public static String name(int combo) {
+        long mask = MASKS[combo];
+        int low = Long.numberOfTrailingZeros(mask);
+        int high = 63 - Long.numberOfLeadingZeros(mask);
+        if (low % Cards.RANKS > high % Cards.RANKS) {
+            int t = low;
+            low = high;
+            high = t;
+        }
+        return cardName(high) + cardName(low);
+    }
+
+    private static String cardName(int card) {
+        return "23456789TJQKA".charAt(card % Cards.RANKS) + "hdcs".substring(card / Cards.RANKS, card / Cards.RANKS + 1);
+    }
+}
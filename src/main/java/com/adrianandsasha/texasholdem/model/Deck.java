@@ -1,32 +1,110 @@
 package com.adrianandsasha.texasholdem.model;
-//lmao. I call this the trinity for better arrays.
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+
 // Class for the deck with deck related operations: shuffling and dealing a card.
+// Cards are kept as primitive indexes (see Cards) and only turned into the interned Card objects on demand.
+//
+// The shuffle is lazy: nothing is shuffled up front, every dealCard swaps a random card from the
+// rest of the pile into the next slot (one step of Fisher-Yates). That's exactly as random as a
+// full shuffle, but a hand only pays for the cards it deals (9 heads-up instead of 52), and
+// starting over just forgets the dealt cards, so one deck is reused for every hand.
 public class Deck {
-    private List<Card> cards;
-    private int currentIndex;
+    // new Deck() without a shuffler: a secure one per thread, so threads never share a generator
+    private static final ThreadLocal<Shuffler> DEFAULT_SHUFFLER = ThreadLocal.withInitial(Shuffler::secure);
+
+    private final Shuffler shuffler;
+    private final int[] cards = new int[Cards.DECK_SIZE];        // cards[0..dealt) are out, the rest is the pile
+    private final byte[] position = new byte[Cards.DECK_SIZE];   // where each card is in cards
+    private int dealt;
+    private int stackedUntil;   // cards[dealt..stackedUntil) come out in that order (stacked decks)
+    private long dealtMask;
 
     public Deck() {
-        cards = new ArrayList<>();
-        for (Suit suit : Suit.values()) {
-            for (Rank rank : Rank.values()) {
-                cards.add(new Card(suit, rank));
+        this(DEFAULT_SHUFFLER.get());
+    }
+
+    public Deck(Shuffler shuffler) {
+        this.shuffler = shuffler;
+        for (int i = 0; i < cards.length; i++) {
+            cards[i] = i; // same order as looping suits then ranks
+            position[i] = (byte) i;
+        }
+    }
+
+    /**
+     * A deck that deals the given cards first, in that order, then the rest shuffled. It's for
+     * replaying a recorded hand.
+     */
+    public static Deck stacked(int... top) {
+        return stacked(0L, top);
+    }
+
+    /**
+     * Same as {@link #stacked(int...)} for a hand that's already under way: the cards in
+     * {@code dealt} count as dealt, then come the given cards, then the rest shuffled.
+     */
+    public static Deck stacked(long dealt, int... top) {
+        Deck deck = new Deck();
+        deck.reset(dealt);
+        for (int card : top) {
+            if (deck.position[card] < deck.stackedUntil) {
+                throw new IllegalArgumentException("Card " + Cards.shortName(card) + " is in the deck twice");
             }
+            deck.swap(deck.position[card], deck.stackedUntil++);
         }
-        shuffle();
+        return deck;
     }
 
+    /** Start over with all 52 cards. */
     public void shuffle() {
-        Collections.shuffle(cards);
-        currentIndex = 0;
+        reset(0L);
+    }
+
+    /**
+     * Start over without the given cards (known hole cards, the board): they count as dealt and
+     * won't come out. Costs one step per dead card, nothing for the rest of the deck.
+     */
+    public void reset(long dead) {
+        dealt = 0;
+        stackedUntil = 0;
+        dealtMask = dead;
+        for (long m = dead; m != 0; m &= m - 1) {
+            swap(position[Long.numberOfTrailingZeros(m)], dealt++);
+        }
+        stackedUntil = dealt;
     }
 
     public Card dealCard() {
-        if (currentIndex >= cards.size()) {
+        return Card.of(dealCardIndex());
+    }
+
+    /** Deal the next card as its 0..51 index. */
+    public int dealCardIndex() {
+        if (dealt >= cards.length) {
             throw new IllegalStateException("No more cards in the deck!");
         }
-        return cards.get(currentIndex++);
+        if (dealt >= stackedUntil) {
+            swap(dealt, dealt + shuffler.nextInt(cards.length - dealt));
+        }
+        int card = cards[dealt++];
+        dealtMask |= 1L << card;
+        return card;
+    }
+
+    /** Bitmask of every card dealt (or dead) since the last shuffle. */
+    public long getDealtMask() {
+        return dealtMask;
+    }
+
+    public int remaining() {
+        return cards.length - dealt;
+    }
+
+    private void swap(int i, int j) {
+        int a = cards[i];
+        int b = cards[j];
+        cards[i] = b;
+        cards[j] = a;
+        position[b] = (byte) i;
+        position[a] = (byte) j;
     }
 }
@@ -0,0 +1,6 @@
+package com.adrianandsasha.texasholdem.model;
+//which hand evaluator the showdown uses. both give the same answers, one is just a lot faster
+public enum EvaluatorEngine {
+    COMBINATIONS,   // TexasHoldemHandEvaluator, tries all 21 five-card combos
+    LOOKUP_TABLE    // FastHandEvaluator, bitmask + lookup tables, no allocation
+}
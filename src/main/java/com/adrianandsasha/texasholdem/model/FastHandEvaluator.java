@@ -0,0 +1,221 @@
+package com.adrianandsasha.texasholdem.model;
+
+import java.util.List;
+
+/**
+ * Table-driven evaluator for up to 7 cards that works on primitive encodings and never allocates.
+ *
+ * Cards use the {@link Cards} encoding (ints 0..51, hands as long bitmasks), so each suit is a
+ * 13-bit slice of the mask. The result is a single int strength:
+ * bigger is better, equal means split pot. The layout is the one {@link HandRank} documents,
+ * with the same tiebreakers {@link TexasHoldemHandEvaluator} produces.
+ */
+public final class FastHandEvaluator {
+
+    private static final int RANK_BITS = 13;
+    private static final int RANK_MASK = (1 << RANK_BITS) - 1;
+
+    // Lookup tables, indexed by a 13-bit rank mask (bit 0 = TWO ... bit 12 = ACE)
+    private static final byte[] BIT_COUNT = new byte[1 << RANK_BITS];
+    private static final byte[] STRAIGHT_TOP = new byte[1 << RANK_BITS];  // rank value of best straight, 0 if none
+    private static final int[] TOP_FIVE = new int[1 << RANK_BITS];        // up to 5 highest rank values as nibbles
+
+    static {
+        for (int m = 0; m < (1 << RANK_BITS); m++) {
+            BIT_COUNT[m] = (byte) Integer.bitCount(m);
+
+            int packed = 0;
+            int taken = 0;
+            for (int bit = RANK_BITS - 1; bit >= 0 && taken < 5; bit--) {
+                if ((m & (1 << bit)) != 0) {
+                    packed |= (bit + 2) << (16 - 4 * taken);
+                    taken++;
+                }
+            }
+            TOP_FIVE[m] = packed;
+
+            // A-2-3-4-5 is the only straight where the ace plays low
+            for (int top = RANK_BITS - 1; top >= 4; top--) {
+                int run = 0x1F << (top - 4);
+                if ((m & run) == run) {
+                    STRAIGHT_TOP[m] = (byte) (top + 2);
+                    break;
+                }
+            }
+            if (STRAIGHT_TOP[m] == 0 && (m & 0x100F) == 0x100F) {
+                STRAIGHT_TOP[m] = 5;
+            }
+        }
+    }
+
+    private FastHandEvaluator() {
+    }
+
+    // ------------------------------------------------------------------
+    // Evaluation
+    // ------------------------------------------------------------------
+
+    /**
+     * Strength of the best 5-card hand inside the given cards (any count up to 7).
+     */
+    public static int evaluate(long mask) {
+        return evaluate((int) mask & RANK_MASK,
+                (int) (mask >>> RANK_BITS) & RANK_MASK,
+                (int) (mask >>> (2 * RANK_BITS)) & RANK_MASK,
+                (int) (mask >>> (3 * RANK_BITS)) & RANK_MASK);
+    }
+
+    public static int evaluate(int[] cards, int count) {
+        return evaluate(Cards.toMask(cards, count));
+    }
+
+    /**
+     * Same as {@link #evaluate(long)} but starting from the four per-suit rank masks.
+     */
+    public static int evaluate(int hearts, int diamonds, int clubs, int spades) {
+        int flush = 0;
+        if (BIT_COUNT[hearts] >= 5) flush = hearts;
+        else if (BIT_COUNT[diamonds] >= 5) flush = diamonds;
+        else if (BIT_COUNT[clubs] >= 5) flush = clubs;
+        else if (BIT_COUNT[spades] >= 5) flush = spades;
+        if (flush != 0) {
+            return evaluate(flush, 0, 0, 0, 0);
+        }
+
+        int ranks = hearts | diamonds | clubs | spades;
+        int four = hearts & diamonds & clubs & spades;
+        int threePlus = ((hearts & diamonds) & (clubs | spades)) | ((clubs & spades) & (hearts | diamonds));
+        int twoPlus = (hearts & diamonds) | (clubs & spades) | ((hearts | diamonds) & (clubs | spades));
+        return evaluate(0, ranks, twoPlus, threePlus, four);
+    }
+
+    /**
+     * Same as {@link #evaluate(long)} but starting from a rank histogram, for callers that build
+     * it up a card at a time (see {@link BoardTexture}): the ranks that are there at least once,
+     * twice, three and four times, plus the ranks of the suit with five or more cards (0 if there
+     * is no flush). The histogram is ignored when there's a flush.
+     */
+    public static int evaluate(int flush, int ranks, int twoPlus, int threePlus, int four) {
+        // With at most 7 cards a flush rules out quads and full house, so it can return right away
+        if (flush != 0) {
+            int top = STRAIGHT_TOP[flush];
+            if (top == 14) {
+                return code(HandCategory.ROYAL_FLUSH) | straightRanks(top);
+            }
+            if (top != 0) {
+                return code(HandCategory.STRAIGHT_FLUSH) | straightRanks(top);
+            }
+            return code(HandCategory.FLUSH) | TOP_FIVE[flush];
+        }
+
+        if (four != 0) {
+            int quad = highestBit(four);
+            return code(HandCategory.FOUR_OF_A_KIND) | (quad + 2) << 16
+                    | (TOP_FIVE[ranks & ~(1 << quad)] >>> 16) << 12;
+        }
+
+        if (threePlus != 0) {
+            int trip = highestBit(threePlus);
+            int pairs = twoPlus & ~(1 << trip);
+            if (pairs != 0) {
+                return code(HandCategory.FULL_HOUSE) | (trip + 2) << 16 | (highestBit(pairs) + 2) << 12;
+            }
+        }
+
+        int straight = STRAIGHT_TOP[ranks];
+        if (straight != 0) {
+            return code(HandCategory.STRAIGHT) | straightRanks(straight);
+        }
+
+        if (threePlus != 0) {
+            int trip = highestBit(threePlus);
+            return code(HandCategory.THREE_OF_A_KIND) | (trip + 2) << 16
+                    | (TOP_FIVE[ranks & ~(1 << trip)] >>> 12) << 8;
+        }
+
+        if (twoPlus != 0) {
+            int high = highestBit(twoPlus);
+            int rest = twoPlus & ~(1 << high);
+            if (rest != 0) {
+                int low = highestBit(rest);
+                return code(HandCategory.TWO_PAIR) | (high + 2) << 16 | (low + 2) << 12
+                        | (TOP_FIVE[ranks & ~(1 << high) & ~(1 << low)] >>> 16) << 8;
+            }
+            return code(HandCategory.ONE_PAIR) | (high + 2) << 16
+                    | (TOP_FIVE[ranks & ~(1 << high)] >>> 8) << 4;
+        }
+
+        return code(HandCategory.HIGH_CARD) | TOP_FIVE[ranks];
+    }
+
+    // ------------------------------------------------------------------
+    // Batches
+    // ------------------------------------------------------------------
+
+    /**
+     * Strengths of many hands at once: {@code strengths[i] = evaluate(hands[i])} for the first
+     * {@code count} hands.
+     *
+     * This is a plain loop on purpose. Splitting it into a first pass over the whole array
+     * (histograms and flush with only shifts, ANDs and adds, which C2 does vectorize) and a
+     * second pass of table lookups came out slower: the lookups cost as much as a whole
+     * evaluation, and the bit twiddling they'd save is nearly free already. So it's here for
+     * callers that have their hands in an array anyway, and as the one place to change if the
+     * evaluator ever gets a SIMD friendly form.
+     */
+    public static void evaluateAll(long[] hands, int[] strengths, int count) {
+        evaluateAll(hands, 0, strengths, 0, count);
+    }
+
+    public static void evaluateAll(long[] hands, int handsFrom, int[] strengths, int strengthsFrom, int count) {
+        for (int i = 0; i < count; i++) {
+            strengths[strengthsFrom + i] = evaluate(hands[handsFrom + i]);
+        }
+    }
+
+    /**
+     * Same for hands given as {@code cardsPerHand} card ints each, one hand after the other:
+     * hand i is {@code cards[i * cardsPerHand .. (i + 1) * cardsPerHand - 1]}.
+     */
+    public static void evaluateAll(int[] cards, int cardsPerHand, int[] strengths, int count) {
+        for (int i = 0; i < count; i++) {
+            strengths[i] = evaluate(Cards.toMask(cards, i * cardsPerHand, cardsPerHand));
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // Decoding
+    // ------------------------------------------------------------------
+
+    public static HandCategory category(int strength) {
+        return HandRank.categoryOf(strength);
+    }
+
+    public static HandRank toHandRank(int strength) {
+        return new HandRank(strength);
+    }
+
+    /**
+     * Drop-in replacement for {@link TexasHoldemHandEvaluator#getBestHandRank(List)}.
+     */
+    public static HandRank getBestHandRank(List<Card> cards) {
+        return toHandRank(evaluate(Cards.toMask(cards)));
+    }
+
+    // ------------------------------------------------------------------
+    // Helpers
+    // ------------------------------------------------------------------
+
+    private static int code(HandCategory category) {
+        return HandRank.categoryCode(category);
+    }
+
+    private static int highestBit(int mask) {
+        return 31 - Integer.numberOfLeadingZeros(mask);
+    }
+
+    private static int straightRanks(int top) {
+        // Ace-low straight ranks as [5, 4, 3, 2, 1], matching the list evaluator
+        return top << 16 | (top - 1) << 12 | (top - 2) << 8 | (top - 3) << 4 | (top - 4);
+    }
+}
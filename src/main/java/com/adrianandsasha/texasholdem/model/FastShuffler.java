@@ -0,0 +1,22 @@
+package com.adrianandsasha.texasholdem.model;
+
+import java.util.random.RandomGenerator;
+
+// Shuffler on a splittable JDK generator (LXM), for simulations and seeded replays
+final class FastShuffler implements Shuffler {
+    private final RandomGenerator.SplittableGenerator random;
+
+    FastShuffler(RandomGenerator.SplittableGenerator random) {
+        this.random = random;
+    }
+
+    @Override
+    public int nextInt(int bound) {
+        return random.nextInt(bound);
+    }
+
+    @Override
+    public Shuffler split() {
+        return new FastShuffler(random.split());
+    }
+}
@@ -0,0 +1,119 @@
+package com.adrianandsasha.texasholdem.model;
+
+/**
+ * The 169 starting-hand classes (AA, AKs, AKo, ...), which is all that matters about two hole
+ * cards before the flop: the exact suits don't change anything, only whether they match.
+ *
+ * A class is an int 0..168, a cell in the usual 13x13 grid with rank indexes 0 (TWO) .. 12 (ACE):
+ * pairs on the diagonal (rank * 13 + rank), suited hands at high * 13 + low and offsuit hands
+ * at low * 13 + high.
+ */
+public final class HandClass {
+
+    public static final int COUNT = Cards.RANKS * Cards.RANKS;
+
+    private static final String RANK_CHARS = "23456789TJQKA";
+
+    private HandClass() {
+    }
+
+    /** The class of two hole cards given as card indexes. */
+    public static int of(int card1, int card2) {
+        int r1 = card1 % Cards.RANKS;
+        int r2 = card2 % Cards.RANKS;
+        int high = Math.max(r1, r2);
+        int low = Math.min(r1, r2);
+        boolean suited = card1 / Cards.RANKS == card2 / Cards.RANKS;
+        return suited ? high * Cards.RANKS + low : low * Cards.RANKS + high;
+    }
+
+    /** The class of a two card mask. */
+    public static int of(long holeMask) {
+        return of(Long.numberOfTrailingZeros(holeMask), 63 - Long.numberOfLeadingZeros(holeMask));
+    }
+
+    public static boolean isPair(int handClass) {
+        return handClass / Cards.RANKS == handClass % Cards.RANKS;
+    }
+
+    public static boolean isSuited(int handClass) {
+        return handClass / Cards.RANKS > handClass % Cards.RANKS;
+    }
+
+    /** How many two card combos are in the class: 6 for a pair, 4 suited, 12 offsuit. */
+    public static int combos(int handClass) {
+        return isPair(handClass) ? 6 : isSuited(handClass) ? 4 : 12;
+    }
+
+    /** One combo of the class as a card mask (hearts, plus diamonds for the second card unless suited). */
+    public static long representative(int handClass) {
+        int row = handClass / Cards.RANKS;
+        int col = handClass % Cards.RANKS;
+        if (row > col) {
+            return Cards.mask(row) | Cards.mask(col);                    // suited, both hearts
+        }
+        return Cards.mask(col) | Cards.mask(Cards.RANKS + row);          // pair or offsuit: heart + diamond
+    }
+
+    /** Every combo of the class, as card masks. */
+    public static long[] allCombos(int handClass) {
+        int row = handClass / Cards.RANKS;
+        int col = handClass % Cards.RANKS;
+        long[] combos = new long[combos(handClass)];
+        int n = 0;
+        for (int s1 = 0; s1 < Cards.SUITS; s1++) {
+            for (int s2 = 0; s2 < Cards.SUITS; s2++) {
+                boolean fits = row == col ? s1 < s2 : row > col ? s1 == s2 : s1 != s2;
+                if (fits) {
+                    combos[n++] = Cards.mask(s1 * Cards.RANKS + Math.max(row, col)) | Cards.mask(s2 * Cards.RANKS + Math.min(row, col));
+                }
+            }
+        }
+        return combos;
+    }
+
+    /** "AA", "AKs", "T9o". */
+    public static String name(int handClass) {
+        int row = handClass / Cards.RANKS;
+        int col = handClass % Cards.RANKS;
+        if (row == col) {
+            return "" + RANK_CHARS.charAt(row) + RANK_CHARS.charAt(row);
+        }
+        int high = Math.max(row, col);
+        int low = Math.min(row, col);
+        return "" + RANK_CHARS.charAt(high) + RANK_CHARS.charAt(low) + (row > col ? 's' : 'o');
+    }
+
+    /**
+     * The class for a name like "AA", "AKs" or "T9o" (case of the s/o doesn't matter).
+     *
+     * @throws IllegalArgumentException if it isn't one
+     */
+    public static int parse(String name) {
+        String s = name.trim();
+        if (s.length() < 2 || s.length() > 3) {
+            throw new IllegalArgumentException("Not a hand class: " + name);
+        }
+        int r1 = RANK_CHARS.indexOf(Character.toUpperCase(s.charAt(0)));
+        int r2 = RANK_CHARS.indexOf(Character.toUpperCase(s.charAt(1)));
+        if (r1 < 0 || r2 < 0) {
+            throw new IllegalArgumentException("Not a hand class: " + name);
+        }
+        int high = Math.max(r1, r2);
+        int low = Math.min(r1, r2);
+        if (high == low) {
+            if (s.length() != 2) {
+                throw new IllegalArgumentException("A pair can't be suited or offsuit: " + name);
+            }
+            return high * Cards.RANKS + high;
+        }
+        char kind = s.length() == 3 ? Character.toLowerCase(s.charAt(2)) : ' ';
+        if (kind == 's') {
+            return high * Cards.RANKS + low;
+        }
+        if (kind == 'o') {
+            return low * Cards.RANKS + high;
+        }
+        throw new IllegalArgumentException("Say whether it's suited or offsuit (AKs / AKo): " + name);
+    }
+}
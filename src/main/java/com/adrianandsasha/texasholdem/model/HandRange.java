@@ -0,0 +1,193 @@
+package com.adrianandsasha.texasholdem.model;
+
+import java.util.Arrays;
+
+/**
+ * A weighted hand range: how likely each of the 1326 combos (see {@link Combos}) is to be in it,
+ * 0 (never) to 1 (always), kept as one float per combo.
+ *
+ * Written the usual way, comma separated, later entries overriding earlier ones:
+ * <pre>
+ *   QQ        a pair          QQ+    QQ, KK, AA       QQ-88  the pairs in between
+ *   AKs AKo   suited/offsuit  AK     both             ATs+   ATs, AJs, AQs, AKs
+ *   A2s-A5s   A2s .. A5s      AhKh   one exact combo  random every combo
+ *   50% AQo   or AQo:0.5, only half of the combos' weight
+ * </pre>
+ */
+public final class HandRange {
+    private final float[] weights = new float[Combos.COUNT];
+
+    /** An empty range, filled with {@link #set}. */
+    public HandRange() {
+    }
+
+    /**
+     * @throws IllegalArgumentException on anything it can't read
+     */
+    public static HandRange parse(String text) {
+        HandRange range = new HandRange();
+        for (String part : text.split(",")) {
+            String item = part.trim();
+            if (item.isEmpty()) {
+                continue;
+            }
+            float weight = 1f;
+            int percent = item.indexOf('%');
+            int colon = item.indexOf(':');
+            try {
+                if (percent > 0) {
+                    weight = Float.parseFloat(item.substring(0, percent).trim()) / 100f;
+                    item = item.substring(percent + 1).trim();
+                } else if (colon > 0) {
+                    weight = Float.parseFloat(item.substring(colon + 1).trim());
+                    item = item.substring(0, colon).trim();
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Bad weight in \"" + part.trim() + "\"");
+            }
+            if (weight < 0 || weight > 1) {
+                throw new IllegalArgumentException("Weight has to be 0..100%: \"" + part.trim() + "\"");
+            }
+            range.add(item, weight);
+        }
+        return range;
+    }
+
+    /** Every combo at weight 1. */
+    public static HandRange random() {
+        HandRange range = new HandRange();
+        Arrays.fill(range.weights, 1f);
+        return range;
+    }
+
+    public void set(int combo, float weight) {
+        weights[combo] = weight;
+    }
+
+    public float weight(int combo) {
+        return weights[combo];
+    }
+
+    /** Every combo of a hand class (see {@link HandClass}). */
+    public void setClass(int handClass, float weight) {
+        for (long combo : HandClass.allCombos(handClass)) {
+            weights[Combos.index(combo)] = weight;
+        }
+    }
+
+    /** Number of combos, counting a half weighted one as half. */
+    public double combos() {
+        double total = 0;
+        for (float w : weights) {
+            total += w;
+        }
+        return total;
+    }
+
+    /**
+     * True if renaming the suits never changes the range, i.e. it's made of whole hand classes
+     * with no exact combos picked out.
+     */
+    public boolean isSuitSymmetric() {
+        // swapping two suits at a time generates every renaming
+        for (int s1 = 0; s1 < Cards.SUITS; s1++) {
+            for (int s2 = s1 + 1; s2 < Cards.SUITS; s2++) {
+                for (int combo = 0; combo < Combos.COUNT; combo++) {
+                    long swapped = swapSuits(Combos.mask(combo), s1, s2);
+                    if (weights[Combos.index(swapped)] != weights[combo]) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    private void add(String item, float weight) {
+        if (item.equalsIgnoreCase("random") || item.equalsIgnoreCase("any")) {
+            Arrays.fill(weights, weight);
+            return;
+        }
+        if (item.length() == 4 && isSuit(item.charAt(1)) && isSuit(item.charAt(3))) {
+            long mask = Cards.parseMask(item);
+            weights[Combos.index(mask)] = weight;
+            return;
+        }
+        int dash = item.indexOf('-');
+        if (dash > 0) {
+            int from = HandClass.parse(item.substring(0, dash).trim());
+            int to = HandClass.parse(item.substring(dash + 1).trim());
+            addSpan(item, from, to, weight);
+            return;
+        }
+        if (item.endsWith("+")) {
+            int start = HandClass.parse(item.substring(0, item.length() - 1));
+            int high = high(start);
+            int top = HandClass.isPair(start) ? classOf(12, 12, false) : classOf(high, high - 1, HandClass.isSuited(start));
+            addSpan(item, start, top, weight);
+            return;
+        }
+        if (item.length() == 2 && item.charAt(0) != item.charAt(1)) {
+            // no s/o: both
+            int suited;
+            try {
+                suited = HandClass.parse(item + "s");
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Not a hand class: " + item);
+            }
+            setClass(suited, weight);
+            setClass(HandClass.parse(item + "o"), weight);
+            return;
+        }
+        setClass(HandClass.parse(item), weight);
+    }
+
+    // Every class between two of the same kind: pairs, or one high card with a run of kickers
+    private void addSpan(String item, int from, int to, float weight) {
+        boolean pairs = HandClass.isPair(from) && HandClass.isPair(to);
+        boolean sameKind = pairs || (!HandClass.isPair(from) && !HandClass.isPair(to)
+                && HandClass.isSuited(from) == HandClass.isSuited(to) && high(from) == high(to));
+        if (!sameKind) {
+            throw new IllegalArgumentException("Can't make a range out of \"" + item + "\"");
+        }
+        if (pairs) {
+            for (int r = Math.min(high(from), high(to)); r <= Math.max(high(from), high(to)); r++) {
+                setClass(classOf(r, r, false), weight);
+            }
+            return;
+        }
+        boolean suited = HandClass.isSuited(from);
+        for (int k = Math.min(low(from), low(to)); k <= Math.max(low(from), low(to)); k++) {
+            setClass(classOf(high(from), k, suited), weight);
+        }
+    }
+
+    private static int high(int handClass) {
+        return Math.max(handClass / Cards.RANKS, handClass % Cards.RANKS);
+    }
+
+    private static int low(int handClass) {
+        return Math.min(handClass / Cards.RANKS, handClass % Cards.RANKS);
+    }
+
+    private static int classOf(int high, int low, boolean suited) {
+        return suited || high == low ? high * Cards.RANKS + low : low * Cards.RANKS + high;
+    }
+
+    private static boolean isSuit(char c) {
+        return "hdcsHDCS".indexOf(c) >= 0;
+    }
+
+    private static long swapSuits(long mask, int s1, int s2) {
+        long r1 = Cards.suitRanks(mask, s1);
+        long r2 = Cards.suitRanks(mask, s2);
+        long cleared = mask & ~((long) ((1 << Cards.RANKS) - 1) << (s1 * Cards.RANKS))
+                & ~((long) ((1 << Cards.RANKS) - 1) << (s2 * Cards.RANKS));
+        return cleared | r1 << (s2 * Cards.RANKS) | r2 << (s1 * Cards.RANKS);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%.1f combos", combos());
+    }
+}
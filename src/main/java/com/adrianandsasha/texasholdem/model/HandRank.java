@@ -1,20 +1,83 @@
 package com.adrianandsasha.texasholdem.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-//ranks hands. actual conditions dont happen here
-public class HandRank {
-    private final HandCategory category;
-    private final List<Integer> ranks; // for tiebreakers
+
+/**
+ * Ranks hands. Actual conditions dont happen here.
+ *
+ * Everything is packed into one int strength so comparing two hands is a single int compare:
+ * bits 20..23 hold the category (HIGH_CARD = 0 up to ROYAL_FLUSH = 9) and the tiebreaker
+ * values sit in 4-bit nibbles from bit 16 down, most important first. The tiebreaker list is
+ * only built if somebody asks for it (the JSON / UI).
+ */
+public class HandRank implements Comparable<HandRank> {
+    public static final int CATEGORY_SHIFT = 20;
+
+    private static final HandCategory[] CATEGORIES = HandCategory.values();
+    private static final int STRONGEST = CATEGORIES.length - 1;
+
+    private final int strength;
+    private List<Integer> ranks; // for tiebreakers, lazily unpacked
+
+    public HandRank(int strength) {
+        this.strength = strength;
+    }
 
     public HandRank(HandCategory category, List<Integer> ranks) {
-        this.category = category;
-        this.ranks = ranks;
+        this.strength = pack(category, ranks);
+        this.ranks = Collections.unmodifiableList(ranks);
     }
 
     public HandCategory getCategory() {
-        return category;
+        return categoryOf(strength);
     }
 
     public List<Integer> getRanks() {
+        if (ranks == null) {
+            List<Integer> unpacked = new ArrayList<>(5);
+            for (int shift = 16; shift >= 0; shift -= 4) {
+                int value = (strength >>> shift) & 0xF;
+                if (value == 0) {
+                    break;
+                }
+                unpacked.add(value);
+            }
+            ranks = Collections.unmodifiableList(unpacked);
+        }
         return ranks;
     }
+
+    /** Packed strength, bigger is better and equal means a split. */
+    public int getStrength() {
+        return strength;
+    }
+
+    @Override
+    public int compareTo(HandRank other) {
+        return Integer.compare(strength, other.strength);
+    }
+
+    // ------------------------------------------------------------------
+    // Packing helpers
+    // ------------------------------------------------------------------
+
+    /** Category bits of a strength; HandCategory is declared strongest first, strengths go the other way. */
+    public static int categoryCode(HandCategory category) {
+        return (STRONGEST - category.ordinal()) << CATEGORY_SHIFT;
+    }
+
+    public static HandCategory categoryOf(int strength) {
+        return CATEGORIES[STRONGEST - (strength >>> CATEGORY_SHIFT)];
+    }
+
+    public static int pack(HandCategory category, List<Integer> ranks) {
+        int packed = categoryCode(category);
+        int shift = 16;
+        for (int i = 0; i < ranks.size() && shift >= 0; i++, shift -= 4) {
+            packed |= ranks.get(i) << shift;
+        }
+        return packed;
+    }
 }
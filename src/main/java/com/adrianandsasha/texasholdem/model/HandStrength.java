@@ -0,0 +1,59 @@
+package com.adrianandsasha.texasholdem.model;
+
+/**
+ * A hand's strength kept up to date as its cards arrive: the hole cards, then the flop, turn and
+ * river one card at a time. Each card updates the per-suit rank masks and the rank histogram
+ * (the same state {@link FastHandEvaluator} builds from a whole mask), so the strength is always
+ * there to read and a card costs the same whether it's the 2nd or the 7th.
+ *
+ * Not thread-safe, it belongs to one player on one table.
+ */
+public final class HandStrength {
+    private final int[] suits = new int[Cards.SUITS];  // rank mask per suit
+    private int ranks;      // ranks seen at least once
+    private int twoPlus;    // ... at least twice
+    private int threePlus;  // ... three times
+    private int four;
+    private int flush;      // ranks of the suit with 5+ cards, 0 if none
+    private int cardCount;
+    private int strength;
+
+    /** Forget every card, for the next hand. */
+    public void reset() {
+        for (int i = 0; i < suits.length; i++) {
+            suits[i] = 0;
+        }
+        ranks = twoPlus = threePlus = four = flush = 0;
+        cardCount = 0;
+        strength = 0;
+    }
+
+    /** Add one card (0..51, see {@link Cards}). Adding the same card twice isn't checked. */
+    public void add(int card) {
+        int suit = card / Cards.RANKS;
+        int bit = 1 << (card - suit * Cards.RANKS);
+        four |= threePlus & bit;
+        threePlus |= twoPlus & bit;
+        twoPlus |= ranks & bit;
+        ranks |= bit;
+        int suitRanks = suits[suit] |= bit;
+        if (Integer.bitCount(suitRanks) >= 5) {
+            flush = suitRanks; // only one suit can get there with 7 cards
+        }
+        cardCount++;
+        strength = FastHandEvaluator.evaluate(flush, ranks, twoPlus, threePlus, four);
+    }
+
+    /** Same as FastHandEvaluator.evaluate of every card added so far. */
+    public int getStrength() {
+        return strength;
+    }
+
+    public HandCategory getCategory() {
+        return HandRank.categoryOf(strength);
+    }
+
+    public int getCardCount() {
+        return cardCount;
+    }
+}
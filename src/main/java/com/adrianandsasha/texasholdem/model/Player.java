@@ -1,9 +1,13 @@
 package com.adrianandsasha.texasholdem.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import java.util.ArrayList;
 import java.util.List;
 //instance for player
 public class Player {
+    // bots are told apart by their id, so the table log and recovery need nothing new for them
+    public static final String BOT_ID_PREFIX = "bot-";
 
     private String id;         // Unique ID
     private String nickname;   // The name they entered
@@ -12,6 +16,9 @@ public class Player {
     private int currentBet;
     //I also searched this name up. did you know the 2 cards dealt to you are called hole cards?
     private List<Card> holeCards = new ArrayList<>();
+    private long holeMask;     // same hole cards as a bitmask (see Cards)
+    private final HandStrength hand = new HandStrength();  // hole cards + board so far, updated card by card
+    private long timeBankMillis;  // extra time to act once the turn clock runs out, for the whole session
 //values assigned to player initially
     public Player(String id, String nickname, int initialChips) {
         this.id = id;
@@ -25,16 +32,34 @@ public class Player {
         folded = false;
         currentBet = 0;
         holeCards.clear();
+        holeMask = 0L;
+        hand.reset();
     }
 //when cards are added
     public void receiveCard(Card c) {
         holeCards.add(c);
+        holeMask |= c.getMask();
+        hand.add(c.getIndex());
+    }
+
+    public void receiveCard(int cardIndex) {
+        receiveCard(Card.of(cardIndex));
+    }
+
+    // a community card came out, it's part of this player's hand too
+    public void seeBoardCard(int cardIndex) {
+        hand.add(cardIndex);
     }
 //getter methods
     public String getId() {
         return id;
     }
 
+    // seated by the server (see BotService), plays itself
+    public boolean isBot() {
+        return id.startsWith(BOT_ID_PREFIX);
+    }
+
     public String getNickname() {
         return nickname;
     }
@@ -64,7 +89,34 @@ public class Player {
         this.currentBet = currentBet;
     }
 
+    // never part of the public table JSON, only sent to the player themselves
+    @JsonIgnore
     public List<Card> getHoleCards() {
         return holeCards;
     }
+
+    @JsonIgnore
+    public long getHoleMask() {
+        return holeMask;
+    }
+
+    // best hand with the board so far, as FastHandEvaluator.evaluate(board | hole); private like the hole cards
+    @JsonIgnore
+    public int getHandStrength() {
+        return hand.getStrength();
+    }
+
+    @JsonIgnore
+    public HandCategory getHandCategory() {
+        return hand.getCategory();
+    }
+
+    @JsonIgnore
+    public long getTimeBankMillis() {
+        return timeBankMillis;
+    }
+
+    public void setTimeBankMillis(long timeBankMillis) {
+        this.timeBankMillis = timeBankMillis;
+    }
 }
@@ -22,4 +22,11 @@ public enum Rank {
     public int getValue() {
         return value;
     }
+
+    private static final Rank[] VALUES = values();
+
+    // value 2..14 back to the enum without scanning
+    public static Rank fromValue(int value) {
+        return VALUES[value - 2];
+    }
 }
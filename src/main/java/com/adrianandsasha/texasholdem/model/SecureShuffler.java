@@ -0,0 +1,60 @@
+package com.adrianandsasha.texasholdem.model;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+
+/**
+ * Shuffler on its own SecureRandom (a DRBG seeded from the OS), for the real game.
+ *
+ * A SecureRandom call has a fixed cost and locks, so random bytes are fetched 256 at a time and
+ * a 52 card shuffle costs one call instead of 51. Bounded ints use Lemire's multiply-and-reject,
+ * which is unbiased and only rarely needs a second draw.
+ */
+final class SecureShuffler implements Shuffler {
+    private static final int BUFFER_INTS = 64;
+
+    private final SecureRandom random;
+    private final byte[] bytes = new byte[BUFFER_INTS * 4];
+    private int next = BUFFER_INTS;
+
+    SecureShuffler() {
+        SecureRandom r;
+        try {
+            r = SecureRandom.getInstance("DRBG");
+        } catch (NoSuchAlgorithmException e) {
+            r = new SecureRandom();
+        }
+        random = r;
+    }
+
+    @Override
+    public int nextInt(int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("bound must be positive");
+        }
+        long m = (nextBits() & 0xFFFFFFFFL) * bound;
+        long low = m & 0xFFFFFFFFL;
+        if (low < bound) {
+            long threshold = (-bound & 0xFFFFFFFFL) % bound; // 2^32 mod bound
+            while (low < threshold) {
+                m = (nextBits() & 0xFFFFFFFFL) * bound;
+                low = m & 0xFFFFFFFFL;
+            }
+        }
+        return (int) (m >>> 32);
+    }
+
+    @Override
+    public Shuffler split() {
+        return new SecureShuffler();
+    }
+
+    private int nextBits() {
+        if (next == BUFFER_INTS) {
+            random.nextBytes(bytes);
+            next = 0;
+        }
+        int i = 4 * next++;
+        return (bytes[i] & 0xFF) << 24 | (bytes[i + 1] & 0xFF) << 16 | (bytes[i + 2] & 0xFF) << 8 | (bytes[i + 3] & 0xFF);
+    }
+}
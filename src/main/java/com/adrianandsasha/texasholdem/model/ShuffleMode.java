@@ -0,0 +1,7 @@
+package com.adrianandsasha.texasholdem.model;
+//where the decks get their randomness from (see Shuffler)
+public enum ShuffleMode {
+    SECURE,   // CSPRNG seeded from the OS, for real games
+    FAST,     // LXM generator, randomly seeded, for simulations
+    SEEDED    // LXM generator from a fixed seed, same decks every run (replays, tests)
+}
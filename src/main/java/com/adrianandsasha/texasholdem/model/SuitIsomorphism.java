@@ -0,0 +1,123 @@
+package com.adrianandsasha.texasholdem.model;
+
+/**
+ * Hands that only differ by which suit is which (A♥K♥ on Q♥7♦2♣ and A♠K♠ on Q♠7♥2♦) play exactly
+ * the same, so anything computed per hand, from equity to cached board work, only has to be done
+ * once per class of them. This renames the suits into a fixed order so every hand of a class
+ * comes out as the same canonical one.
+ *
+ * Each suit is described by its hole ranks and its board ranks, and the suits are sorted by that
+ * (biggest first), so a hand's canonical form is the same whatever suits it started with. Only
+ * ints and longs, nothing is allocated.
+ *
+ * A hand with its board is one long key: the canonical board mask in the low 52 bits, the two
+ * canonical hole cards (0..51, lower one first) in the 6-bit fields above it. Equal keys mean
+ * isomorphic hands, and {@link #hole(long)} / {@link #board(long)} give the canonical cards back.
+ */
+public final class SuitIsomorphism {
+    private static final int RANK_MASK = (1 << Cards.RANKS) - 1;
+    private static final long BOARD_BITS = (1L << Cards.DECK_SIZE) - 1;
+    private static final int CARD_BITS = 6;
+    private static final int[] FACTORIAL = {1, 1, 2, 6, 24};
+
+    // Ways to rename 4 suits
+    public static final int PERMUTATIONS = 24;
+
+    private SuitIsomorphism() {
+    }
+
+    /**
+     * The canonical key of two hole cards on a board (0..5 cards).
+     *
+     * @throws IllegalArgumentException if there aren't exactly 2 hole cards
+     */
+    public static long canonical(long hole, long board) {
+        if (Long.bitCount(hole) != 2) {
+            throw new IllegalArgumentException("Need exactly 2 hole cards");
+        }
+        int a = key(hole, board, 0), b = key(hole, board, 1), c = key(hole, board, 2), d = key(hole, board, 3);
+        int t;
+        // 5 compare-swaps sort 4 values, largest first
+        if (a < b) { t = a; a = b; b = t; }
+        if (c < d) { t = c; c = d; d = t; }
+        if (a < c) { t = a; a = c; c = t; }
+        if (b < d) { t = b; b = d; d = t; }
+        if (b < c) { t = b; b = c; c = t; }
+        long canonicalHole = unpack(a >>> Cards.RANKS, b >>> Cards.RANKS, c >>> Cards.RANKS, d >>> Cards.RANKS);
+        long canonicalBoard = unpack(a & RANK_MASK, b & RANK_MASK, c & RANK_MASK, d & RANK_MASK);
+        long low = Long.numberOfTrailingZeros(canonicalHole);
+        long high = 63 - Long.numberOfLeadingZeros(canonicalHole);
+        return canonicalBoard | low << Cards.DECK_SIZE | high << (Cards.DECK_SIZE + CARD_BITS);
+    }
+
+    /**
+     * A board on its own in canonical form: the suit with the most cards first (ties by the
+     * higher ranks). Two boards that only differ by suits give the same mask.
+     */
+    public static long canonicalBoard(long board) {
+        int a = boardKey(board, 0), b = boardKey(board, 1), c = boardKey(board, 2), d = boardKey(board, 3);
+        int t;
+        if (a < b) { t = a; a = b; b = t; }
+        if (c < d) { t = c; c = d; d = t; }
+        if (a < c) { t = a; a = c; c = t; }
+        if (b < d) { t = b; b = d; d = t; }
+        if (b < c) { t = b; b = c; c = t; }
+        return unpack(a & RANK_MASK, b & RANK_MASK, c & RANK_MASK, d & RANK_MASK);
+    }
+
+    /** The canonical hole cards of a key from {@link #canonical(long, long)}, as a mask. */
+    public static long hole(long key) {
+        int low = (int) (key >>> Cards.DECK_SIZE) & ((1 << CARD_BITS) - 1);
+        int high = (int) (key >>> (Cards.DECK_SIZE + CARD_BITS)) & ((1 << CARD_BITS) - 1);
+        return Cards.mask(low) | Cards.mask(high);
+    }
+
+    /** The canonical board of a key from {@link #canonical(long, long)}, as a mask. */
+    public static long board(long key) {
+        return key & BOARD_BITS;
+    }
+
+    /**
+     * How many different hands (hole cards and board) are in the class of this one, i.e. how
+     * many of the 24 suit renamings give a different hand: 24 divided by the renamings that
+     * leave it as it is (swapping suits that hold exactly the same ranks).
+     */
+    public static int classSize(long hole, long board) {
+        return PERMUTATIONS / unchanged(key(hole, board, 0), key(hole, board, 1), key(hole, board, 2), key(hole, board, 3));
+    }
+
+    /** Same as {@link #classSize(long, long)} for a board on its own. */
+    public static int boardClassSize(long board) {
+        return PERMUTATIONS / unchanged(boardKey(board, 0), boardKey(board, 1), boardKey(board, 2), boardKey(board, 3));
+    }
+
+    // Renamings that keep the hand as it is: suits with equal keys can be swapped among themselves
+    private static int unchanged(int a, int b, int c, int d) {
+        int ab = a == b ? 1 : 0, ac = a == c ? 1 : 0, ad = a == d ? 1 : 0;
+        int bc = b == c ? 1 : 0, bd = b == d ? 1 : 0, cd = c == d ? 1 : 0;
+        // size of each group of equal keys, counted at its first suit (0 for the others)
+        int groupA = 1 + ab + ac + ad;
+        int groupB = ab == 1 ? 0 : 1 + bc + bd;
+        int groupC = (ac | bc) == 1 ? 0 : 1 + cd;
+        int groupD = (ad | bd | cd) == 1 ? 0 : 1;
+        return FACTORIAL[groupA] * FACTORIAL[groupB] * FACTORIAL[groupC] * FACTORIAL[groupD];
+    }
+
+    // Hole ranks above board ranks, so suits sort by their hole cards first
+    private static int key(long hole, long board, int suit) {
+        return Cards.suitRanks(hole, suit) << Cards.RANKS | Cards.suitRanks(board, suit);
+    }
+
+    // Count above ranks, so the suit with the most cards comes first
+    private static int boardKey(long board, int suit) {
+        int ranks = Cards.suitRanks(board, suit);
+        return Integer.bitCount(ranks) << Cards.RANKS | ranks;
+    }
+
+    private static long unpack(int s0, int s1, int s2, int s3) {
+        return (long) s0
+                | (long) s1 << Cards.RANKS
+                | (long) s2 << (2 * Cards.RANKS)
+                | (long) s3 << (3 * Cards.RANKS);
+    }
+}
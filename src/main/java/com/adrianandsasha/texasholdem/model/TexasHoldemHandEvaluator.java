@@ -16,19 +16,8 @@ public class TexasHoldemHandEvaluator {
      * Return >0 if hand1 is better, 0 if tie, <0 if hand2 is better.
      */
     public static int compareHands(List<Card> hand1, List<Card> hand2) {
-        HandRank best1 = getBestHandRank(hand1);
-        HandRank best2 = getBestHandRank(hand2);
-
-        // Compare category ordinals (lower => stronger).
-        int c1 = best1.getCategory().ordinal();
-        int c2 = best2.getCategory().ordinal();
-        if (c1 != c2) {
-            // If c1 < c2, it means hand1 has a stronger category => return positive
-            return (c1 < c2) ? 1 : -1;
-        }
-
-        // Same category => compare tiebreakers
-        return compareTiebreakers(best1, best2);
+        // Category and tiebreakers are both packed into the strength => one int compare
+        return Integer.compare(getBestHandRank(hand1).getStrength(), getBestHandRank(hand2).getStrength());
     }
 
     /**
@@ -40,25 +29,20 @@ public class TexasHoldemHandEvaluator {
 
         for (List<Card> five : combos) {
             HandRank current = evaluate5CardHand(five);
-            if (best == null) {
+            if (best == null || current.getStrength() > best.getStrength()) {
                 best = current;
-            } else {
-                // If current category is stronger (lower ordinal) => better
-                int curCat = current.getCategory().ordinal();
-                int bestCat = best.getCategory().ordinal();
-                if (curCat < bestCat) {
-                    best = current;
-                } else if (curCat == bestCat) {
-                    // Tie => compare tiebreakers
-                    if (compareTiebreakers(current, best) > 0) {
-                        best = current;
-                    }
-                }
             }
         }
         return best;
     }
 
+    /**
+     * Same as above for cards given as a bitmask (see Cards).
+     */
+    public static HandRank getBestHandRank(long cardMask) {
+        return getBestHandRank(Cards.toList(cardMask));
+    }
+
     /**
      * Evaluate exactly 5 cards => return the category + tiebreaker info.
      */
@@ -140,19 +124,6 @@ public class TexasHoldemHandEvaluator {
         return new HandRank(HandCategory.HIGH_CARD, collectRanks(sorted));
     }
 
-    // ------------------------------------------------------------------
-    // Compare tiebreaker lists
-    // ------------------------------------------------------------------
-    private static int compareTiebreakers(HandRank hr1, HandRank hr2) {
-        List<Integer> r1 = hr1.getRanks();
-        List<Integer> r2 = hr2.getRanks();
-        for (int i = 0; i < Math.min(r1.size(), r2.size()); i++) {
-            if (r1.get(i) > r2.get(i)) return 1;
-            if (r1.get(i) < r2.get(i)) return -1;
-        }
-        return 0; // tie
-    }
-
     // ------------------------------------------------------------------
     // Generate all 5-card combos (7 choose 5)
     // ------------------------------------------------------------------
@@ -0,0 +1,128 @@
+package com.adrianandsasha.texasholdem.preflop;
+
+import com.adrianandsasha.texasholdem.model.HandClass;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Preflop all-in equity looked up instead of simulated: for each of the 169 starting-hand
+ * classes against 1..9 random hands, and for every class against every class heads-up.
+ *
+ * The numbers come from {@link PreflopEquityGenerator} and ship as the preflop-equity.bin
+ * resource. It's memory-mapped when it's a plain file on the class path and copied into one
+ * direct buffer when it sits inside the jar; either way a lookup is one absolute read at a
+ * computed offset. Format (big-endian):
+ * <pre>
+ *   int magic "PKPF", int version, int classes (169), int maxOpponents (9),
+ *   int trialsVsRandom, int trialsHeadsUp
+ *   short vsRandom[class][opponents - 1]   equity in hundredths of a percent
+ *   short headsUp[class][class]            equity of the first class, same unit
+ * </pre>
+ */
+public final class PreflopEquity {
+    public static final String RESOURCE = "/preflop-equity.bin";
+    public static final int MAGIC = 0x504B5046; // "PKPF"
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 24;
+    public static final int MAX_OPPONENTS = 9;
+
+    private final ByteBuffer data;
+    private final int trialsVsRandom;
+    private final int trialsHeadsUp;
+    private final boolean mapped;
+
+    private static final class Holder {
+        static final PreflopEquity INSTANCE = load();
+    }
+
+    private PreflopEquity(ByteBuffer data, boolean mapped) {
+        if (data.capacity() != size() || data.getInt(0) != MAGIC || data.getInt(4) != VERSION
+                || data.getInt(8) != HandClass.COUNT || data.getInt(12) != MAX_OPPONENTS) {
+            throw new IllegalStateException(RESOURCE + " is not a version " + VERSION + " preflop equity table");
+        }
+        this.data = data;
+        this.mapped = mapped;
+        this.trialsVsRandom = data.getInt(16);
+        this.trialsHeadsUp = data.getInt(20);
+    }
+
+    /** The shipped table, loaded the first time it's asked for. */
+    public static PreflopEquity get() {
+        return Holder.INSTANCE;
+    }
+
+    static int size() {
+        return HEADER_SIZE + 2 * (HandClass.COUNT * MAX_OPPONENTS + HandClass.COUNT * HandClass.COUNT);
+    }
+
+    private static PreflopEquity load() {
+        URL url = PreflopEquity.class.getResource(RESOURCE);
+        if (url == null) {
+            throw new IllegalStateException(RESOURCE + " is missing, run PreflopEquityGenerator (mvn -Ppreflop process-classes)");
+        }
+        try {
+            if ("file".equals(url.getProtocol())) {
+                Path file = Paths.get(url.toURI());
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                    return new PreflopEquity(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), true);
+                }
+            }
+            // inside a jar there's no file to map
+            try (InputStream in = url.openStream()) {
+                byte[] bytes = in.readAllBytes();
+                ByteBuffer buf = ByteBuffer.allocateDirect(bytes.length).put(bytes);
+                return new PreflopEquity(buf.flip(), false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Couldn't read " + RESOURCE, e);
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException("Couldn't read " + RESOURCE, e);
+        }
+    }
+
+    /**
+     * Equity in percent (share of the pot, ties split) of the hand class all-in preflop against
+     * this many random hands.
+     */
+    public double vsRandom(int handClass, int opponents) {
+        if (opponents < 1 || opponents > MAX_OPPONENTS) {
+            throw new IllegalArgumentException("opponents must be 1.." + MAX_OPPONENTS);
+        }
+        return data.getShort(HEADER_SIZE + 2 * (handClass * MAX_OPPONENTS + opponents - 1)) / 100.0;
+    }
+
+    public double vsRandom(long holeMask, int opponents) {
+        return vsRandom(HandClass.of(holeMask), opponents);
+    }
+
+    /**
+     * Equity in percent of the first class against the second heads-up, averaged over the combos
+     * of both that don't share a card.
+     */
+    public double headsUp(int handClass, int opponentClass) {
+        int offset = HEADER_SIZE + 2 * (HandClass.COUNT * MAX_OPPONENTS + handClass * HandClass.COUNT + opponentClass);
+        return data.getShort(offset) / 100.0;
+    }
+
+    public int getTrialsVsRandom() {
+        return trialsVsRandom;
+    }
+
+    public int getTrialsHeadsUp() {
+        return trialsHeadsUp;
+    }
+
+    /** True if the table is memory-mapped (a file on the class path), false if it was read out of a jar. */
+    public boolean isMapped() {
+        return mapped;
+    }
+}
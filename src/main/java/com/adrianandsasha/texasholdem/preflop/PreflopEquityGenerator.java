@@ -0,0 +1,145 @@
+package com.adrianandsasha.texasholdem.preflop;
+
+import com.adrianandsasha.texasholdem.model.Deck;
+import com.adrianandsasha.texasholdem.model.FastHandEvaluator;
+import com.adrianandsasha.texasholdem.model.HandClass;
+import com.adrianandsasha.texasholdem.model.Shuffler;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Works out the {@link PreflopEquity} tables and writes them to a file. Runs in the build with
+ * the preflop profile (mvn -Ppreflop process-classes), which rewrites
+ * src/main/resources/preflop-equity.bin; the result is committed, so normal builds don't pay
+ * for it.
+ *
+ * Every number is a seeded Monte Carlo run through {@link FastHandEvaluator}, one class per
+ * fork-join task with its own seed, so the file comes out byte for byte the same every time.
+ * Suits don't matter against random hands, so one combo stands in for its class there.
+ * Heads-up, the opponent's combos that don't clash with it take turns.
+ *
+ * Run with: java -cp target/classes com.adrianandsasha.texasholdem.preflop.PreflopEquityGenerator [out] [trialsVsRandom] [trialsHeadsUp]
+ */
+public final class PreflopEquityGenerator {
+
+    private static final long SEED = 0x5EED_169L;
+
+    private PreflopEquityGenerator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path out = Paths.get(args.length > 0 ? args[0] : "src/main/resources/preflop-equity.bin");
+        int trialsVsRandom = args.length > 1 ? Integer.parseInt(args[1]) : 50_000;
+        int trialsHeadsUp = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+
+        long start = System.nanoTime();
+        byte[] bytes = generate(trialsVsRandom, trialsHeadsUp);
+        if (out.getParent() != null) {
+            Files.createDirectories(out.getParent());
+        }
+        Files.write(out, bytes);
+        System.out.printf("Wrote %s (%,d bytes) in %.1f s%n", out, bytes.length, (System.nanoTime() - start) / 1e9);
+    }
+
+    public static byte[] generate(int trialsVsRandom, int trialsHeadsUp) {
+        int n = HandClass.COUNT;
+        short[][] vsRandom = new short[n][];
+        short[][] headsUp = new short[n][n];
+
+        IntStream.range(0, n).parallel().forEach(c -> vsRandom[c] = vsRandom(c, trialsVsRandom));
+        IntStream.range(0, n).parallel().forEach(a -> {
+            // only a < b is simulated, the other half is what's left of 100% and a class
+            // against itself is an even split
+            headsUp[a][a] = 5_000;
+            for (int b = a + 1; b < n; b++) {
+                int equity = headsUp(a, b, trialsHeadsUp);
+                headsUp[a][b] = (short) equity;
+                headsUp[b][a] = (short) (10_000 - equity);
+            }
+        });
+
+        ByteBuffer buf = ByteBuffer.allocate(PreflopEquity.size());
+        buf.putInt(PreflopEquity.MAGIC);
+        buf.putInt(PreflopEquity.VERSION);
+        buf.putInt(n);
+        buf.putInt(PreflopEquity.MAX_OPPONENTS);
+        buf.putInt(trialsVsRandom);
+        buf.putInt(trialsHeadsUp);
+        for (short[] row : vsRandom) {
+            for (short s : row) buf.putShort(s);
+        }
+        for (short[] row : headsUp) {
+            for (short s : row) buf.putShort(s);
+        }
+        return buf.array();
+    }
+
+    // Hundredths of a percent against 1..9 random hands
+    private static short[] vsRandom(int handClass, int trials) {
+        Deck deck = new Deck(Shuffler.seeded(SEED * 31 + handClass));
+        long hero = HandClass.representative(handClass);
+        short[] equity = new short[PreflopEquity.MAX_OPPONENTS];
+        long[] villains = new long[PreflopEquity.MAX_OPPONENTS];
+        for (int opponents = 1; opponents <= PreflopEquity.MAX_OPPONENTS; opponents++) {
+            double share = 0;
+            for (int t = 0; t < trials; t++) {
+                deck.reset(hero);
+                for (int v = 0; v < opponents; v++) {
+                    villains[v] = 1L << deck.dealCardIndex() | 1L << deck.dealCardIndex();
+                }
+                long board = 0;
+                for (int k = 0; k < 5; k++) {
+                    board |= 1L << deck.dealCardIndex();
+                }
+                int mine = FastHandEvaluator.evaluate(board | hero);
+                int tied = 1;
+                boolean beaten = false;
+                for (int v = 0; v < opponents && !beaten; v++) {
+                    int theirs = FastHandEvaluator.evaluate(board | villains[v]);
+                    if (theirs > mine) {
+                        beaten = true;
+                    } else if (theirs == mine) {
+                        tied++;
+                    }
+                }
+                if (!beaten) {
+                    share += 1.0 / tied;
+                }
+            }
+            equity[opponents - 1] = (short) Math.round(10_000 * share / trials);
+        }
+        return equity;
+    }
+
+    // Hundredths of a percent for class a against class b
+    private static int headsUp(int a, int b, int trials) {
+        Deck deck = new Deck(Shuffler.seeded(SEED * 31 * 31 + a * HandClass.COUNT + b));
+        long hero = HandClass.representative(a);
+        List<Long> fits = new ArrayList<>();
+        for (long combo : HandClass.allCombos(b)) {
+            if ((combo & hero) == 0) fits.add(combo);
+        }
+        long[] villains = fits.stream().mapToLong(Long::longValue).toArray();
+
+        double share = 0;
+        for (int t = 0; t < trials; t++) {
+            long villain = villains[t % villains.length]; // every combo equally often
+            deck.reset(hero | villain);
+            long board = 0;
+            for (int k = 0; k < 5; k++) {
+                board |= 1L << deck.dealCardIndex();
+            }
+            int mine = FastHandEvaluator.evaluate(board | hero);
+            int theirs = FastHandEvaluator.evaluate(board | villain);
+            share += mine > theirs ? 1 : mine == theirs ? 0.5 : 0;
+        }
+        return (int) Math.round(10_000 * share / trials);
+    }
+}
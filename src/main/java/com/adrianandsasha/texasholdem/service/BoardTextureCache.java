@@ -0,0 +1,69 @@
+package com.adrianandsasha.texasholdem.service;
+
+import com.adrianandsasha.texasholdem.model.BoardTexture;
+import com.adrianandsasha.texasholdem.model.SuitIsomorphism;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Recently used {@link BoardTexture}s, keyed by the canonical board, so every table looking at a
+ * board with the same cards up to suits shares one. A flop only has 1,755 of those, so the
+ * common boards stay in; once it's full the least recently used one goes.
+ *
+ * Only for boards that come up again: the one on a table, asked for its hints for every player
+ * and every request in the hand. Hand strengths don't come from here; the showdown reads each
+ * player's HandStrength and Monte Carlo runouts (all different boards) evaluate directly.
+ */
+@Service
+public class BoardTextureCache {
+
+    @Value("${texasholdem.board-cache.size:4096}")
+    private int capacity = 4096;
+
+    private final Map<Long, BoardTexture> textures = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, BoardTexture> eldest) {
+            if (size() > capacity) {
+                evictions++;
+                return true;
+            }
+            return false;
+        }
+    };
+
+    // only touched under the lock
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /** The texture of this board (0..5 cards), worked out on the first request. */
+    public BoardTexture get(long board) {
+        long key = SuitIsomorphism.canonicalBoard(board);
+        synchronized (this) {
+            BoardTexture texture = textures.get(key);
+            if (texture != null) {
+                hits++;
+                return texture;
+            }
+            misses++;
+            texture = BoardTexture.of(key);
+            textures.put(key, texture);
+            return texture;
+        }
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long lookups = hits + misses;
+        stats.put("capacity", capacity);
+        stats.put("size", textures.size());
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("evictions", evictions);
+        stats.put("hitRate", lookups == 0 ? 0.0 : (double) hits / lookups);
+        return stats;
+    }
+}
@@ -0,0 +1,214 @@
+package com.adrianandsasha.texasholdem.service;
+
+import com.adrianandsasha.texasholdem.sim.EquityStrategy;
+import com.adrianandsasha.texasholdem.sim.Move;
+import com.adrianandsasha.texasholdem.sim.Spot;
+import com.adrianandsasha.texasholdem.sim.Strategies;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Decides for the bot seats of every table. Tables never wait for it: they hand over the
+ * {@link Spot} and get the {@link Move} back in their mailbox, like any other action.
+ *
+ * Decisions run on one pool shared by all tables, with a bounded queue. Each one is capped at
+ * {@code texasholdem.bots.budget-micros} of Monte Carlo (see {@link EquityStrategy}). If the
+ * queue is full the bot checks or folds on the spot instead, so a backed up node sheds bot
+ * thinking rather than memory.
+ */
+@Service
+public class BotService {
+    private static final Logger log = LoggerFactory.getLogger(BotService.class);
+
+    @Value("${texasholdem.bots.threads:0}")
+    private int threads;
+
+    @Value("${texasholdem.bots.queue-capacity:10000}")
+    private int queueCapacity = 10_000;
+
+    @Value("${texasholdem.bots.budget-micros:2000}")
+    private long budgetMicros = 2000;
+
+    @Value("${texasholdem.bots.trials:1000}")
+    private int trials = 1000;
+
+    // a human joining a table with fewer players than this gets bots to fill it up (0 = never)
+    @Value("${texasholdem.bots.fill-to:0}")
+    private int fillTo;
+
+    // POST /api/table/{id}/bots is off unless this is set, anyone could fill tables with bots otherwise
+    @Value("${texasholdem.bots.api-enabled:false}")
+    private boolean apiEnabled;
+
+    @Value("${texasholdem.bots.max-per-table:5}")
+    private int maxPerTable = 5;
+
+    // bots keep dealing to each other with no human seated (soak tests); off, they wait for one
+    @Value("${texasholdem.bots.play-alone:false}")
+    private boolean playAlone;
+
+    @Autowired
+    private GameMetrics gameMetrics;
+
+    private ThreadPoolExecutor pool;
+    private EquityStrategy strategy;
+
+    private final LongAdder decisions = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    @PostConstruct
+    public void start() {
+        int size = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger counter = new AtomicInteger();
+        pool = new ThreadPoolExecutor(size, size, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity), r -> {
+            Thread t = new Thread(r, "bot-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        gameMetrics.watchExecutor(pool, "botExecutor");
+        strategy = Strategies.equity(TimeUnit.MICROSECONDS.toNanos(budgetMicros), trials);
+    }
+
+    @PreDestroy
+    public void stop() {
+        pool.shutdownNow();
+    }
+
+    public int getFillTo() {
+        return fillTo;
+    }
+
+    public boolean isApiEnabled() {
+        return apiEnabled;
+    }
+
+    public int getMaxPerTable() {
+        return maxPerTable;
+    }
+
+    public boolean isPlayAlone() {
+        return playAlone;
+    }
+
+    /**
+     * Work out the bot's move on the bot pool and pass it to {@code done} there. If the pool is
+     * backed up the bot checks or folds, and {@code done} runs right away on the caller's thread.
+     */
+    public void decide(Spot spot, Consumer<Move> done) {
+        long queued = System.nanoTime();
+        try {
+            pool.execute(() -> {
+                Move move;
+                try {
+                    move = strategy.decide(spot);
+                } catch (RuntimeException e) {
+                    log.error("Bot decision failed", e);
+                    failed.increment();
+                    move = giveUp(spot);
+                }
+                decisions.increment();
+                latency.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - queued));
+                done.accept(move);
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            done.accept(giveUp(spot));
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("threads", pool.getCorePoolSize());
+        stats.put("queued", pool.getQueue().size());
+        stats.put("decisions", decisions.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("failed", failed.sum());
+        stats.put("overBudget", strategy.getOverBudget());
+        stats.put("budgetMicros", budgetMicros);
+        // from handing the spot over to having the move, so queueing counts too
+        stats.put("latencyP50Micros", latency.percentile(0.50));
+        stats.put("latencyP99Micros", latency.percentile(0.99));
+        stats.put("latencyMaxMicros", latency.max());
+        return stats;
+    }
+
+    private static Move giveUp(Spot spot) {
+        return spot.canCheck() ? Move.CHECK : Move.FOLD;
+    }
+
+    /**
+     * Counts per bucket, 8 buckets per power of two (values within about 12%), lock free. Plenty
+     * for a p99 on a metrics page without keeping every sample.
+     */
+    static final class LatencyHistogram {
+        private static final int SUB_BUCKETS = 8;
+        private static final int BUCKETS = SUB_BUCKETS + 60 * SUB_BUCKETS;
+
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        private final AtomicLong max = new AtomicLong();
+
+        void record(long value) {
+            counts.incrementAndGet(bucket(Math.max(value, 0)));
+            max.accumulateAndGet(value, Math::max);
+        }
+
+        long max() {
+            return max.get();
+        }
+
+        /** Upper end of the bucket the p-th value falls in, 0 with nothing recorded. */
+        long percentile(double p) {
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                total += counts.get(i);
+            }
+            long rank = (long) Math.ceil(total * p);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts.get(i);
+                if (seen >= rank && seen > 0) {
+                    return Math.min(upperBound(i), max.get());
+                }
+            }
+            return 0;
+        }
+
+        // values below 8 get a bucket each, then 8 per power of two
+        private static int bucket(long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            int sub = (int) (value >>> (exponent - 3)) & (SUB_BUCKETS - 1);
+            return SUB_BUCKETS + (exponent - 3) * SUB_BUCKETS + sub;
+        }
+
+        private static long upperBound(int bucket) {
+            if (bucket < SUB_BUCKETS) {
+                return bucket;
+            }
+            int exponent = (bucket - SUB_BUCKETS) / SUB_BUCKETS + 3;
+            long sub = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+            return ((SUB_BUCKETS + sub + 1) << (exponent - 3)) - 1;
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.adrianandsasha.texasholdem.service;
+
+import com.adrianandsasha.texasholdem.table.BinaryEvents;
+import com.adrianandsasha.texasholdem.table.TableEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sits in front of SimpMessagingTemplate and batches table events. Events only mark the
+ * table dirty; the table's pending events go out together as one frame (a JSON array) either
+ * at the end of the action that caused them or on the next tick, so one logical transition
+ * (e.g. end hand -> new hand -> blinds -> first turn) is one frame instead of a burst.
+ *
+ * A frame is encoded once per wire format somebody on the topic uses (see {@link WireFormats}),
+ * not once per subscriber.
+ */
+@Component
+public class BroadcastCoalescer {
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private WireFormats wireFormats;
+
+    @Autowired
+    private GameMetrics gameMetrics;
+
+    // At most one frame per table per tick
+    @Value("${texasholdem.broadcast.tick-ms:25}")
+    private long tickMillis = 25;
+
+    // Also flush right away once an action has been fully handled (lowest latency)
+    @Value("${texasholdem.broadcast.flush-on-action:true}")
+    private boolean flushOnAction = true;
+
+    private final Map<String, Outbox> outboxes = new ConcurrentHashMap<>();
+    private final Queue<Outbox> dirty = new ConcurrentLinkedQueue<>();
+    private ScheduledExecutorService ticker;
+
+    private final LongAdder eventsQueued = new LongAdder();
+    private final LongAdder framesSent = new LongAdder();
+    private final LongAdder eventsCoalesced = new LongAdder();   // events that rode along in someone else's frame
+    private final LongAdder privateSent = new LongAdder();
+    private final LongAdder jsonFrames = new LongAdder();
+    private final LongAdder binaryFrames = new LongAdder();
+
+    @PostConstruct
+    public void start() {
+        ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "broadcast-tick");
+            t.setDaemon(true);
+            return t;
+        });
+        ticker.scheduleAtFixedRate(this::flushDirty, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        ticker.shutdownNow();
+        flushDirty();
+    }
+
+    /** Queue an event for the table's topic. */
+    public void publish(String tableId, TableEvent event) {
+        Outbox outbox = outboxes.computeIfAbsent(tableId, Outbox::new);
+        boolean wasClean;
+        synchronized (outbox) {
+            wasClean = outbox.events.isEmpty();
+            outbox.events.add(event);
+        }
+        eventsQueued.increment();
+        if (wasClean) {
+            dirty.add(outbox);
+        } else {
+            eventsCoalesced.increment();
+        }
+    }
+
+    /** The table finished handling an action: send what it produced now instead of waiting for the tick. */
+    public void endOfAction(String tableId) {
+        if (flushOnAction) {
+            Outbox outbox = outboxes.get(tableId);
+            if (outbox != null) {
+                flush(outbox);
+            }
+        }
+    }
+
+    /** The table is gone: send what it still had queued and forget it. */
+    public void close(String tableId) {
+        Outbox outbox = outboxes.remove(tableId);
+        if (outbox != null) {
+            flush(outbox);
+        }
+    }
+
+    /** Private messages aren't batched (they're already deduplicated), they just go through here to be counted. */
+    public void sendToUser(String user, String destination, Object payload) {
+        messagingTemplate.convertAndSendToUser(user, destination, payload);
+        privateSent.increment();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("eventsQueued", eventsQueued.sum());
+        stats.put("framesSent", framesSent.sum());
+        stats.put("eventsCoalesced", eventsCoalesced.sum());
+        stats.put("privateSent", privateSent.sum());
+        // a frame both kinds of client get counts in both
+        stats.put("jsonFrames", jsonFrames.sum());
+        stats.put("binaryFrames", binaryFrames.sum());
+        stats.put("tickMillis", tickMillis);
+        return stats;
+    }
+
+    private void flushDirty() {
+        Outbox outbox;
+        while ((outbox = dirty.poll()) != null) {
+            flush(outbox);
+        }
+    }
+
+    // One flush of a table sends at a time, so its frames can't overtake each other. The lock is
+    // only held to take the batch: the table thread queueing the next events never waits for a
+    // send, and whatever comes in during one goes out with the sender's next round.
+    private void flush(Outbox outbox) {
+        while (true) {
+            TableEvent[] batch;
+            synchronized (outbox) {
+                if (outbox.sending || outbox.events.isEmpty()) {
+                    return;
+                }
+                batch = outbox.events.toArray(new TableEvent[0]);
+                outbox.events.clear();
+                outbox.sending = true;
+            }
+            try {
+                send(outbox.destination, batch);
+                framesSent.increment();
+            } finally {
+                synchronized (outbox) {
+                    outbox.sending = false;
+                }
+            }
+        }
+    }
+
+    private void send(String destination, TableEvent[] batch) {
+        WireFormats.Audience audience = wireFormats.audience(destination);
+        if (audience == null || audience.binary() == 0) {
+            // the common case, and whatever we don't know about gets JSON
+            messagingTemplate.convertAndSend(destination, batch);
+            jsonFrames.increment();
+            return;
+        }
+        long start = System.nanoTime();
+        byte[] binary = Base64.getEncoder().encode(BinaryEvents.encode(batch));
+        gameMetrics.binarySerialized(binary.length, System.nanoTime() - start);
+        binaryFrames.increment();
+
+        // JSON stays the payload even when only binary sessions were counted: one that subscribes
+        // between that count and the broker's fan-out gets something it can read. The broker copies
+        // the header onto every subscriber's copy, WireFormats picks it up per session.
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setLeaveMutable(true);
+        accessor.setHeader(WireFormats.BINARY_PAYLOAD_HEADER, binary);
+        messagingTemplate.convertAndSend(destination, batch, accessor.getMessageHeaders());
+        jsonFrames.increment();
+    }
+
+    private static final class Outbox {
+        private final String destination;
+        private final List<TableEvent> events = new ArrayList<>();
+        private boolean sending;
+
+        Outbox(String tableId) {
+            destination = TableBroadcaster.topic(tableId);
+        }
+    }
+}
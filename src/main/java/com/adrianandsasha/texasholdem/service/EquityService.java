@@ -0,0 +1,293 @@
+package com.adrianandsasha.texasholdem.service;
+
+import com.adrianandsasha.texasholdem.dto.EquityResult;
+import com.adrianandsasha.texasholdem.model.Card;
+import com.adrianandsasha.texasholdem.model.Cards;
+import com.adrianandsasha.texasholdem.model.FastHandEvaluator;
+import com.adrianandsasha.texasholdem.model.HandClass;
+import com.adrianandsasha.texasholdem.model.Shuffler;
+import com.adrianandsasha.texasholdem.preflop.PreflopEquity;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Win / tie / equity percentages for N known hands on a partial board.
+ *
+ * If the number of remaining runouts is small (turn, river, most flops) every runout is
+ * enumerated. Otherwise runouts are sampled until the trial budget or the time budget runs out,
+ * whichever comes first. Both paths are split into chunks on the common fork-join pool, every
+ * chunk gets its own {@link Shuffler} split off one root, and evaluation is done on card masks with
+ * {@link FastHandEvaluator}, so the inner loop never allocates.
+ *
+ * Preflop numbers don't need either: they're looked up in the precomputed {@link PreflopEquity}
+ * table, loaded once at startup.
+ */
+@Service
+public class EquityService {
+    private static final Logger log = LoggerFactory.getLogger(EquityService.class);
+
+    // Enumerate when the number of runouts is at or below this
+    @Value("${texasholdem.equity.exhaustive-limit:100000}")
+    private long exhaustiveLimit = 100_000;
+
+    @Value("${texasholdem.equity.trials:50000}")
+    private int defaultTrials = 50_000;
+
+    @Value("${texasholdem.equity.time-budget-ms:50}")
+    private long defaultTimeBudgetMillis = 50;
+
+    // How often a Monte Carlo chunk looks at the clock
+    private static final int CLOCK_CHECK_INTERVAL = 256;
+
+    private PreflopEquity preflop;
+
+    @PostConstruct
+    public void loadPreflop() {
+        preflop = PreflopEquity.get();
+        log.info("Preflop equity table loaded ({}, {} trials vs random, {} heads-up)",
+                preflop.isMapped() ? "mapped" : "in memory", preflop.getTrialsVsRandom(), preflop.getTrialsHeadsUp());
+    }
+
+    /** Preflop equity in percent of two hole cards against this many random hands (1..9). */
+    public double preflopVsRandom(long hand, int opponents) {
+        return preflop().vsRandom(HandClass.of(hand), opponents);
+    }
+
+    /**
+     * Preflop equity in percent of one hand against another heads-up. It's the average over their
+     * hand classes (AKs against QQ), so it ignores the exact suits, which move it by a point or
+     * two at most.
+     */
+    public double preflopHeadsUp(long hand, long other) {
+        return preflop().headsUp(HandClass.of(hand), HandClass.of(other));
+    }
+
+    // new EquityService() outside Spring never runs loadPreflop
+    private PreflopEquity preflop() {
+        if (preflop == null) {
+            preflop = PreflopEquity.get();
+        }
+        return preflop;
+    }
+
+    /**
+     * Equity with the configured trial and time budgets.
+     */
+    public EquityResult calculate(List<List<Card>> holeCards, List<Card> board) {
+        long[] hands = new long[holeCards.size()];
+        for (int i = 0; i < hands.length; i++) {
+            hands[i] = Cards.toMask(holeCards.get(i));
+        }
+        return calculate(hands, Cards.toMask(board));
+    }
+
+    public EquityResult calculate(long[] hands, long board) {
+        return calculate(hands, board, defaultTrials, defaultTimeBudgetMillis);
+    }
+
+    /**
+     * Equity for hands given as card masks (see Cards).
+     *
+     * @param trials           max number of sampled runouts if it isn't enumerated
+     * @param timeBudgetMillis stop sampling after this long, 0 for no limit
+     */
+    public EquityResult calculate(long[] hands, long board, int trials, long timeBudgetMillis) {
+        long start = System.nanoTime();
+        long dead = validate(hands, board);
+
+        int missing = 5 - Long.bitCount(board);
+        int[] remaining = new int[Cards.DECK_SIZE - Long.bitCount(dead)];
+        int n = 0;
+        for (int c = 0; c < Cards.DECK_SIZE; c++) {
+            if ((dead & (1L << c)) == 0) {
+                remaining[n++] = c;
+            }
+        }
+
+        Tally total;
+        boolean exhaustive = missing == 0 || combinations(n, missing) <= exhaustiveLimit;
+        if (exhaustive) {
+            total = enumerate(hands, board, remaining, missing);
+        } else {
+            long deadline = timeBudgetMillis > 0 ? start + TimeUnit.MILLISECONDS.toNanos(timeBudgetMillis) : Long.MAX_VALUE;
+            total = sample(hands, board, remaining, missing, trials, deadline);
+        }
+        return total.toResult(exhaustive, (System.nanoTime() - start) / 1000);
+    }
+
+    // ------------------------------------------------------------------
+    // Exhaustive: one fork-join task per first card of the runout
+    // ------------------------------------------------------------------
+    private Tally enumerate(long[] hands, long board, int[] remaining, int missing) {
+        if (missing == 0) {
+            Tally tally = new Tally(hands.length);
+            tally.record(hands, board);
+            return tally;
+        }
+        return IntStream.rangeClosed(0, remaining.length - missing)
+                .parallel()
+                .mapToObj(first -> {
+                    Tally tally = new Tally(hands.length);
+                    enumerateFrom(tally, hands, board | (1L << remaining[first]), remaining, first + 1, missing - 1);
+                    return tally;
+                })
+                .reduce(Tally::merge)
+                .orElseGet(() -> new Tally(hands.length));
+    }
+
+    private static void enumerateFrom(Tally tally, long[] hands, long board, int[] remaining, int from, int missing) {
+        if (missing == 0) {
+            tally.record(hands, board);
+            return;
+        }
+        for (int i = from; i <= remaining.length - missing; i++) {
+            enumerateFrom(tally, hands, board | (1L << remaining[i]), remaining, i + 1, missing - 1);
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // Monte Carlo: fixed number of chunks, each with its own RNG and deck copy
+    // ------------------------------------------------------------------
+    private Tally sample(long[] hands, long board, int[] remaining, int missing, int trials, long deadline) {
+        int chunks = Math.max(1, Runtime.getRuntime().availableProcessors() * 4);
+        int perChunk = (trials + chunks - 1) / chunks;
+        Shuffler root = Shuffler.fast();
+        Shuffler[] shufflers = new Shuffler[chunks];
+        for (int i = 0; i < chunks; i++) {
+            shufflers[i] = root.split();
+        }
+
+        return IntStream.range(0, chunks)
+                .parallel()
+                .mapToObj(chunk -> {
+                    Tally tally = new Tally(hands.length);
+                    Shuffler shuffler = shufflers[chunk];
+                    int[] deck = remaining.clone();
+                    for (int t = 0; t < perChunk; t++) {
+                        // never at t = 0: a chunk that only got a thread after the deadline (busy common
+                        // pool) still does one interval, so the result is never 0 runouts
+                        if (t > 0 && t % CLOCK_CHECK_INTERVAL == 0 && System.nanoTime() > deadline) {
+                            break;
+                        }
+                        // partial Fisher-Yates: only shuffle the cards the runout needs
+                        shuffler.shuffle(deck, missing);
+                        long runout = board;
+                        for (int k = 0; k < missing; k++) {
+                            runout |= 1L << deck[k];
+                        }
+                        tally.record(hands, runout);
+                    }
+                    return tally;
+                })
+                .reduce(Tally::merge)
+                .orElseGet(() -> new Tally(hands.length));
+    }
+
+    // ------------------------------------------------------------------
+    // Helpers
+    // ------------------------------------------------------------------
+    private static long validate(long[] hands, long board) {
+        if (hands.length < 2) {
+            throw new IllegalArgumentException("Need at least 2 hands");
+        }
+        if (Long.bitCount(board) > 5) {
+            throw new IllegalArgumentException("Board has more than 5 cards");
+        }
+        long dead = board;
+        for (long hand : hands) {
+            if (Long.bitCount(hand) != 2) {
+                throw new IllegalArgumentException("Every hand needs exactly 2 hole cards");
+            }
+            if ((dead & hand) != 0) {
+                throw new IllegalArgumentException("The same card shows up twice");
+            }
+            dead |= hand;
+        }
+        return dead;
+    }
+
+    private static long combinations(int n, int k) {
+        long result = 1;
+        for (int i = 0; i < k; i++) {
+            result = result * (n - i) / (i + 1);
+        }
+        return result;
+    }
+
+    /**
+     * Per-chunk counters, merged at the end. Only allocated once per chunk.
+     */
+    private static final class Tally {
+        private final long[] wins;
+        private final long[] ties;
+        private final double[] shares;
+        private final int[] strengths;
+        private long runouts;
+
+        Tally(int players) {
+            wins = new long[players];
+            ties = new long[players];
+            shares = new double[players];
+            strengths = new int[players];
+        }
+
+        void record(long[] hands, long board) {
+            int best = -1;
+            int count = 0;
+            for (int i = 0; i < hands.length; i++) {
+                int s = FastHandEvaluator.evaluate(board | hands[i]);
+                strengths[i] = s;
+                if (s > best) {
+                    best = s;
+                    count = 1;
+                } else if (s == best) {
+                    count++;
+                }
+            }
+            double share = 1.0 / count;
+            for (int i = 0; i < hands.length; i++) {
+                if (strengths[i] == best) {
+                    if (count == 1) {
+                        wins[i]++;
+                    } else {
+                        ties[i]++;
+                    }
+                    shares[i] += share;
+                }
+            }
+            runouts++;
+        }
+
+        Tally merge(Tally other) {
+            for (int i = 0; i < wins.length; i++) {
+                wins[i] += other.wins[i];
+                ties[i] += other.ties[i];
+                shares[i] += other.shares[i];
+            }
+            runouts += other.runouts;
+            return this;
+        }
+
+        EquityResult toResult(boolean exhaustive, long elapsedMicros) {
+            int players = wins.length;
+            double[] win = new double[players];
+            double[] tie = new double[players];
+            double[] equity = new double[players];
+            if (runouts > 0) {
+                for (int i = 0; i < players; i++) {
+                    win[i] = 100.0 * wins[i] / runouts;
+                    tie[i] = 100.0 * ties[i] / runouts;
+                    equity[i] = 100.0 * shares[i] / runouts;
+                }
+            }
+            return new EquityResult(win, tie, equity, runouts, exhaustive, elapsedMicros);
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package com.adrianandsasha.texasholdem.service;
+
+import com.adrianandsasha.texasholdem.model.EvaluatorEngine;
+import com.adrianandsasha.texasholdem.table.SerialExecutor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The game's own Micrometer meters, scraped from /actuator/prometheus next to the JVM, Tomcat
+ * and executor ones Spring Boot adds (the broker's inbound/outbound channel executors are in
+ * there as executor_* with their bean names).
+ *
+ * Every meter is registered up front and kept in a field, so recording one from a table thread
+ * is a map-free, allocation-free call.
+ */
+@Component
+public class GameMetrics {
+
+    private final MeterRegistry registry;
+
+    private final Timer fold;
+    private final Timer check;
+    private final Timer call;
+    private final Timer raise;
+    private final Timer otherAction;
+    private final Counter hands;
+    private final Timer handDuration;
+    private final Map<EvaluatorEngine, Timer> showdown = new EnumMap<>(EvaluatorEngine.class);
+    // outgoing payloads by format and kind: JSON event batches, JSON private state, binary event batches
+    private final Timer jsonEventsSerialization;
+    private final Timer jsonPrivateSerialization;
+    private final Timer binaryEventsSerialization;
+    private final DistributionSummary jsonEventsPayload;
+    private final DistributionSummary jsonPrivatePayload;
+    private final DistributionSummary binaryEventsPayload;
+    // table snapshots, and what startup recovery did (set once)
+    private final Timer snapshotDuration;
+    private final DistributionSummary snapshotSize;
+    private final Counter snapshotFailures;
+    private final AtomicLong recoveryMillis = new AtomicLong();
+    private final AtomicLong tablesRecovered = new AtomicLong();
+    private final AtomicLong recordsReplayed = new AtomicLong();
+    private final AtomicLong recoveryGaps = new AtomicLong();
+    // a disconnect can be announced more than once, so keep the ids rather than count
+    private final Set<String> sessions = ConcurrentHashMap.newKeySet();
+    // every table's mailbox, summed up at scrape time rather than a gauge (and a series) per table
+    private final Set<SerialExecutor> mailboxes = ConcurrentHashMap.newKeySet();
+
+    public GameMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        fold = actionTimer("FOLD");
+        check = actionTimer("CHECK");
+        call = actionTimer("CALL");
+        raise = actionTimer("RAISE");
+        otherAction = actionTimer("OTHER");
+        hands = Counter.builder("poker.hands")
+                .description("Hands finished, rate() of it is hands/sec")
+                .register(registry);
+        handDuration = Timer.builder("poker.hand.duration")
+                .description("From the deal to the end of the hand")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofMinutes(10))
+                .register(registry);
+        for (EvaluatorEngine engine : EvaluatorEngine.values()) {
+            showdown.put(engine, Timer.builder("poker.showdown.evaluation")
+                    .description("Ranking the hands still in at showdown")
+                    .tag("engine", engine.name())
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofNanos(100))
+                    .maximumExpectedValue(Duration.ofMillis(10))
+                    .register(registry));
+        }
+        jsonEventsSerialization = serializationTimer("json", "events");
+        jsonPrivateSerialization = serializationTimer("json", "private");
+        binaryEventsSerialization = serializationTimer("binary", "events");
+        jsonEventsPayload = payloadSummary("json", "events");
+        jsonPrivatePayload = payloadSummary("json", "private");
+        binaryEventsPayload = payloadSummary("binary", "events");
+        Gauge.builder("poker.sessions", sessions, Set::size)
+                .description("Connected STOMP sessions")
+                .register(registry);
+        Gauge.builder("poker.tables", mailboxes, Set::size)
+                .description("Open tables")
+                .register(registry);
+        Gauge.builder("poker.table.queue.max", mailboxes, GameMetrics::maxQueueDepth)
+                .description("Tasks waiting (or running) in the fullest table mailbox")
+                .register(registry);
+        Gauge.builder("poker.table.queue.total", mailboxes, GameMetrics::totalQueueDepth)
+                .description("Tasks waiting (or running) in all table mailboxes together")
+                .register(registry);
+        snapshotDuration = Timer.builder("poker.snapshot.duration")
+                .description("Saving every table into a snapshot, log rotation and file write included")
+                .register(registry);
+        snapshotSize = DistributionSummary.builder("poker.snapshot.size")
+                .description("Size of a table snapshot file")
+                .baseUnit("bytes")
+                .register(registry);
+        snapshotFailures = Counter.builder("poker.snapshot.failures")
+                .description("Table snapshots that failed; the older snapshot and log are kept")
+                .register(registry);
+        TimeGauge.builder("poker.recovery.duration", recoveryMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+                .description("How long rebuilding the tables took at startup")
+                .register(registry);
+        Gauge.builder("poker.recovery.tables", tablesRecovered, AtomicLong::get)
+                .description("Tables rebuilt at startup")
+                .register(registry);
+        Gauge.builder("poker.recovery.records", recordsReplayed, AtomicLong::get)
+                .description("Table log records played again at startup")
+                .register(registry);
+        Gauge.builder("poker.recovery.gaps", recoveryGaps, AtomicLong::get)
+                .description("Tables whose log had a record missing, recovered only up to it")
+                .register(registry);
+    }
+
+    private Timer actionTimer(String type) {
+        return Timer.builder("poker.action")
+                .description("Applying an accepted player action on the table thread, by action type")
+                .tag("type", type)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(500))
+                .maximumExpectedValue(Duration.ofSeconds(1))
+                .register(registry);
+    }
+
+    private Timer serializationTimer(String format, String kind) {
+        return Timer.builder("poker.broadcast.serialization")
+                .description("Turning an outgoing STOMP payload into bytes, by wire format and kind (event batch or private state)")
+                .tags("format", format, "kind", kind)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(500))
+                .maximumExpectedValue(Duration.ofMillis(100))
+                .register(registry);
+    }
+
+    private DistributionSummary payloadSummary(String format, String kind) {
+        // binary is measured base64'd, as it goes over the wire
+        return DistributionSummary.builder("poker.broadcast.payload")
+                .description("Size of an outgoing STOMP payload, by wire format and kind (event batch or private state)")
+                .tags("format", format, "kind", kind)
+                .baseUnit("bytes")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(16.0)
+                .maximumExpectedValue(1024.0 * 1024)
+                .register(registry);
+    }
+
+    // ------------------------------------------------------------------
+    // Recording, from any thread
+    // ------------------------------------------------------------------
+
+    public void actionProcessed(String type, long nanos) {
+        Timer timer;
+        // equalsIgnoreCase like the table itself, clients send either case
+        if ("FOLD".equalsIgnoreCase(type)) {
+            timer = fold;
+        } else if ("CHECK".equalsIgnoreCase(type)) {
+            timer = check;
+        } else if ("CALL".equalsIgnoreCase(type)) {
+            timer = call;
+        } else if ("RAISE".equalsIgnoreCase(type)) {
+            timer = raise;
+        } else {
+            timer = otherAction;
+        }
+        timer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void handFinished(long nanos) {
+        hands.increment();
+        handDuration.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void showdownEvaluated(EvaluatorEngine engine, long nanos) {
+        showdown.get(engine).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void jsonSerialized(boolean events, int bytes, long nanos) {
+        (events ? jsonEventsPayload : jsonPrivatePayload).record(bytes);
+        (events ? jsonEventsSerialization : jsonPrivateSerialization).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void binarySerialized(int bytes, long nanos) {
+        binaryEventsPayload.record(bytes);
+        binaryEventsSerialization.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recovered(long millis, int tables, long records, int gaps) {
+        recoveryMillis.set(millis);
+        tablesRecovered.set(tables);
+        recordsReplayed.set(records);
+        recoveryGaps.set(gaps);
+    }
+
+    public void snapshotTaken(long nanos, long bytes) {
+        snapshotDuration.record(nanos, TimeUnit.NANOSECONDS);
+        snapshotSize.record(bytes);
+    }
+
+    public void snapshotFailed() {
+        snapshotFailures.increment();
+    }
+
+    @EventListener
+    public void onConnected(SessionConnectedEvent event) {
+        String id = SimpMessageHeaderAccessor.getSessionId(event.getMessage().getHeaders());
+        if (id != null) {
+            sessions.add(id);
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        sessions.remove(event.getSessionId());
+    }
+
+    // ------------------------------------------------------------------
+    // Registering, once per thing watched
+    // ------------------------------------------------------------------
+
+    /**
+     * Count a table's mailbox into poker.table.queue.max / .total and poker.tables. Table ids
+     * come from clients, so they're never a tag: that would be a series per id anyone made up.
+     */
+    public void watchMailbox(SerialExecutor mailbox) {
+        mailboxes.add(mailbox);
+    }
+
+    /** The table closed, stop counting its mailbox. */
+    public void forgetMailbox(Executor mailbox) {
+        mailboxes.remove(mailbox);
+    }
+
+    private static double maxQueueDepth(Set<SerialExecutor> mailboxes) {
+        int max = 0;
+        for (SerialExecutor mailbox : mailboxes) {
+            max = Math.max(max, mailbox.queueDepth());
+        }
+        return max;
+    }
+
+    private static double totalQueueDepth(Set<SerialExecutor> mailboxes) {
+        long total = 0;
+        for (SerialExecutor mailbox : mailboxes) {
+            total += mailbox.queueDepth();
+        }
+        return total;
+    }
+
+    /** One of our own pools, as executor_*{name=...} like the ones Spring Boot binds. */
+    public void watchExecutor(ExecutorService executor, String name) {
+        new ExecutorServiceMetrics(executor, name, Tags.empty()).bindTo(registry);
+    }
+}
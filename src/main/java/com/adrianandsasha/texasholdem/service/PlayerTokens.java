@@ -0,0 +1,123 @@
+package com.adrianandsasha.texasholdem.service;
+
+import com.adrianandsasha.texasholdem.eventlog.TableEventLog;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * The secret a player proves who they are with. Player ids are public (they're in the table
+ * state and every event), so they can't be the key to anyone's hole cards; the token handed
+ * out at join is.
+ *
+ * A token is {@code <playerId>.<HMAC-SHA256 of the id>}, so checking one needs no lookup and
+ * nothing to clean up when the player leaves. The key is {@code texasholdem.auth.secret}. When
+ * that's empty it's a random one, kept next to the table state ({@value #KEY_FILE}) when the
+ * tables survive a restart, so the recovered seats' tokens do too. Without the table log it's
+ * new every start.
+ */
+@Component
+public class PlayerTokens {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final String KEY_FILE = "token.key";
+    private static final Logger log = LoggerFactory.getLogger(PlayerTokens.class);
+
+    @Value("${texasholdem.auth.secret:}")
+    private String secret = "";
+
+    @Autowired
+    private TableEventLog eventLog;
+
+    private SecretKeySpec key;
+    private final ThreadLocal<Mac> macs = ThreadLocal.withInitial(this::newMac);
+
+    @PostConstruct
+    public void init() throws IOException {
+        byte[] bytes;
+        if (!secret.isEmpty()) {
+            bytes = secret.getBytes(StandardCharsets.UTF_8);
+        } else if (eventLog.isEnabled()) {
+            bytes = loadOrCreateKey(eventLog.getDirectory().resolve(KEY_FILE));
+        } else {
+            bytes = randomKey();
+        }
+        key = new SecretKeySpec(bytes, ALGORITHM);
+    }
+
+    /** The token for a player id, to give to that player only. */
+    public String issue(String playerId) {
+        return playerId + "." + sign(playerId);
+    }
+
+    /** Whose token this is, null if it isn't one of ours. */
+    public String playerId(String token) {
+        if (token == null) {
+            return null;
+        }
+        int dot = token.lastIndexOf('.');
+        if (dot <= 0) {
+            return null;
+        }
+        String playerId = token.substring(0, dot);
+        byte[] expected = sign(playerId).getBytes(StandardCharsets.US_ASCII);
+        byte[] given = token.substring(dot + 1).getBytes(StandardCharsets.US_ASCII);
+        // constant time, so the mac can't be guessed byte by byte
+        return MessageDigest.isEqual(expected, given) ? playerId : null;
+    }
+
+    // Written to a temp file and moved, so a crash never leaves half a key behind
+    private static byte[] loadOrCreateKey(Path file) throws IOException {
+        if (Files.exists(file)) {
+            return Files.readAllBytes(file);
+        }
+        byte[] bytes = randomKey();
+        Path tmp = file.resolveSibling(KEY_FILE + ".tmp");
+        Files.write(tmp, bytes);
+        try {
+            Files.setPosixFilePermissions(tmp, PosixFilePermissions.fromString("rw-------"));
+        } catch (UnsupportedOperationException e) {
+            // not a POSIX file system, it keeps the directory's permissions
+        }
+        Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE);
+        log.info("No texasholdem.auth.secret, generated a token key in {}", file.toAbsolutePath());
+        return bytes;
+    }
+
+    private static byte[] randomKey() {
+        byte[] bytes = new byte[32];
+        new SecureRandom().nextBytes(bytes);
+        return bytes;
+    }
+
+    private String sign(String playerId) {
+        byte[] mac = macs.get().doFinal(playerId.getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(mac);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("No " + ALGORITHM, e);
+        }
+    }
+}
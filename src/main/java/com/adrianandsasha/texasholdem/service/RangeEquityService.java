@@ -0,0 +1,364 @@
+package com.adrianandsasha.texasholdem.service;
+
+import com.adrianandsasha.texasholdem.dto.RangeEquityResult;
+import com.adrianandsasha.texasholdem.model.Cards;
+import com.adrianandsasha.texasholdem.model.Combos;
+import com.adrianandsasha.texasholdem.model.FastHandEvaluator;
+import com.adrianandsasha.texasholdem.model.HandClass;
+import com.adrianandsasha.texasholdem.model.HandRange;
+import com.adrianandsasha.texasholdem.model.Shuffler;
+import com.adrianandsasha.texasholdem.model.SuitIsomorphism;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Equity of one weighted {@link HandRange} against another on a board.
+ *
+ * Combos are card masks, so whether the board or a runout uses one of a combo's cards is a
+ * single AND. Each runout evaluates every combo of both ranges once. Then the hero combos are
+ * swept in order of strength against the villain combos sorted the same way, keeping the weight
+ * below and equal to the current strength in total and per card. A hero combo's blockers are
+ * then taken off by subtracting the weight on its two cards, instead of playing it against
+ * every villain combo one by one. That's n log n per runout instead of n * n, which is what lets
+ * wide ranges run on a flop.
+ *
+ * Runouts are enumerated when there are few enough (any flop, turn or river) and sampled
+ * otherwise, split into chunks on the common fork-join pool like {@link EquityService}. If the
+ * villain range doesn't care about suits (whole hand classes), hero combos that are the same up
+ * to suits on this board (see {@link SuitIsomorphism}) have the same equity, so only one of each
+ * is played out.
+ */
+@Service
+public class RangeEquityService {
+
+    // Enumerate when the number of runouts is at or below this
+    @Value("${texasholdem.range-equity.exhaustive-limit:2000}")
+    private long exhaustiveLimit = 2000;
+
+    @Value("${texasholdem.range-equity.trials:20000}")
+    private int defaultTrials = 20_000;
+
+    @Value("${texasholdem.range-equity.time-budget-ms:2000}")
+    private long defaultTimeBudgetMillis = 2000;
+
+    public RangeEquityResult calculate(HandRange hero, HandRange villain, long board) {
+        return calculate(hero, villain, board, defaultTrials, defaultTimeBudgetMillis);
+    }
+
+    /**
+     * @param trials           max number of sampled runouts if they aren't enumerated
+     * @param timeBudgetMillis stop sampling after this long, 0 for no limit
+     */
+    public RangeEquityResult calculate(HandRange hero, HandRange villain, long board, int trials, long timeBudgetMillis) {
+        long start = System.nanoTime();
+        if (Long.bitCount(board) > 5) {
+            throw new IllegalArgumentException("Board has more than 5 cards");
+        }
+        int[] heroCombos = live(hero, board);
+        int[] villainCombos = live(villain, board);
+        if (heroCombos.length == 0 || villainCombos.length == 0) {
+            throw new IllegalArgumentException("A range has no combos left on this board");
+        }
+        // hero combos that get played out, and which of them stands in for each hero combo
+        int[] playedBy = new int[heroCombos.length];
+        List<Integer> played = new ArrayList<>();
+        if (villain.isSuitSymmetric()) {
+            Map<Long, Integer> seen = new HashMap<>();
+            for (int i = 0; i < heroCombos.length; i++) {
+                Integer k = seen.putIfAbsent(SuitIsomorphism.canonical(Combos.mask(heroCombos[i]), board), played.size());
+                if (k == null) {
+                    k = played.size();
+                    played.add(heroCombos[i]);
+                }
+                playedBy[i] = k;
+            }
+        } else {
+            for (int i = 0; i < heroCombos.length; i++) {
+                playedBy[i] = played.size();
+                played.add(heroCombos[i]);
+            }
+        }
+        Matchup matchup = new Matchup(played.stream().mapToInt(Integer::intValue).toArray(), villainCombos, villain);
+
+        int missing = 5 - Long.bitCount(board);
+        int[] remaining = new int[Cards.DECK_SIZE - Long.bitCount(board)];
+        int n = 0;
+        for (int c = 0; c < Cards.DECK_SIZE; c++) {
+            if ((board & Cards.mask(c)) == 0) {
+                remaining[n++] = c;
+            }
+        }
+        boolean exhaustive = combinations(n, missing) <= exhaustiveLimit;
+        long[] runouts = exhaustive ? enumerate(remaining, missing) : sample(remaining, missing, trials);
+        long deadline = !exhaustive && timeBudgetMillis > 0
+                ? start + TimeUnit.MILLISECONDS.toNanos(timeBudgetMillis) : Long.MAX_VALUE;
+
+        int chunks = Math.max(1, Math.min(runouts.length, Runtime.getRuntime().availableProcessors() * 4));
+        Tally total = IntStream.range(0, chunks)
+                .parallel()
+                .mapToObj(chunk -> {
+                    Tally tally = new Tally(matchup);
+                    for (int r = chunk; r < runouts.length; r += chunks) {
+                        if (System.nanoTime() > deadline) {
+                            break;
+                        }
+                        play(tally, matchup, board | runouts[r], runouts[r]);
+                    }
+                    return tally;
+                })
+                .reduce(Tally::merge)
+                .orElseGet(() -> new Tally(matchup));
+
+        return toResult(hero, villain, heroCombos, villainCombos, playedBy, total, exhaustive,
+                (System.nanoTime() - start) / 1000);
+    }
+
+    // One runout: every combo's strength once, then one sweep up through the strengths
+    private static void play(Tally t, Matchup m, long fullBoard, long runout) {
+        // villain combos the runout leaves alive, strength in the high half so sorting sorts by it
+        int live = 0;
+        double total = 0;
+        Arrays.fill(t.totalCard, 0);
+        for (int j = 0; j < m.villainMasks.length; j++) {
+            if ((m.villainMasks[j] & runout) != 0) {
+                continue;
+            }
+            t.villainOrder[live++] = (long) FastHandEvaluator.evaluate(fullBoard | m.villainMasks[j]) << 32 | j;
+            double w = m.villainWeights[j];
+            total += w;
+            t.totalCard[m.villainCard1[j]] += w;
+            t.totalCard[m.villainCard2[j]] += w;
+        }
+        Arrays.sort(t.villainOrder, 0, live);
+        int heroes = 0;
+        for (int k = 0; k < m.heroMasks.length; k++) {
+            if ((m.heroMasks[k] & runout) == 0) {
+                t.heroOrder[heroes++] = (long) FastHandEvaluator.evaluate(fullBoard | m.heroMasks[k]) << 32 | k;
+            }
+        }
+        Arrays.sort(t.heroOrder, 0, heroes);
+
+        Arrays.fill(t.belowCard, 0);
+        double below = 0;
+        int p = 0;
+        int h = 0;
+        while (h < heroes) {
+            int strength = (int) (t.heroOrder[h] >>> 32);
+            for (; p < live && (int) (t.villainOrder[p] >>> 32) < strength; p++) {
+                int j = (int) t.villainOrder[p];
+                double w = m.villainWeights[j];
+                below += w;
+                t.belowCard[m.villainCard1[j]] += w;
+                t.belowCard[m.villainCard2[j]] += w;
+            }
+            double equal = 0;
+            int q = p;
+            for (; q < live && (int) (t.villainOrder[q] >>> 32) == strength; q++) {
+                int j = (int) t.villainOrder[q];
+                double w = m.villainWeights[j];
+                equal += w;
+                t.equalCard[m.villainCard1[j]] += w;
+                t.equalCard[m.villainCard2[j]] += w;
+            }
+            for (; h < heroes && (int) (t.heroOrder[h] >>> 32) == strength; h++) {
+                int k = (int) t.heroOrder[h];
+                int c1 = m.heroCard1[k];
+                int c2 = m.heroCard2[k];
+                // a villain combo with both our cards is in both card sums, so it's added back once;
+                // it has the same strength as ours, so it's only ever in the equal group
+                double same = m.villainWeightByCombo[m.heroCombos[k]];
+                double win = below - t.belowCard[c1] - t.belowCard[c2];
+                double tie = equal - t.equalCard[c1] - t.equalCard[c2] + same;
+                t.share[k] += win + tie * 0.5;
+                t.weight[k] += total - t.totalCard[c1] - t.totalCard[c2] + same;
+            }
+            for (int r = p; r < q; r++) {
+                int j = (int) t.villainOrder[r];
+                t.equalCard[m.villainCard1[j]] = 0;
+                t.equalCard[m.villainCard2[j]] = 0;
+            }
+        }
+        t.runouts++;
+    }
+
+    private static RangeEquityResult toResult(HandRange hero, HandRange villain, int[] heroCombos, int[] villainCombos,
+                                              int[] playedBy, Tally total, boolean exhaustive, long elapsedMicros) {
+        double[] comboEquity = new double[Combos.COUNT];
+        Arrays.fill(comboEquity, Double.NaN);
+        double share = 0;
+        double weight = 0;
+        double[] classShare = new double[HandClass.COUNT];
+        double[] classWeight = new double[HandClass.COUNT];
+        for (int i = 0; i < heroCombos.length; i++) {
+            int k = playedBy[i];
+            if (total.weight[k] == 0) {
+                continue; // blocked out of every matchup
+            }
+            double w = hero.weight(heroCombos[i]);
+            comboEquity[heroCombos[i]] = 100.0 * total.share[k] / total.weight[k];
+            share += w * total.share[k];
+            weight += w * total.weight[k];
+            int handClass = HandClass.of(Combos.mask(heroCombos[i]));
+            classShare[handClass] += w * total.share[k];
+            classWeight[handClass] += w * total.weight[k];
+        }
+
+        List<Integer> classes = new ArrayList<>();
+        for (int c = 0; c < HandClass.COUNT; c++) {
+            if (classWeight[c] > 0) {
+                classes.add(c);
+            }
+        }
+        classes.sort((a, b) -> Double.compare(classShare[b] / classWeight[b], classShare[a] / classWeight[a]));
+        Map<String, Double> classEquity = new LinkedHashMap<>();
+        for (int c : classes) {
+            classEquity.put(HandClass.name(c), 100.0 * classShare[c] / classWeight[c]);
+        }
+
+        double heroCount = 0;
+        for (int combo : heroCombos) {
+            heroCount += hero.weight(combo);
+        }
+        double villainCount = 0;
+        for (int combo : villainCombos) {
+            villainCount += villain.weight(combo);
+        }
+        return new RangeEquityResult(weight == 0 ? 0 : 100.0 * share / weight, heroCount, villainCount, classEquity,
+                comboEquity, total.runouts, exhaustive, elapsedMicros);
+    }
+
+    // ------------------------------------------------------------------
+    // Helpers
+    // ------------------------------------------------------------------
+
+    // Combos in the range that don't use a board card
+    private static int[] live(HandRange range, long board) {
+        int[] combos = new int[Combos.COUNT];
+        int n = 0;
+        for (int combo = 0; combo < Combos.COUNT; combo++) {
+            if (range.weight(combo) > 0 && (Combos.mask(combo) & board) == 0) {
+                combos[n++] = combo;
+            }
+        }
+        return Arrays.copyOf(combos, n);
+    }
+
+    private static long[] enumerate(int[] remaining, int missing) {
+        long[] runouts = new long[(int) combinations(remaining.length, missing)];
+        int[] n = {0};
+        enumerateFrom(runouts, n, remaining, 0, 0L, missing);
+        return runouts;
+    }
+
+    private static void enumerateFrom(long[] runouts, int[] n, int[] remaining, int from, long runout, int missing) {
+        if (missing == 0) {
+            runouts[n[0]++] = runout;
+            return;
+        }
+        for (int i = from; i <= remaining.length - missing; i++) {
+            enumerateFrom(runouts, n, remaining, i + 1, runout | Cards.mask(remaining[i]), missing - 1);
+        }
+    }
+
+    private static long[] sample(int[] remaining, int missing, int trials) {
+        Shuffler shuffler = Shuffler.fast();
+        int[] deck = remaining.clone();
+        long[] runouts = new long[trials];
+        for (int t = 0; t < trials; t++) {
+            // partial Fisher-Yates: only shuffle the cards the runout needs
+            shuffler.shuffle(deck, missing);
+            long runout = 0L;
+            for (int k = 0; k < missing; k++) {
+                runout |= Cards.mask(deck[k]);
+            }
+            runouts[t] = runout;
+        }
+        return runouts;
+    }
+
+    private static long combinations(int n, int k) {
+        long result = 1;
+        for (int i = 0; i < k; i++) {
+            result = result * (n - i) / (i + 1);
+        }
+        return result;
+    }
+
+    /** Both ranges' live combos as flat arrays, shared read-only by every chunk. */
+    private static final class Matchup {
+        private final int[] heroCombos;
+        private final long[] heroMasks;
+        private final int[] heroCard1;
+        private final int[] heroCard2;
+        private final long[] villainMasks;
+        private final double[] villainWeights;
+        private final int[] villainCard1;
+        private final int[] villainCard2;
+        private final double[] villainWeightByCombo = new double[Combos.COUNT];
+
+        Matchup(int[] heroCombos, int[] villainCombos, HandRange villain) {
+            this.heroCombos = heroCombos;
+            heroMasks = new long[heroCombos.length];
+            heroCard1 = new int[heroCombos.length];
+            heroCard2 = new int[heroCombos.length];
+            for (int k = 0; k < heroCombos.length; k++) {
+                heroMasks[k] = Combos.mask(heroCombos[k]);
+                heroCard1[k] = Long.numberOfTrailingZeros(heroMasks[k]);
+                heroCard2[k] = 63 - Long.numberOfLeadingZeros(heroMasks[k]);
+            }
+            villainMasks = new long[villainCombos.length];
+            villainWeights = new double[villainCombos.length];
+            villainCard1 = new int[villainCombos.length];
+            villainCard2 = new int[villainCombos.length];
+            for (int j = 0; j < villainCombos.length; j++) {
+                villainMasks[j] = Combos.mask(villainCombos[j]);
+                villainWeights[j] = villain.weight(villainCombos[j]);
+                villainCard1[j] = Long.numberOfTrailingZeros(villainMasks[j]);
+                villainCard2[j] = 63 - Long.numberOfLeadingZeros(villainMasks[j]);
+                villainWeightByCombo[villainCombos[j]] = villainWeights[j];
+            }
+        }
+    }
+
+    /**
+     * Per-chunk sums per played hero combo, merged at the end: pot share won and villain weight
+     * played against (so share / weight is the equity). Also the chunk's scratch space, so a
+     * runout allocates nothing.
+     */
+    private static final class Tally {
+        private final double[] share;
+        private final double[] weight;
+        private long runouts;
+
+        private final long[] heroOrder;
+        private final long[] villainOrder;
+        private final double[] totalCard = new double[Cards.DECK_SIZE];
+        private final double[] belowCard = new double[Cards.DECK_SIZE];
+        private final double[] equalCard = new double[Cards.DECK_SIZE];
+
+        Tally(Matchup m) {
+            share = new double[m.heroMasks.length];
+            weight = new double[m.heroMasks.length];
+            heroOrder = new long[m.heroMasks.length];
+            villainOrder = new long[m.villainMasks.length];
+        }
+
+        Tally merge(Tally other) {
+            for (int k = 0; k < share.length; k++) {
+                share[k] += other.share[k];
+                weight[k] += other.weight[k];
+            }
+            runouts += other.runouts;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.adrianandsasha.texasholdem.service;
+
+import com.adrianandsasha.texasholdem.model.Player;
+import com.adrianandsasha.texasholdem.table.Table;
+import com.adrianandsasha.texasholdem.table.TableEvent;
+import com.adrianandsasha.texasholdem.table.TableListener;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pushes a table's public events to everybody subscribed to /topic/table/{id} (batched by the
+ * {@link BroadcastCoalescer}), and each seated player's private state (hole cards, allowed
+ * actions, call amount) to just that player on /user/queue/private. A private payload is only
+ * re-sent when it actually changed. Bots have no session, so they get none.
+ */
+@Component
+public class TableBroadcaster implements TableListener {
+    public static final String PRIVATE_QUEUE = "/queue/private";
+
+    @Autowired
+    private BroadcastCoalescer coalescer;
+
+    // Last private payload per seated human, dropped when they leave; each player only ever gets
+    // touched by their table's thread
+    private final Map<String, Map<String, Object>> lastPrivate = new ConcurrentHashMap<>();
+
+    public static final String TOPIC_PREFIX = "/topic/table/";
+
+    public static String topic(String tableId) {
+        return TOPIC_PREFIX + tableId;
+    }
+
+    @Override
+    public void onEvent(Table table, TableEvent event) {
+        coalescer.publish(table.getId(), event);
+        if (event instanceof TableEvent.PlayersRemoved removed) {
+            lastPrivate.keySet().removeAll(removed.playerIds());
+        }
+    }
+
+    @Override
+    public void onStateChanged(Table table) {
+        coalescer.endOfAction(table.getId());
+
+        for (Player p : table.getPlayers()) {
+            if (p.isBot()) {
+                continue;
+            }
+            Map<String, Object> privateState = table.getPrivateState(p.getId());
+            if (!Objects.equals(lastPrivate.put(p.getId(), privateState), privateState)) {
+                coalescer.sendToUser(p.getId(), PRIVATE_QUEUE, privateState);
+            }
+        }
+    }
+
+    @Override
+    public void onClosed(Table table) {
+        coalescer.close(table.getId());
+        for (Player p : table.getPlayers()) {
+            lastPrivate.remove(p.getId());
+        }
+    }
+}
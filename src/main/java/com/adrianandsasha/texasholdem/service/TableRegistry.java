@@ -0,0 +1,165 @@
+package com.adrianandsasha.texasholdem.service;
+
+import com.adrianandsasha.texasholdem.model.EvaluatorEngine;
+import com.adrianandsasha.texasholdem.model.ShuffleMode;
+import com.adrianandsasha.texasholdem.model.Shuffler;
+import com.adrianandsasha.texasholdem.table.SerialExecutor;
+import com.adrianandsasha.texasholdem.table.Table;
+import com.adrianandsasha.texasholdem.table.TableListener;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Every open table by id. Tables don't get a thread each: their mailboxes all drain on one
+ * shared pool sized to the machine, so a node can hold hundreds of tables and they spread
+ * across cores without a global lock.
+ *
+ * A table nobody has joined or sent an action to for texasholdem.table-idle-ms is closed and
+ * dropped, so abandoned tables don't hold on to a slot of texasholdem.max-tables (and to their
+ * outbox, log version, open hand, ...) forever. Joining the id again opens a new one.
+ */
+@Service
+public class TableRegistry {
+    public static final String DEFAULT_TABLE_ID = "main";
+
+    private final Map<String, Table> tables = new ConcurrentHashMap<>();
+    private final ExecutorService pool;
+
+    // Broadcaster, hand history recorder, ... every table tells all of them
+    @Autowired
+    private List<TableListener> tableListeners;
+
+    @Autowired
+    private EquityService equityService;
+
+    @Autowired
+    private BoardTextureCache boardTextureCache;
+
+    @Autowired
+    private TurnTimers turnTimers;
+
+    @Autowired
+    private BotService botService;
+
+    @Autowired
+    private GameMetrics gameMetrics;
+
+    // Which evaluator runs the showdown (texasholdem.evaluator=COMBINATIONS to use the old one)
+    @Value("${texasholdem.evaluator:LOOKUP_TABLE}")
+    private EvaluatorEngine evaluatorEngine = EvaluatorEngine.LOOKUP_TABLE;
+
+    // Where the decks' randomness comes from; SEEDED gives every table the same decks each run
+    @Value("${texasholdem.shuffler:SECURE}")
+    private ShuffleMode shuffleMode = ShuffleMode.SECURE;
+
+    @Value("${texasholdem.shuffler-seed:0}")
+    private long shuffleSeed;
+
+    private Shuffler seededRoot;
+
+    // 0 keeps every table open for good
+    @Value("${texasholdem.table-idle-ms:600000}")
+    private long idleMillis = 600_000;
+
+    private ScheduledExecutorService sweeper;
+
+    public TableRegistry(@Value("${texasholdem.table-threads:0}") int threads) {
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory factory = r -> {
+            Thread t = new Thread(r, "table-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+        pool = Executors.newFixedThreadPool(size, factory);
+    }
+
+    @PostConstruct
+    public void start() {
+        gameMetrics.watchExecutor(pool, "tableExecutor");
+        if (idleMillis > 0) {
+            sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "table-sweep");
+                t.setDaemon(true);
+                return t;
+            });
+            long every = Math.min(idleMillis, 60_000);
+            sweeper.scheduleWithFixedDelay(this::closeIdleTables, every, every, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public Table getOrCreate(String tableId) {
+        return tables.computeIfAbsent(tableId, this::createTable);
+    }
+
+    /** The table, or null if nobody opened it. */
+    public Table get(String tableId) {
+        return tables.get(tableId);
+    }
+
+    public Collection<Table> getTables() {
+        return tables.values();
+    }
+
+    // The table only leaves the map once it's closed, so its last log record comes before
+    // anything a new table under the same id logs
+    private void closeIdleTables() {
+        for (Table table : tables.values()) {
+            if (table.getIdleMillis() >= idleMillis) {
+                table.close().thenRun(() -> {
+                    tables.remove(table.getId(), table);
+                    gameMetrics.forgetMailbox(table.getMailbox());
+                });
+            }
+        }
+    }
+
+    private Table createTable(String tableId) {
+        SerialExecutor mailbox = new SerialExecutor(pool);
+        gameMetrics.watchMailbox(mailbox);
+        Table table = new Table(tableId, mailbox, TableListener.all(tableListeners));
+        table.setGameMetrics(gameMetrics);
+        table.setEquityService(equityService);
+        table.setBoardTextureCache(boardTextureCache);
+        if (turnTimers.isEnabled()) {
+            table.setTurnTimers(turnTimers);
+        }
+        table.setBotService(botService);
+        table.setEvaluatorEngine(evaluatorEngine);
+        table.setShuffler(newShuffler());
+        return table;
+    }
+
+    // Every table gets its own; seeded ones are split off one root in the order tables open
+    private synchronized Shuffler newShuffler() {
+        if (shuffleMode != ShuffleMode.SEEDED) {
+            return Shuffler.create(shuffleMode, shuffleSeed);
+        }
+        if (seededRoot == null) {
+            seededRoot = Shuffler.seeded(shuffleSeed);
+        }
+        return seededRoot.split();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+        pool.shutdownNow();
+    }
+}
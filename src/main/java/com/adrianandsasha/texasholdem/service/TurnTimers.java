@@ -0,0 +1,100 @@
+package com.adrianandsasha.texasholdem.service;
+
+import com.adrianandsasha.texasholdem.table.WheelTimer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The action clock for every table: one {@link WheelTimer} thread for all of them, however many
+ * tables there are. A player gets {@code texasholdem.turn.timeout-ms} to act, then their time
+ * bank ({@code texasholdem.turn.time-bank-ms}, once per session, used up as they go), then the
+ * table checks for them if it can and folds them if it can't. 0 turns the clock off.
+ */
+@Service
+public class TurnTimers {
+
+    @Value("${texasholdem.turn.timeout-ms:30000}")
+    private long timeoutMillis = 30_000;
+
+    @Value("${texasholdem.turn.time-bank-ms:30000}")
+    private long timeBankMillis = 30_000;
+
+    // how late a timeout may fire; finer ticks cost the timer thread more wakeups
+    @Value("${texasholdem.turn.tick-ms:100}")
+    private long tickMillis = 100;
+
+    @Value("${texasholdem.turn.wheel-size:512}")
+    private int wheelSize = 512;
+
+    private WheelTimer timer;
+
+    private final LongAdder timeBanksStarted = new LongAdder();
+    private final LongAdder autoChecks = new LongAdder();
+    private final LongAdder autoFolds = new LongAdder();
+
+    @PostConstruct
+    public void start() {
+        if (isEnabled()) {
+            timer = new WheelTimer("turn-timer", tickMillis, wheelSize);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (timer != null) {
+            timer.stop();
+        }
+    }
+
+    public boolean isEnabled() {
+        return timeoutMillis > 0;
+    }
+
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    public long getTimeBankMillis() {
+        return timeBankMillis;
+    }
+
+    /** Runs the task on the timer thread after the delay; it should only hand work to a mailbox. */
+    public WheelTimer.Timeout schedule(Runnable task, long delayMillis) {
+        return timer.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void timeBankStarted() {
+        timeBanksStarted.increment();
+    }
+
+    /** The table acted for a player who ran out of time. */
+    public void autoActed(boolean folded) {
+        (folded ? autoFolds : autoChecks).increment();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("timeoutMillis", timeoutMillis);
+        stats.put("timeBankMillis", timeBankMillis);
+        if (timer != null) {
+            stats.put("tickMillis", tickMillis);
+            stats.put("pending", timer.getPending());
+            stats.put("armed", timer.getArmed());
+            stats.put("cancelled", timer.getCancelled());
+            stats.put("fired", timer.getFired());
+            stats.put("lagAvgMillis", timer.getAverageLagNanos() / 1e6);
+            stats.put("lagMaxMillis", timer.getMaxLagNanos() / 1e6);
+        }
+        stats.put("timeBanksStarted", timeBanksStarted.sum());
+        stats.put("autoChecks", autoChecks.sum());
+        stats.put("autoFolds", autoFolds.sum());
+        return stats;
+    }
+}
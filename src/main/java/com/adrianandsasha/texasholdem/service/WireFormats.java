@@ -0,0 +1,187 @@
+package com.adrianandsasha.texasholdem.service;
+
+import com.adrianandsasha.texasholdem.table.BinaryEvents;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import org.springframework.web.socket.messaging.SessionConnectEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Which sessions get table events as JSON and which in the compact binary form
+ * ({@link BinaryEvents}). A client picks per session with a "wire: binary" header on CONNECT,
+ * anything else (or no header) is JSON like before.
+ *
+ * Everyone on a table topic shares one broker message, so the coalescer asks
+ * {@link #audience} who's subscribed and only encodes the binary form when a binary session is
+ * listening. It rides along in a message header next to the JSON payload (which is always
+ * there, the counts can be stale by the time the broker fans out), and on the way out
+ * {@link #forSession} swaps the payload for binary sessions.
+ *
+ * The browsers are on SockJS, which only carries text frames, so the binary form goes out
+ * base64'd. It's still a fraction of the JSON.
+ *
+ * Only table topics are counted (nothing else has a binary form), and a topic's counts are
+ * dropped once nobody is left on it, so clients subscribing to made-up destinations can't
+ * grow the map.
+ */
+@Component
+public class WireFormats {
+
+    // STOMP CONNECT header a client asks for the binary form with
+    public static final String WIRE_HEADER = "wire";
+    public static final String BINARY = "binary";
+
+    // content-type of a binary frame, so a client can tell them from JSON ones
+    public static final MimeType EVENTS_MIME = new MimeType("application", "vnd.texasholdem.events",
+            Map.of("encoding", "base64"));
+
+    // Message header (not a STOMP one, it never goes out) carrying the base64'd binary payload
+    public static final String BINARY_PAYLOAD_HEADER = "texasholdem.binaryPayload";
+
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final Map<String, Audience> audiences = new ConcurrentHashMap<>();
+    private final AtomicInteger binarySessions = new AtomicInteger();
+
+    /** Who's subscribed to the table topic right now, null if nobody is. */
+    public Audience audience(String destination) {
+        return audiences.get(destination);
+    }
+
+    /** Outbound: hand binary sessions the binary payload if the message carries one. */
+    public Message<?> forSession(Message<?> message) {
+        Object binary = message.getHeaders().get(BINARY_PAYLOAD_HEADER);
+        if (binary == null) {
+            return message;
+        }
+        Session session = sessions.get(SimpMessageHeaderAccessor.getSessionId(message.getHeaders()));
+        if (session == null || !session.binary) {
+            return message;
+        }
+        MessageHeaderAccessor accessor = MessageHeaderAccessor.getMutableAccessor(message);
+        accessor.setContentType(EVENTS_MIME);
+        return MessageBuilder.createMessage((byte[]) binary, accessor.getMessageHeaders());
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("sessions", sessions.size());
+        stats.put("binarySessions", binarySessions.get());
+        stats.put("topics", audiences.size());
+        return stats;
+    }
+
+    // ------------------------------------------------------------------
+    // Session lifecycle, from the STOMP handler's events
+    // ------------------------------------------------------------------
+
+    @EventListener
+    public void onConnect(SessionConnectEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        boolean binary = BINARY.equalsIgnoreCase(accessor.getFirstNativeHeader(WIRE_HEADER));
+        if (accessor.getSessionId() != null && sessions.putIfAbsent(accessor.getSessionId(), new Session(binary)) == null
+                && binary) {
+            binarySessions.incrementAndGet();
+        }
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        Session session = sessions.get(accessor.getSessionId());
+        String destination = accessor.getDestination();
+        if (session == null || destination == null || accessor.getSubscriptionId() == null
+                || !destination.startsWith(TableBroadcaster.TOPIC_PREFIX)) {
+            return;
+        }
+        synchronized (session) {
+            if (session.subscriptions.putIfAbsent(accessor.getSubscriptionId(), destination) == null) {
+                count(destination, session.binary, 1);
+            }
+        }
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        Session session = sessions.get(accessor.getSessionId());
+        if (session == null || accessor.getSubscriptionId() == null) {
+            return;
+        }
+        synchronized (session) {
+            String destination = session.subscriptions.remove(accessor.getSubscriptionId());
+            if (destination != null) {
+                count(destination, session.binary, -1);
+            }
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        // announced more than once sometimes, only the first one finds the session
+        Session session = sessions.remove(event.getSessionId());
+        if (session == null) {
+            return;
+        }
+        if (session.binary) {
+            binarySessions.decrementAndGet();
+        }
+        synchronized (session) {
+            for (String destination : session.subscriptions.values()) {
+                count(destination, session.binary, -1);
+            }
+            session.subscriptions.clear();
+        }
+    }
+
+    // Atomic per destination, so a subscribe can't bump an Audience that's just being dropped
+    private void count(String destination, boolean binary, int delta) {
+        audiences.compute(destination, (d, audience) -> {
+            if (audience == null) {
+                audience = new Audience();
+            }
+            audience.add(binary, delta);
+            return audience.json() == 0 && audience.binary() == 0 ? null : audience;
+        });
+    }
+
+    /** Subscriber counts of one destination by format. */
+    public static final class Audience {
+        private final AtomicInteger json = new AtomicInteger();
+        private final AtomicInteger binary = new AtomicInteger();
+
+        public int json() {
+            return json.get();
+        }
+
+        public int binary() {
+            return binary.get();
+        }
+
+        private void add(boolean isBinary, int delta) {
+            (isBinary ? binary : json).addAndGet(delta);
+        }
+    }
+
+    private static final class Session {
+        private final boolean binary;
+        private final Map<String, String> subscriptions = new HashMap<>(); // subscription id -> destination
+
+        Session(boolean binary) {
+            this.binary = binary;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.adrianandsasha.texasholdem.sim;
+
+import com.adrianandsasha.texasholdem.model.Cards;
+import com.adrianandsasha.texasholdem.model.FastHandEvaluator;
+import com.adrianandsasha.texasholdem.model.GameRound;
+import com.adrianandsasha.texasholdem.preflop.PreflopEquity;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Plays by its equity against random hands, one for each other player still in. Before the flop
+ * that's a lookup in {@link PreflopEquity}. After it, the other players' cards and the rest of
+ * the board are dealt at random until {@code maxTrials} or the time budget runs out, whichever
+ * comes first, so a decision never takes much longer than the budget.
+ *
+ * Raises when it's well ahead of its fair share of the pot, calls when the pot odds are good
+ * enough, otherwise checks or folds. Good enough to keep a table moving with believable play,
+ * not to win money.
+ */
+public final class EquityStrategy implements Strategy {
+
+    // How often the Monte Carlo loop looks at the clock
+    private static final int CLOCK_CHECK_INTERVAL = 16;
+
+    private final long budgetNanos;
+    private final int maxTrials;
+    private final LongAdder overBudget = new LongAdder();
+
+    /**
+     * @param budgetNanos how long one decision may take; 0 for no limit (the same moves every
+     *                    run with the same random numbers, for the simulator)
+     */
+    public EquityStrategy(long budgetNanos, int maxTrials) {
+        this.budgetNanos = budgetNanos;
+        this.maxTrials = Math.max(maxTrials, 1);
+    }
+
+    @Override
+    public Move decide(Spot spot) {
+        int opponents = Math.min(Math.max(spot.playersInHand() - 1, 1), PreflopEquity.MAX_OPPONENTS);
+        double equity = spot.round() == GameRound.PRE_FLOP
+                ? PreflopEquity.get().vsRandom(spot.holeMask(), opponents) / 100
+                : estimate(spot, opponents);
+
+        // 1 = exactly its share, e.g. 50% heads-up
+        double share = equity * (opponents + 1);
+        if (share > 1.5 && spot.chipStack() > spot.callAmount()) {
+            return Move.raise(spot.callAmount() + Math.max(spot.bigBlind(), spot.pot() / 2));
+        }
+        if (spot.canCheck()) {
+            return Move.CHECK;
+        }
+        double potOdds = (double) spot.callAmount() / (spot.pot() + spot.callAmount());
+        return equity > potOdds ? Move.CALL : Move.FOLD;
+    }
+
+    /** Decisions that ran out of time before maxTrials. */
+    public long getOverBudget() {
+        return overBudget.sum();
+    }
+
+    private double estimate(Spot spot, int opponents) {
+        long dead = spot.holeMask() | spot.boardMask();
+        int[] deck = new int[Cards.DECK_SIZE];
+        int n = 0;
+        for (int c = 0; c < Cards.DECK_SIZE; c++) {
+            if ((dead & Cards.mask(c)) == 0) {
+                deck[n++] = c;
+            }
+        }
+        int missing = 5 - Long.bitCount(spot.boardMask());
+        int draw = missing + 2 * opponents;
+        SplittableRandom random = spot.random();
+        long deadline = budgetNanos > 0 ? System.nanoTime() + budgetNanos : Long.MAX_VALUE;
+
+        double won = 0;
+        int trials = 0;
+        while (trials < maxTrials) {
+            if (trials > 0 && trials % CLOCK_CHECK_INTERVAL == 0 && System.nanoTime() > deadline) {
+                overBudget.increment();
+                break;
+            }
+            // the first cards of a shuffle are all it needs
+            for (int i = 0; i < draw; i++) {
+                int j = i + random.nextInt(n - i);
+                int t = deck[i];
+                deck[i] = deck[j];
+                deck[j] = t;
+            }
+            long board = spot.boardMask();
+            for (int i = 0; i < missing; i++) {
+                board |= Cards.mask(deck[i]);
+            }
+            int mine = missing == 0 ? spot.handStrength() : FastHandEvaluator.evaluate(board | spot.holeMask());
+            int tied = 0;
+            boolean lost = false;
+            for (int o = 0; o < opponents && !lost; o++) {
+                long hand = Cards.mask(deck[missing + 2 * o]) | Cards.mask(deck[missing + 2 * o + 1]);
+                int theirs = FastHandEvaluator.evaluate(board | hand);
+                lost = theirs > mine;
+                if (theirs == mine) {
+                    tied++;
+                }
+            }
+            if (!lost) {
+                won += 1.0 / (tied + 1);
+            }
+            trials++;
+        }
+        return won / trials;
+    }
+}
@@ -0,0 +1,214 @@
+package com.adrianandsasha.texasholdem.sim;
+
+import com.adrianandsasha.texasholdem.dto.PlayerAction;
+import com.adrianandsasha.texasholdem.model.Player;
+import com.adrianandsasha.texasholdem.model.Shuffler;
+import com.adrianandsasha.texasholdem.table.Table;
+import com.adrianandsasha.texasholdem.table.TableEvent;
+import com.adrianandsasha.texasholdem.table.TableListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Plays complete hands with no server, no Spring and no messaging: a real {@link Table} (same
+ * blinds, betting rounds, showdown and pot split as the game) driven on the calling thread, with
+ * a {@link Strategy} deciding for each seat instead of a browser.
+ *
+ * Every thread runs its own tables. When somebody at a table busts, the stacks are settled into
+ * the stats and a fresh table with full stacks is opened, so a run can go on for any number of
+ * hands. The decks and the strategy decisions both come from the seed, so a run with the same
+ * seed and thread count plays exactly the same hands.
+ *
+ * Run with: java -cp target/classes com.adrianandsasha.texasholdem.sim.HandSimulator [hands] [threads] [strategy,strategy,...] [seed]
+ */
+public class HandSimulator {
+
+    // A hand that needs more actions than this means the rules got stuck somewhere
+    private static final int MAX_ACTIONS_PER_HAND = 1000;
+
+    private final List<Strategy> strategies;
+    private final String[] names;
+    private final long seed;
+
+    public HandSimulator(List<Strategy> strategies, List<String> names, long seed) {
+        if (strategies.size() < 2 || strategies.size() != names.size()) {
+            throw new IllegalArgumentException("Need at least 2 seats, each with a strategy and a name");
+        }
+        this.strategies = new ArrayList<>(strategies);
+        this.names = names.toArray(new String[0]);
+        this.seed = seed;
+    }
+
+    /**
+     * Play {@code hands} hands split over {@code threads} threads and return the combined stats.
+     */
+    public SimulationStats run(long hands, int threads) {
+        long start = System.nanoTime();
+        AtomicInteger counter = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "sim-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            SplittableRandom root = new SplittableRandom(seed);
+            Shuffler decks = Shuffler.seeded(seed);
+            List<Future<SimulationStats>> parts = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                long quota = hands / threads + (i < hands % threads ? 1 : 0);
+                parts.add(pool.submit(new Worker(i, quota, root.split(), decks.split())));
+            }
+            SimulationStats total = new SimulationStats(names);
+            for (Future<SimulationStats> part : parts) {
+                total.merge(part.get());
+            }
+            total.setElapsedNanos(System.nanoTime() - start);
+            return total;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Simulation failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Simulation interrupted", e);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * One thread's share of the hands. It's also the table's listener, that's how it learns a
+     * hand is over and who won.
+     */
+    private final class Worker implements Callable<SimulationStats>, TableListener {
+        private final int worker;
+        private final long quota;
+        private final SplittableRandom random;
+        private final Shuffler shuffler;
+        private final SimulationStats stats = new SimulationStats(names);
+        private final PlayerAction action = new PlayerAction();  // the table is done with it once submit returns
+
+        private final Map<String, Integer> seatOf = new HashMap<>();
+        private final List<Player> seated = new ArrayList<>();
+        private Table table;
+        private int tables;
+        private int handActions;
+
+        Worker(int worker, long quota, SplittableRandom random, Shuffler shuffler) {
+            this.worker = worker;
+            this.quota = quota;
+            this.random = random;
+            this.shuffler = shuffler;
+        }
+
+        @Override
+        public SimulationStats call() {
+            while (stats.getHands() < quota) {
+                Player p = table == null ? null : table.getPlayerToAct();
+                if (p == null || table.getPlayers().size() < names.length) {
+                    openTable();
+                    continue;
+                }
+
+                int seat = seatOf.get(p.getId());
+                int callAmount = table.getCallAmount(p);
+                Move move = strategies.get(seat).decide(new Spot(seat, p.getHoleMask(), table.getCommunityMask(), p.getHandStrength(),
+                        table.getCurrentRound(), table.getPot(), callAmount, p.getChipStack(), p.getCurrentBet(),
+                        table.getBigBlind(), table.getPlayersInHand(), random));
+                if ("RAISE".equals(move.actionType()) && p.getChipStack() <= callAmount) {
+                    move = Move.CALL; // can't put in more than the call anyway
+                }
+
+                action.setPlayerId(p.getId());
+                action.setActionType(move.actionType());
+                action.setAmount(move.amount());
+                table.submit(action);
+                stats.action(move.actionType());
+
+                if (++handActions > MAX_ACTIONS_PER_HAND) {
+                    throw new IllegalStateException("Hand on table " + table.getId() + " didn't finish after "
+                            + MAX_ACTIONS_PER_HAND + " actions");
+                }
+            }
+            closeTable();
+            return stats;
+        }
+
+        @Override
+        public void onEvent(Table table, TableEvent event) {
+            if (event instanceof TableEvent.HandEnded ended) {
+                stats.handEnded(ended.round());
+                ended.payouts().forEach((playerId, amount) -> {
+                    Integer seat = seatOf.get(playerId);
+                    if (seat != null && amount > 0) {
+                        stats.won(seat, amount);
+                    }
+                });
+                handActions = 0;
+            }
+        }
+
+        private void openTable() {
+            closeTable();
+            table = new Table("sim-" + worker + "-" + (++tables), Runnable::run, this);
+            table.setShuffler(shuffler);
+            for (int i = 0; i < names.length; i++) {
+                seatOf.put(table.join(names[i]).join(), i);
+            }
+            seated.addAll(table.getPlayers());  // join order = seat order
+            stats.tableOpened();
+            handActions = 0;
+        }
+
+        // Whatever is in front of a player, plus the blinds of the hand that just started, is theirs
+        // again. Anybody not in a running hand (busted, or the last one left) has a stale currentBet.
+        private void closeTable() {
+            boolean handRunning = table != null && table.getPlayerToAct() != null;
+            for (int i = 0; i < seated.size(); i++) {
+                Player p = seated.get(i);
+                int blinds = handRunning && table.getPlayers().contains(p) ? p.getCurrentBet() : 0;
+                stats.settle(i, p.getChipStack() + blinds - Table.STARTING_STACK);
+            }
+            seated.clear();
+            seatOf.clear();
+            table = null;
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // Command line
+    // ------------------------------------------------------------------
+
+    public static void main(String[] args) {
+        long hands = args.length > 0 ? Long.parseLong(args[0]) : 1_000_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        String[] seats = args.length > 2 ? args[2].split(",")
+                : new String[]{"tight", "random", "calling", "tight", "random", "calling"};
+
+        List<Strategy> strategies = new ArrayList<>();
+        for (String name : seats) {
+            strategies.add(byName(name));
+        }
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 42;
+        SimulationStats stats = new HandSimulator(strategies, List.of(seats), seed).run(hands, threads);
+        System.out.print(stats);
+    }
+
+    private static Strategy byName(String name) {
+        return switch (name) {
+            case "calling" -> Strategies.callingStation();
+            case "random" -> Strategies.random(20, 10);
+            case "tight" -> Strategies.tight();
+            case "equity" -> Strategies.equity(0, 200);
+            default -> throw new IllegalArgumentException("Unknown strategy: " + name + " (calling, random, tight or equity)");
+        };
+    }
+}
@@ -0,0 +1,15 @@
+package com.adrianandsasha.texasholdem.sim;
+
+/**
+ * What a strategy wants to do. actionType is one of the PlayerAction types (FOLD, CHECK, CALL,
+ * RAISE), amount only matters for RAISE and is the number of chips put in on top of the current bet.
+ */
+public record Move(String actionType, int amount) {
+    public static final Move FOLD = new Move("FOLD", 0);
+    public static final Move CHECK = new Move("CHECK", 0);
+    public static final Move CALL = new Move("CALL", 0);
+
+    public static Move raise(int amount) {
+        return new Move("RAISE", amount);
+    }
+}
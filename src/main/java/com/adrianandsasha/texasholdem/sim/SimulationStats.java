@@ -0,0 +1,145 @@
+package com.adrianandsasha.texasholdem.sim;
+
+import com.adrianandsasha.texasholdem.model.GameRound;
+
+import java.util.Locale;
+
+/**
+ * Totals for a simulator run. Each simulator thread fills its own copy and they're merged at
+ * the end, so nothing here is synchronized.
+ */
+public class SimulationStats {
+    private final String[] seatNames;
+
+    private long hands;
+    private long actions;
+    private long tablesOpened;
+    private long chipsPaidOut;
+    private final long[] handsEndedIn = new long[GameRound.values().length];  // by round the hand ended in
+    private final long[] actionsByType = new long[4];                         // FOLD, CHECK, CALL, RAISE
+
+    // per seat (= strategy)
+    private final long[] handsWon;
+    private final long[] netChips;
+
+    private long elapsedNanos;
+
+    public SimulationStats(String[] seatNames) {
+        this.seatNames = seatNames;
+        handsWon = new long[seatNames.length];
+        netChips = new long[seatNames.length];
+    }
+
+    // ------------------------------------------------------------------
+    // Recording (simulator thread)
+    // ------------------------------------------------------------------
+
+    void tableOpened() {
+        tablesOpened++;
+    }
+
+    void action(String actionType) {
+        actions++;
+        switch (actionType) {
+            case "FOLD" -> actionsByType[0]++;
+            case "CHECK" -> actionsByType[1]++;
+            case "CALL" -> actionsByType[2]++;
+            case "RAISE" -> actionsByType[3]++;
+            default -> { }
+        }
+    }
+
+    void won(int seat, int amount) {
+        handsWon[seat]++;
+        chipsPaidOut += amount;
+    }
+
+    /** A table was closed: what the seat left with compared to what it sat down with. */
+    void settle(int seat, long chips) {
+        netChips[seat] += chips;
+    }
+
+    void handEnded(GameRound round) {
+        hands++;
+        handsEndedIn[round.ordinal()]++;
+    }
+
+    void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    SimulationStats merge(SimulationStats other) {
+        hands += other.hands;
+        actions += other.actions;
+        tablesOpened += other.tablesOpened;
+        chipsPaidOut += other.chipsPaidOut;
+        for (int i = 0; i < handsEndedIn.length; i++) {
+            handsEndedIn[i] += other.handsEndedIn[i];
+        }
+        for (int i = 0; i < actionsByType.length; i++) {
+            actionsByType[i] += other.actionsByType[i];
+        }
+        for (int i = 0; i < seatNames.length; i++) {
+            handsWon[i] += other.handsWon[i];
+            netChips[i] += other.netChips[i];
+        }
+        return this;
+    }
+
+    // ------------------------------------------------------------------
+    // Results
+    // ------------------------------------------------------------------
+
+    public long getHands() {
+        return hands;
+    }
+
+    public long getActions() {
+        return actions;
+    }
+
+    public long getTablesOpened() {
+        return tablesOpened;
+    }
+
+    public long getHandsEndedIn(GameRound round) {
+        return handsEndedIn[round.ordinal()];
+    }
+
+    public long getHandsWon(int seat) {
+        return handsWon[seat];
+    }
+
+    /** Chips won minus chips lost, over the whole run. */
+    public long getNetChips(int seat) {
+        return netChips[seat];
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getHandsPerSecond() {
+        return elapsedNanos == 0 ? 0 : hands * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "%,d hands in %.2f s (%,.0f hands/s, %,.0f hands/min), %d tables%n",
+                hands, elapsedNanos / 1e9, getHandsPerSecond(), getHandsPerSecond() * 60, tablesOpened));
+        sb.append(String.format(Locale.ROOT, "%,d actions (%.1f per hand): fold %d, check %d, call %d, raise %d%n",
+                actions, hands == 0 ? 0.0 : (double) actions / hands,
+                actionsByType[0], actionsByType[1], actionsByType[2], actionsByType[3]));
+        sb.append("hands ended in:");
+        for (GameRound round : GameRound.values()) {
+            sb.append(' ').append(round).append(' ').append(handsEndedIn[round.ordinal()]);
+        }
+        sb.append(String.format(Locale.ROOT, "%naverage pot %.1f%n", hands == 0 ? 0.0 : (double) chipsPaidOut / hands));
+        for (int i = 0; i < seatNames.length; i++) {
+            sb.append(String.format(Locale.ROOT, "seat %d %-16s won %,d hands, net %+,d chips%n",
+                    i, seatNames[i], handsWon[i], getNetChips(i)));
+        }
+        return sb.toString();
+    }
+}
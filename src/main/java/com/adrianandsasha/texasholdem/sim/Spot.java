@@ -0,0 +1,22 @@
+package com.adrianandsasha.texasholdem.sim;
+
+import com.adrianandsasha.texasholdem.model.GameRound;
+
+import java.util.SplittableRandom;
+
+/**
+ * Everything a strategy gets to see when it's its turn. Cards are masks (see Cards).
+ *
+ * @param seat          index of the strategy in the simulator's seat list
+ * @param handStrength  best hand with the board so far, as FastHandEvaluator.evaluate(holeMask | boardMask)
+ * @param callAmount    chips needed to call, 0 means checking is free
+ * @param playersInHand players still in the hand, including this one
+ * @param random        the simulator thread's RNG, for strategies that mix their play
+ */
+public record Spot(int seat, long holeMask, long boardMask, int handStrength, GameRound round, int pot, int callAmount,
+                   int chipStack, int currentBet, int bigBlind, int playersInHand, SplittableRandom random) {
+
+    public boolean canCheck() {
+        return callAmount == 0;
+    }
+}
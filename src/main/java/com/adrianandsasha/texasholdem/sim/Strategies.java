@@ -0,0 +1,82 @@
+package com.adrianandsasha.texasholdem.sim;
+
+import com.adrianandsasha.texasholdem.model.Cards;
+import com.adrianandsasha.texasholdem.model.FastHandEvaluator;
+import com.adrianandsasha.texasholdem.model.GameRound;
+import com.adrianandsasha.texasholdem.model.HandCategory;
+
+/**
+ * A few simple built-in strategies, mostly there to generate traffic that exercises every rule.
+ */
+public final class Strategies {
+
+    private Strategies() {
+    }
+
+    /** Never folds, never raises. Every hand goes to showdown. */
+    public static Strategy callingStation() {
+        return spot -> spot.canCheck() ? Move.CHECK : Move.CALL;
+    }
+
+    /**
+     * Folds (when it costs something), raises or calls at random with the given percentages.
+     */
+    public static Strategy random(int foldPercent, int raisePercent) {
+        return spot -> {
+            int roll = spot.random().nextInt(100);
+            if (roll < foldPercent && !spot.canCheck()) {
+                return Move.FOLD;
+            }
+            if (roll >= 100 - raisePercent) {
+                return Move.raise(spot.callAmount() + spot.bigBlind());
+            }
+            return spot.canCheck() ? Move.CHECK : Move.CALL;
+        };
+    }
+
+    /**
+     * Plays good starting hands and made hands, raises the strong ones, gives up on the rest.
+     */
+    public static Strategy tight() {
+        return spot -> {
+            int strength;
+            if (spot.round() == GameRound.PRE_FLOP) {
+                strength = preflopStrength(spot.holeMask());
+            } else {
+                HandCategory category = FastHandEvaluator.category(spot.handStrength());
+                strength = category.compareTo(HandCategory.TWO_PAIR) <= 0 ? 2        // two pair or better
+                        : category == HandCategory.ONE_PAIR ? 1 : 0;
+            }
+            if (strength == 2) {
+                return Move.raise(spot.callAmount() + Math.max(spot.bigBlind(), spot.pot() / 2));
+            }
+            if (strength == 1 || spot.canCheck()) {
+                return spot.canCheck() ? Move.CHECK : Move.CALL;
+            }
+            return Move.FOLD;
+        };
+    }
+
+    /**
+     * Plays by its equity against random hands (see {@link EquityStrategy}). A budget of 0 means
+     * no time limit, so it makes the same moves every run.
+     */
+    public static EquityStrategy equity(long budgetNanos, int maxTrials) {
+        return new EquityStrategy(budgetNanos, maxTrials);
+    }
+
+    // 2 = big pair or AK, 1 = any pair / ace / two broadway cards, 0 = the rest
+    private static int preflopStrength(long holeMask) {
+        int first = Long.numberOfTrailingZeros(holeMask);
+        int second = 63 - Long.numberOfLeadingZeros(holeMask);
+        int high = Math.max(Cards.rankValue(first), Cards.rankValue(second));
+        int low = Math.min(Cards.rankValue(first), Cards.rankValue(second));
+        if ((high == low && high >= 11) || (high == 14 && low == 13)) {
+            return 2;
+        }
+        if (high == low || high == 14 || low >= 10) {
+            return 1;
+        }
+        return 0;
+    }
+}
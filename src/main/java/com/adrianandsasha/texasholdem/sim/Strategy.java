@@ -0,0 +1,11 @@
+package com.adrianandsasha.texasholdem.sim;
+
+/**
+ * Decides a seat's action in the headless simulator. One instance is shared by every simulator
+ * thread, so implementations must not keep per-hand state (use the Spot, and its RNG).
+ */
+@FunctionalInterface
+public interface Strategy {
+
+    Move decide(Spot spot);
+}
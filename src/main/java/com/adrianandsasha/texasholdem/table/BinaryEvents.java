@@ -0,0 +1,235 @@
+package com.adrianandsasha.texasholdem.table;
+
+import com.adrianandsasha.texasholdem.model.Card;
+import com.adrianandsasha.texasholdem.model.Player;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The compact binary form of a batch of {@link TableEvent}s, for clients that asked for it
+ * instead of JSON (decoded by script.js, decodeBinaryEvents). Same events, same fields, just
+ * without the field names and enum names:
+ * <pre>
+ *   byte version, uint count, count * { byte type, uint seq delta, fields }
+ * </pre>
+ * The seq delta is from the previous event in the frame (the first one's is from 0). Fields
+ * per type, in the record's order:
+ * <pre>
+ *   0 PlayerJoined     id, str nickname, int chipStack
+ *   1 PlayersRemoved   uint n, n * id
+ *   2 HandStarted      uint n, n * id
+ *   3 BetPlaced        id, byte action, int amount, int currentBet, int chipStack
+ *   4 PlayerFolded     id
+ *   5 PotUpdated       int pot
+ *   6 CardsDealt       byte round, byte n, n * byte card
+ *   7 TurnChanged      int actionIndex
+ *   8 TimeBankStarted  id, int millis
+ *   9 HandEnded        byte round, uint n, n * { id, int payout }, uint m, m * { id, int chipStack }
+ *  10 EquityUpdated    uint n, n * { id, int hundredths of a percent }
+ * </pre>
+ * uint is an unsigned LEB128 varint, int a zigzag one, so chips cost 1-3 bytes instead of
+ * their digits. A card is its index (see Cards), round its GameRound ordinal, action an index
+ * into ACTION_TYPES (255 then a str for anything else). str is a uint length plus UTF-8.
+ *
+ * Player ids are the bulk of a JSON frame (36 chars each, several times per frame), so an id
+ * is a uint reference to the ids seen earlier in the same frame (1 = the first), or 0 followed
+ * by a new one: byte kind 0 = a UUID, 1 = a bot's "bot-" + UUID (both as 16 bytes), 2 = str.
+ */
+public final class BinaryEvents {
+    public static final int VERSION = 1;
+
+    // Action types by their byte code, like the journal's
+    private static final List<String> ACTION_TYPES = List.of("SMALL_BLIND", "BIG_BLIND", "FOLD", "CHECK", "CALL", "RAISE", "UNKNOWN");
+    private static final int OTHER_ACTION = 255;
+
+    private static final int UUID_ID = 0;
+    private static final int BOT_ID = 1;
+    private static final int STRING_ID = 2;
+
+    private BinaryEvents() {
+    }
+
+    public static byte[] encode(TableEvent[] events) {
+        Writer out = new Writer();
+        out.put(VERSION);
+        out.putUnsigned(events.length);
+        long seq = 0;
+        for (TableEvent event : events) {
+            out.put(typeCode(event));
+            out.putUnsigned(event.seq() - seq);
+            seq = event.seq();
+            writeFields(out, event);
+        }
+        return out.toByteArray();
+    }
+
+    private static int typeCode(TableEvent event) {
+        if (event instanceof TableEvent.PlayerJoined) return 0;
+        if (event instanceof TableEvent.PlayersRemoved) return 1;
+        if (event instanceof TableEvent.HandStarted) return 2;
+        if (event instanceof TableEvent.BetPlaced) return 3;
+        if (event instanceof TableEvent.PlayerFolded) return 4;
+        if (event instanceof TableEvent.PotUpdated) return 5;
+        if (event instanceof TableEvent.CardsDealt) return 6;
+        if (event instanceof TableEvent.TurnChanged) return 7;
+        if (event instanceof TableEvent.TimeBankStarted) return 8;
+        if (event instanceof TableEvent.HandEnded) return 9;
+        if (event instanceof TableEvent.EquityUpdated) return 10;
+        throw new IllegalArgumentException("No binary form for " + event.getClass().getSimpleName());
+    }
+
+    private static void writeFields(Writer out, TableEvent event) {
+        if (event instanceof TableEvent.PlayerJoined e) {
+            out.putId(e.playerId());
+            out.putString(e.nickname());
+            out.putSigned(e.chipStack());
+        } else if (event instanceof TableEvent.PlayersRemoved e) {
+            out.putIds(e.playerIds());
+        } else if (event instanceof TableEvent.HandStarted e) {
+            out.putIds(e.activePlayersThisHand());
+        } else if (event instanceof TableEvent.BetPlaced e) {
+            out.putId(e.playerId());
+            int code = ACTION_TYPES.indexOf(e.action());
+            if (code >= 0) {
+                out.put(code);
+            } else {
+                out.put(OTHER_ACTION);
+                out.putString(e.action());
+            }
+            out.putSigned(e.amount());
+            out.putSigned(e.currentBet());
+            out.putSigned(e.chipStack());
+        } else if (event instanceof TableEvent.PlayerFolded e) {
+            out.putId(e.playerId());
+        } else if (event instanceof TableEvent.PotUpdated e) {
+            out.putSigned(e.pot());
+        } else if (event instanceof TableEvent.CardsDealt e) {
+            out.put(e.round().ordinal());
+            out.put(e.cards().size());
+            for (Card card : e.cards()) {
+                out.put(card.getIndex());
+            }
+        } else if (event instanceof TableEvent.TurnChanged e) {
+            out.putSigned(e.actionIndex());
+        } else if (event instanceof TableEvent.TimeBankStarted e) {
+            out.putId(e.playerId());
+            out.putSigned(e.millis());
+        } else if (event instanceof TableEvent.HandEnded e) {
+            out.put(e.round().ordinal());
+            out.putChips(e.payouts());
+            out.putChips(e.chipStacks());
+        } else if (event instanceof TableEvent.EquityUpdated e) {
+            out.putUnsigned(e.allInEquity().size());
+            for (Map.Entry<String, Double> entry : e.allInEquity().entrySet()) {
+                out.putId(entry.getKey());
+                out.putSigned(Math.round(entry.getValue() * 100));
+            }
+        }
+    }
+
+    /** Growable byte buffer plus the frame's id table. */
+    private static final class Writer {
+        private byte[] buf = new byte[128];
+        private int len;
+        private final List<String> ids = new ArrayList<>();
+
+        void put(int b) {
+            if (len == buf.length) {
+                buf = Arrays.copyOf(buf, len * 2);
+            }
+            buf[len++] = (byte) b;
+        }
+
+        void putBytes(byte[] bytes) {
+            if (len + bytes.length > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(len * 2, len + bytes.length));
+            }
+            System.arraycopy(bytes, 0, buf, len, bytes.length);
+            len += bytes.length;
+        }
+
+        void putUnsigned(long value) {
+            while ((value & ~0x7FL) != 0) {
+                put((int) (value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            put((int) value);
+        }
+
+        void putSigned(long value) {
+            putUnsigned((value << 1) ^ (value >> 63));
+        }
+
+        void putString(String s) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            putUnsigned(bytes.length);
+            putBytes(bytes);
+        }
+
+        void putId(String id) {
+            int seen = ids.indexOf(id);
+            if (seen >= 0) {
+                putUnsigned(seen + 1);
+                return;
+            }
+            ids.add(id);
+            put(0);
+            boolean bot = id.startsWith(Player.BOT_ID_PREFIX);
+            int from = bot ? Player.BOT_ID_PREFIX.length() : 0;
+            if (isUuid(id, from)) {
+                put(bot ? BOT_ID : UUID_ID);
+                // hex pairs, the dashes never split one
+                for (int i = from; i < id.length(); i++) {
+                    if (id.charAt(i) != '-') {
+                        put(Character.digit(id.charAt(i), 16) << 4 | Character.digit(id.charAt(i + 1), 16));
+                        i++;
+                    }
+                }
+            } else {
+                put(STRING_ID);
+                putString(id);
+            }
+        }
+
+        void putIds(List<String> list) {
+            putUnsigned(list.size());
+            for (String id : list) {
+                putId(id);
+            }
+        }
+
+        void putChips(Map<String, Integer> chips) {
+            putUnsigned(chips.size());
+            for (Map.Entry<String, Integer> entry : chips.entrySet()) {
+                putId(entry.getKey());
+                putSigned(entry.getValue());
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buf, len);
+        }
+
+        // Only ids that look exactly like UUID.toString() (lowercase, dashes in place), so they decode to the same string
+        private static boolean isUuid(String s, int from) {
+            if (s.length() - from != 36) {
+                return false;
+            }
+            for (int i = 0; i < 36; i++) {
+                char c = s.charAt(from + i);
+                if (i == 8 || i == 13 || i == 18 || i == 23) {
+                    if (c != '-') {
+                        return false;
+                    }
+                } else if (!(c >= '0' && c <= '9' || c >= 'a' && c <= 'f')) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
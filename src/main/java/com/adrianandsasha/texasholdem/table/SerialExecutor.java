@@ -0,0 +1,67 @@
+package com.adrianandsasha.texasholdem.table;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A table's mailbox. Tasks run one at a time and in order, but on a shared pool instead of a
+ * thread of their own, so hundreds of tables can share a handful of threads. After a batch of
+ * tasks the drain hands the thread back to the pool so one busy table can't starve the rest.
+ */
+public final class SerialExecutor implements Executor {
+    private static final Logger log = LoggerFactory.getLogger(SerialExecutor.class);
+    private static final int MAX_BATCH = 64;
+
+    private final Executor pool;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+
+    public SerialExecutor(Executor pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        tasks.add(task);
+        // Whoever takes pending from 0 to 1 is responsible for scheduling the drain
+        if (pending.getAndIncrement() == 0) {
+            pool.execute(this::drain);
+        }
+    }
+
+    /** Tasks waiting (or running) in this mailbox. */
+    public int queueDepth() {
+        return pending.get();
+    }
+
+    private void drain() {
+        int batch = 0;
+        while (true) {
+            Runnable task = tasks.poll();
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                log.error("Table task failed", e);
+            } catch (Error e) {
+                // goes up to the pool, but this task is done: the ones behind it still get a drain
+                log.error("Table task failed", e);
+                if (pending.decrementAndGet() > 0) {
+                    pool.execute(this::drain);
+                }
+                throw e;
+            }
+            if (pending.decrementAndGet() == 0) {
+                return;
+            }
+            if (++batch >= MAX_BATCH) {
+                pool.execute(this::drain);
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,1375 @@
+package com.adrianandsasha.texasholdem.table;
+
+import com.adrianandsasha.texasholdem.dto.PlayerAction;
+import com.adrianandsasha.texasholdem.model.*;
+import com.adrianandsasha.texasholdem.service.BoardTextureCache;
+import com.adrianandsasha.texasholdem.service.BotService;
+import com.adrianandsasha.texasholdem.service.EquityService;
+import com.adrianandsasha.texasholdem.service.GameMetrics;
+import com.adrianandsasha.texasholdem.service.TurnTimers;
+import com.adrianandsasha.texasholdem.sim.Move;
+import com.adrianandsasha.texasholdem.sim.Spot;
+
+import com.adrianandsasha.texasholdem.table.TableEvent.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * One poker table. Manages the entire game flow using a turn-based approach.
+ * it goes from PRE_FLOP -> FLOP -> TURN -> RIVER -> SHOWDOWN
+ * with a betting round between each stage, using a "last-raiser" approach
+ * to determine when betting ends. With {@link TurnTimers} set, whoever has to act is on a clock
+ * and gets checked or folded when it and their time bank run out, so nobody can stall the table.
+ * With a {@link BotService} set, bot seats (see joinBot) play themselves through the same actions.
+ *
+ * All state is owned by the table's mailbox: the public methods only enqueue work, and every
+ * rule below runs on that one serial executor, so there are no locks and tables never
+ * contend with each other.
+ *
+ * Every change to the public state is emitted as a small {@link TableEvent} with the next
+ * sequence number instead of re-sending the whole state. The last events are kept around so a
+ * client that missed some can catch up (see getStateSince).
+ */
+public class Table {
+    public static final int STARTING_STACK = 2000;
+    public static final int MAX_SEATS = 9;
+
+    private final String id;
+    private final Executor mailbox;
+    private TableListener listener;  // only swapped out while recovering
+
+//variables for game
+    private final Map<String, Player> players = new LinkedHashMap<>(); // join order = seat order
+    private Deck deck;
+    private List<Card> communityCards = new ArrayList<>();
+    private long communityMask = 0L;   // same board as a bitmask for the evaluator
+    private int pot = 0;
+    private final int bigBlind = 100;
+    private final int smallBlind = 50;
+
+    // We'll rotate dealer each hand (by index in a seat-ordered list).
+    private int dealerIndex = 0;
+
+    private boolean gameInProgress = false;
+    private GameRound currentRound = GameRound.PRE_FLOP;
+
+    // Turn-based data
+    private List<Player> activePlayersThisHand = new ArrayList<>();
+    private int actionIndex = 0;          // which seat in activePlayersThisHand is acting
+    private int highestBetThisRound = 0;  // the largest bet any player has put in for this round
+
+    // For a robust approach, we track the last raiser seat + how many still need to act
+    private int lastRaiserIndex = 0;
+    private int playersToAct = 0;         // how many players still need to act since the last raise
+
+    private EquityService equityService;  // optional, no live equity without it
+    private BoardTextureCache boardTextures;  // optional, no board hints without it
+
+    // Turn clock, optional: without it a player can take as long as they like
+    private TurnTimers turnTimers;
+    private long turnSeq;              // seq of the last TurnChanged, i.e. which turn it is
+    private long clockedTurn;          // the turn the clock is running for (0 = none)
+    private Player clockedPlayer;
+    private WheelTimer.Timeout turnTimeout;
+    private long timeBankStartedAt;    // nanoTime, 0 while not on the time bank
+
+    private GameMetrics metrics;       // optional, nothing is measured without it
+    private long handStartedAt;        // nanoTime of the deal, 0 if it wasn't seen (recovered)
+
+    private BotService bots;           // optional, bot seats just sit there without it
+    private long botTurn;              // the turn a bot was last asked to decide
+    private int botsJoined;
+    private final SplittableRandom botRandom = new SplittableRandom();
+
+    // Live all-in equity is only worked out when the board or the players in it change, and off
+    // the table thread unless it's a lookup
+    private Executor equityRunner = ForkJoinPool.commonPool();
+    private long equityKey = 0L;        // the spot the last numbers were asked for, 0 for none
+    private Map<String, Double> publishedEquity = Collections.emptyMap();
+    private boolean recovering;
+    private boolean closed;
+    private volatile long lastInput = System.nanoTime();  // last join or submitted action, for TableRegistry's idle sweep
+
+    // Which evaluator runs the showdown
+    private EvaluatorEngine evaluatorEngine = EvaluatorEngine.LOOKUP_TABLE;
+
+    // Where each hand's deck comes from (a stacked deck when replaying)
+    private Supplier<Deck> deckFactory = Deck::new;
+
+    // Event stream: seq of the last event, and the most recent events for catching up
+    private static final int HISTORY_SIZE = 512;
+    private long seq = 0;
+    private final ArrayDeque<TableEvent> history = new ArrayDeque<>();
+
+    /**
+     * @param mailbox  runs every table task in order, one at a time (a {@link SerialExecutor},
+     *                 or {@code Runnable::run} when a single thread drives the table itself)
+     * @param listener told after every state change, on the table's thread
+     */
+    public Table(String id, Executor mailbox, TableListener listener) {
+        this.id = id;
+        this.mailbox = mailbox;
+        this.listener = listener;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setEquityService(EquityService equityService) {
+        this.equityService = equityService;
+    }
+
+    /**
+     * @param runOn where the simulations run ({@code Runnable::run} to keep them on the table
+     *              thread, e.g. when a single thread drives the table itself)
+     */
+    public void setEquityService(EquityService equityService, Executor runOn) {
+        this.equityService = equityService;
+        this.equityRunner = runOn;
+    }
+
+    public void setBoardTextureCache(BoardTextureCache boardTextures) {
+        this.boardTextures = boardTextures;
+    }
+
+    public void setTurnTimers(TurnTimers turnTimers) {
+        this.turnTimers = turnTimers;
+    }
+
+    public void setGameMetrics(GameMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public void setBotService(BotService bots) {
+        this.bots = bots;
+    }
+
+    public void setEvaluatorEngine(EvaluatorEngine evaluatorEngine) {
+        this.evaluatorEngine = evaluatorEngine;
+    }
+
+    public void setDeckFactory(Supplier<Deck> deckFactory) {
+        this.deckFactory = deckFactory;
+    }
+
+    /**
+     * Shuffle with this one (the table's own, it's used on the table thread only). The table then
+     * keeps one deck and starts it over every hand instead of making a new one.
+     */
+    public void setShuffler(Shuffler shuffler) {
+        Deck reused = new Deck(shuffler);
+        this.deckFactory = () -> {
+            reused.shuffle();
+            return reused;
+        };
+    }
+
+    // ------------------------------------------------------------------
+    // Public API, safe from any thread: everything goes through the mailbox
+    // ------------------------------------------------------------------
+
+    /**
+     * Seat a new player. Completes with their id once they have the seat, or fails with an
+     * IllegalStateException if the table is full.
+     */
+    public CompletableFuture<String> join(String nickname) {
+        lastInput = System.nanoTime();
+        String playerId = UUID.randomUUID().toString();
+        CompletableFuture<String> result = new CompletableFuture<>();
+        mailbox.execute(() -> {
+            if (closed) {
+                result.completeExceptionally(new IllegalStateException("Table is closed"));
+            } else if (addNewPlayer(playerId, nickname)) {
+                result.complete(playerId);
+            } else {
+                result.completeExceptionally(new IllegalStateException("Table is full"));
+            }
+            afterTask();
+        });
+        return result;
+    }
+
+    /**
+     * Seat a bot, like join. Its id starts with {@link Player#BOT_ID_PREFIX}. Fails if the table
+     * is full or already has as many bots as the BotService allows.
+     */
+    public CompletableFuture<String> joinBot() {
+        String playerId = Player.BOT_ID_PREFIX + UUID.randomUUID();
+        CompletableFuture<String> result = new CompletableFuture<>();
+        mailbox.execute(() -> {
+            if (!closed && addNewPlayer(playerId, "Bot " + (botsJoined + 1))) {
+                botsJoined++;
+                result.complete(playerId);
+            } else {
+                result.completeExceptionally(new IllegalStateException("No seat for another bot"));
+            }
+            afterTask();
+        });
+        return result;
+    }
+
+    /** Seat bots until there are {@code seats} players, e.g. so a lone human gets a game. */
+    public void fillWithBots(int seats) {
+        mailbox.execute(() -> {
+            while (!closed && players.size() < seats
+                    && addNewPlayer(Player.BOT_ID_PREFIX + UUID.randomUUID(), "Bot " + (botsJoined + 1))) {
+                botsJoined++;
+            }
+            afterTask();
+        });
+    }
+
+    public void submit(PlayerAction action) {
+        lastInput = System.nanoTime();
+        mailbox.execute(() -> {
+            handlePlayerAction(action);
+            afterTask();
+        });
+    }
+
+    /**
+     * Seat a player with a known id and stack without starting a hand, for rebuilding a table
+     * (e.g. replaying a recorded hand). Seat order is join order, like join. Use deal() to start.
+     */
+    public void seat(String playerId, String nickname, int chips) {
+        mailbox.execute(() -> {
+            Player p = new Player(playerId, nickname, chips);
+            giveTimeBank(p);
+            players.put(playerId, p);
+            emit(new PlayerJoined(nextSeq(), playerId, nickname, p.getChipStack()));
+            afterTask();
+        });
+    }
+
+    /** How long since somebody joined or sent an action (bots and timeouts don't count). Safe from any thread. */
+    public long getIdleMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastInput);
+    }
+
+    /**
+     * Close the table for good: the turn clock stops, bots aren't asked anymore, and the listener
+     * hears about it one last time (onClosed) so it can forget the table. A join after this
+     * fails, anything else that still reaches the mailbox goes nowhere.
+     */
+    public CompletableFuture<Void> close() {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        mailbox.execute(() -> {
+            if (!closed) {
+                closed = true;
+                stopTurnClock();
+                turnTimers = null;
+                bots = null;
+                listener.onClosed(this);
+                listener = TableListener.NONE;
+            }
+            done.complete(null);
+        });
+        return done;
+    }
+
+    /** True once close() ran. Table thread only. */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /** The mailbox this table's tasks run on. */
+    public Executor getMailbox() {
+        return mailbox;
+    }
+
+    /** Start a hand if none is running and at least 2 players are seated. */
+    public void deal() {
+        mailbox.execute(() -> {
+            if (!gameInProgress && players.size() >= 2) {
+                startNewHand();
+            }
+            afterTask();
+        });
+    }
+
+    /** Snapshot of the public state, taken on the table thread. */
+    public CompletableFuture<Map<String, Object>> snapshot() {
+        CompletableFuture<Map<String, Object>> result = new CompletableFuture<>();
+        mailbox.execute(() -> result.complete(getGameState()));
+        return result;
+    }
+
+    /**
+     * Events after {@code since}, or a full snapshot if they aren't kept anymore. Taken on the table thread.
+     */
+    public CompletableFuture<Map<String, Object>> stateSince(long since) {
+        CompletableFuture<Map<String, Object>> result = new CompletableFuture<>();
+        mailbox.execute(() -> result.complete(getStateSince(since)));
+        return result;
+    }
+
+    /**
+     * Run something on the table thread, for callers that need several reads to agree with each
+     * other (e.g. the state and the log position it belongs to).
+     */
+    public <T> CompletableFuture<T> call(Function<Table, T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        mailbox.execute(() -> {
+            try {
+                result.complete(task.apply(this));
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Rebuild the table after a restart: load the saved state (null for a table that was never
+     * saved), then play the logged commands that came after it through the same rules, with the
+     * logged cards. Nothing is sent to the listener while this runs.
+     */
+    public CompletableFuture<Void> recover(byte[] state, List<TableCommand> commands) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        mailbox.execute(() -> {
+            TableListener live = listener;
+            Supplier<Deck> decks = deckFactory;
+            listener = TableListener.NONE;
+            recovering = true;
+            try {
+                // Cards dealt after the saved state: board cards for the hand it was in, then a deck per hand
+                List<Integer> openHand = new ArrayList<>();
+                ArrayDeque<List<Integer>> hands = new ArrayDeque<>();
+                for (TableCommand command : commands) {
+                    if (command instanceof TableCommand.HoleCards hole) {
+                        hands.addLast(new ArrayList<>());
+                        addAll(hands.peekLast(), hole.cards());
+                    } else if (command instanceof TableCommand.Board board) {
+                        addAll(hands.isEmpty() ? openHand : hands.peekLast(), board.cards());
+                    }
+                }
+                if (state != null) {
+                    readState(new DataInputStream(new ByteArrayInputStream(state)), openHand);
+                }
+                deckFactory = () -> hands.isEmpty() ? decks.get() : Deck.stacked(toArray(hands.pollFirst()));
+
+                for (TableCommand command : commands) {
+                    if (command instanceof TableCommand.Join join) {
+                        addNewPlayer(join.playerId(), join.nickname());
+                    } else if (command instanceof TableCommand.Act act) {
+                        PlayerAction action = new PlayerAction();
+                        action.setPlayerId(act.playerId());
+                        action.setActionType(act.actionType());
+                        action.setAmount(act.amount());
+                        handlePlayerAction(action);
+                    } else if (command instanceof TableCommand.Equity equity) {
+                        // the numbers came back whenever they did, so they go where the log put them
+                        emitEquity(equity.equity());
+                    }
+                }
+
+                // whatever equity applies where the log stops goes out as a fresh update
+                recovering = false;
+                listener = live;
+                equityKey = 0L;
+                publishEquity();
+                updateTurnClock();
+                askBot();
+                done.complete(null);
+            } catch (IOException | RuntimeException e) {
+                done.completeExceptionally(e);
+            } finally {
+                listener = live;
+                deckFactory = decks;
+                recovering = false;
+            }
+        });
+        return done;
+    }
+
+    /** Snapshot of one player's private state (empty if they aren't seated here). */
+    public CompletableFuture<Map<String, Object>> privateSnapshot(String playerId) {
+        CompletableFuture<Map<String, Object>> result = new CompletableFuture<>();
+        mailbox.execute(() -> {
+            Map<String, Object> state = getPrivateState(playerId);
+            result.complete(state != null ? state : Collections.emptyMap());
+        });
+        return result;
+    }
+
+    // ------------------------------------------------------------------
+    // Rules, table thread only
+    // ------------------------------------------------------------------
+
+    /**
+     * A new player joins. If 2+ players exist and no hand is running, start a new hand.
+     * False if there's no seat for them: the table is full, or it's a bot and the table has
+     * as many as the BotService allows. A logged join was seated back then, so recovery
+     * doesn't check again.
+     */
+    private boolean addNewPlayer(String playerId, String nickname) {
+        if (!recovering && (players.size() >= MAX_SEATS
+                || bots != null && playerId.startsWith(Player.BOT_ID_PREFIX) && countBots() >= bots.getMaxPerTable())) {
+            return false;
+        }
+        Player p = new Player(playerId, nickname, STARTING_STACK);
+        giveTimeBank(p);
+        players.put(playerId, p);
+        emit(new PlayerJoined(nextSeq(), playerId, nickname, p.getChipStack()));
+
+        // If 2+ players are present and no game is running, start a new hand
+        if (!gameInProgress && canDeal()) {
+            startNewHand();
+        }
+        return true;
+    }
+
+    // Bots only play while a human is seated, so a table everyone left doesn't deal forever
+    // (unless the BotService says they may, for soak tests)
+    private boolean canDeal() {
+        if (players.size() < 2) {
+            return false;
+        }
+        if (bots == null || bots.isPlayAlone()) {
+            return true;
+        }
+        return countBots() < players.size();
+    }
+
+    private int countBots() {
+        int n = 0;
+        for (Player p : players.values()) {
+            if (p.isBot()) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Initiate a brand new hand:
+     * 1) Shuffle deck, clear community
+     * 2) Seat players in an order that starts with 'dealerIndex'
+     * 3) Deal hole cards
+     * 4) Post blinds
+     * 5) Start pre-flop betting
+     */
+    private void startNewHand() {
+        List<Player> all = new ArrayList<>(players.values());
+        if (all.size() < 2) {
+            return;
+        }
+
+        gameInProgress = true;
+        currentRound = GameRound.PRE_FLOP;
+        handStartedAt = recovering ? 0 : System.nanoTime();
+        deck = deckFactory.get();
+        communityCards.clear();
+        communityMask = 0L;
+        pot = 0;
+
+        // Reset each player's state for the new hand
+        for (Player p : all) {
+            p.resetForNewHand();
+        }
+
+        // Rotate so that dealerIndex is at front
+        dealerIndex = dealerIndex % all.size();
+        Collections.rotate(all, -dealerIndex);
+
+        // Everyone is active at the start
+        activePlayersThisHand = new ArrayList<>(all);
+
+        // Deal 2 hole cards each
+        for (Player p : activePlayersThisHand) {
+            p.receiveCard(deck.dealCardIndex());
+            p.receiveCard(deck.dealCardIndex());
+        }
+        emit(new HandStarted(nextSeq(), activePlayerIds()));
+
+        // Post blinds if >= 2 players
+        highestBetThisRound = 0;
+        if (activePlayersThisHand.size() >= 2) {
+            // seat[1] => small blind
+            Player sb = activePlayersThisHand.get(1 % activePlayersThisHand.size());
+            int sbAmt = Math.min(smallBlind, sb.getChipStack());
+            sb.setCurrentBet(sbAmt);
+            sb.setChipStack(sb.getChipStack() - sbAmt);
+            pot += sbAmt;
+            highestBetThisRound = sbAmt;
+            emit(new BetPlaced(nextSeq(), sb.getId(), "SMALL_BLIND", sbAmt, sb.getCurrentBet(), sb.getChipStack()));
+
+            // seat[2] => big blind
+            if (activePlayersThisHand.size() >= 3) {
+                Player bb = activePlayersThisHand.get(2 % activePlayersThisHand.size());
+                int bbAmt = Math.min(bigBlind, bb.getChipStack());
+                bb.setCurrentBet(bbAmt);
+                bb.setChipStack(bb.getChipStack() - bbAmt);
+                pot += bbAmt;
+                highestBetThisRound = bbAmt;
+                emit(new BetPlaced(nextSeq(), bb.getId(), "BIG_BLIND", bbAmt, bb.getCurrentBet(), bb.getChipStack()));
+
+                // big blind is the "last raiser"
+                lastRaiserIndex = 2;
+                playersToAct = activePlayersThisHand.size() - 1;
+            } else {
+                // Heads up scenario => seat[1] is big blind effectively
+                lastRaiserIndex = 1;
+                playersToAct = activePlayersThisHand.size() - 1;
+            }
+        }
+
+        // If we have 3+ players, action starts at seat[3]. If 2 players, seat[0] is next to act.
+        if (activePlayersThisHand.size() > 2) {
+            actionIndex = 3 % activePlayersThisHand.size();
+        } else {
+            actionIndex = 0;
+        }
+
+        emit(new PotUpdated(nextSeq(), pot));
+        changeTurn();
+        doBettingRound();
+    }
+
+    /**
+     * The main betting round logic. If playersToAct == 0 or only 1 player remains, the round ends.
+     */
+    private void doBettingRound() {
+        // If only 1 remains => end
+        if (activePlayersThisHand.size() == 1) {
+            finishHandEarly(activePlayersThisHand.get(0));
+            return;
+        }
+
+        // If no one else needs to act, the round is done
+        if (playersToAct <= 0) {
+            advanceRound();
+            return;
+        }
+
+        // Otherwise we "pause" here until that player acts (handlePlayerAction calls continueBettingRound)
+    }
+
+    /**
+     * The game continues after a player's action. We move to the next seat and re-check the round.
+     */
+    private void continueBettingRound() {
+        if (activePlayersThisHand.size() == 1) {
+            finishHandEarly(activePlayersThisHand.get(0));
+            return;
+        }
+
+        actionIndex = (actionIndex + 1) % activePlayersThisHand.size();
+        changeTurn();
+        doBettingRound();
+    }
+
+    /**
+     * Move from PRE_FLOP -> FLOP -> TURN -> RIVER -> SHOWDOWN
+     * dealing community cards & starting a new betting round at each step.
+     */
+    private void advanceRound() {
+        int boardBefore = communityCards.size();
+        switch (currentRound) {
+            case PRE_FLOP:
+                // Deal FLOP
+                dealCommunityCard();
+                dealCommunityCard();
+                dealCommunityCard();
+                currentRound = GameRound.FLOP;
+                break;
+            case FLOP:
+                // Deal TURN
+                dealCommunityCard();
+                currentRound = GameRound.TURN;
+                break;
+            case TURN:
+                // Deal RIVER
+                dealCommunityCard();
+                currentRound = GameRound.RIVER;
+                break;
+            case RIVER:
+                // Move to SHOWDOWN
+                currentRound = GameRound.SHOWDOWN;
+                doShowdown();
+                return; // end
+            default:
+                return; // shouldn't happen
+        }
+
+        // Setup for next betting round
+        highestBetThisRound = 0;
+        for (Player p : activePlayersThisHand) {
+            p.setCurrentBet(0);
+        }
+
+        // In real hold'em, post-flop action starts at seat[1] relative to the button
+        actionIndex = 1 % activePlayersThisHand.size();
+
+        // The first bet is effectively 0 => no raiser
+        lastRaiserIndex = actionIndex;
+        playersToAct = activePlayersThisHand.size();
+
+        emit(new CardsDealt(nextSeq(), currentRound,
+                new ArrayList<>(communityCards.subList(boardBefore, communityCards.size()))));
+        changeTurn();
+        doBettingRound();
+    }
+
+    private void dealCommunityCard() {
+        int card = deck.dealCardIndex();
+        communityCards.add(Card.of(card));
+        communityMask |= Cards.mask(card);
+        for (Player p : activePlayersThisHand) {
+            if (!p.isFolded()) {
+                p.seeBoardCard(card);
+            }
+        }
+    }
+
+    /**
+     * Showdown: if 2+ not folded, evaluate; if 1 left, they auto-win.
+     */
+    private void doShowdown() {
+        if (activePlayersThisHand.size() == 1) {
+            finishHandEarly(activePlayersThisHand.get(0));
+            return;
+        }
+
+        // Check how many remain not folded
+        List<Player> notFolded = new ArrayList<>();
+        for (Player p : activePlayersThisHand) {
+            if (!p.isFolded()) notFolded.add(p);
+        }
+        if (notFolded.size() == 1) {
+            finishHandEarly(notFolded.get(0));
+            return;
+        }
+        // Evaluate; every player's strength was kept up to date as the board came out
+        long evaluationStart = System.nanoTime();
+        List<ShowdownResult> results = new ArrayList<>();
+        for (Player p : notFolded) {
+            HandRank rank;
+            if (evaluatorEngine == EvaluatorEngine.LOOKUP_TABLE) {
+                rank = FastHandEvaluator.toHandRank(p.getHandStrength());
+            } else {
+                List<Card> combined = new ArrayList<>(communityCards);
+                combined.addAll(p.getHoleCards());
+                rank = TexasHoldemHandEvaluator.getBestHandRank(combined);
+            }
+            results.add(new ShowdownResult(p, rank));
+        }
+
+        // Strongest first; the packed strength already includes the tiebreakers
+        results.sort((r1, r2) -> Integer.compare(r2.getRank().getStrength(), r1.getRank().getStrength()));
+
+        int bestStrength = results.get(0).getRank().getStrength();
+        List<Player> winners = new ArrayList<>();
+        for (ShowdownResult sr : results) {
+            if (sr.getRank().getStrength() != bestStrength) {
+                break;
+            }
+            winners.add(sr.getPlayer());
+        }
+        if (metrics != null && !recovering) {
+            metrics.showdownEvaluated(evaluatorEngine, System.nanoTime() - evaluationStart);
+        }
+
+        Map<String, Integer> payouts = new LinkedHashMap<>();
+        if (winners.size() == 1) {
+            winners.get(0).setChipStack(winners.get(0).getChipStack() + pot);
+            payouts.put(winners.get(0).getId(), pot);
+        } else {
+            int split = pot / winners.size();
+            for (Player w : winners) {
+                w.setChipStack(w.getChipStack() + split);
+                payouts.put(w.getId(), split);
+            }
+            int remainder = pot % winners.size();
+            if (remainder > 0) {
+                winners.get(0).setChipStack(winners.get(0).getChipStack() + remainder);
+                payouts.merge(winners.get(0).getId(), remainder, Integer::sum);
+            }
+        }
+
+        endHand(payouts);
+    }
+
+    /**
+     * If only 1 remains mid-round, we finish the hand.
+     */
+    private void finishHandEarly(Player winner) {
+        winner.setChipStack(winner.getChipStack() + pot);
+        endHand(Collections.singletonMap(winner.getId(), pot));
+    }
+
+    private void endHand(Map<String, Integer> payouts) {
+        pot = 0;
+        gameInProgress = false;
+        if (metrics != null && handStartedAt != 0) {
+            metrics.handFinished(System.nanoTime() - handStartedAt);
+            handStartedAt = 0;
+        }
+
+        // Move dealer for next hand
+        dealerIndex = (dealerIndex + 1) % players.size();
+
+        Map<String, Integer> chipStacks = new LinkedHashMap<>();
+        for (Player p : players.values()) {
+            chipStacks.put(p.getId(), p.getChipStack());
+        }
+        emit(new HandEnded(nextSeq(), currentRound, payouts, chipStacks));
+
+        // Remove bankrupt players
+        List<String> busted = new ArrayList<>();
+        for (Player p : players.values()) {
+            if (p.getChipStack() <= 0) busted.add(p.getId());
+        }
+        if (!busted.isEmpty()) {
+            players.keySet().removeAll(busted);
+            emit(new PlayersRemoved(nextSeq(), busted));
+        }
+
+        // Start next if still >= 2 (and somebody is there to watch it)
+        if (canDeal()) {
+            startNewHand();
+        }
+    }
+
+    /**
+     * Every action comes in here (players, the turn clock, bots, recovery). Times the ones the
+     * table accepted, i.e. that changed something.
+     */
+    private void handlePlayerAction(PlayerAction action) {
+        if (metrics == null || recovering) {
+            applyAction(action);
+            return;
+        }
+        long before = seq;
+        long start = System.nanoTime();
+        applyAction(action);
+        if (seq != before) {
+            metrics.actionProcessed(action.getActionType(), System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * The main action handler. We reduce calls, raises, folds, or checks. Then continue the round.
+     */
+    private void applyAction(PlayerAction action) {
+        // Unknown player, no hand running or not your turn => nothing changes, nothing to send
+        Player p = players.get(action.getPlayerId());
+        if (p == null) {
+            return;
+        }
+
+        if (!gameInProgress) {
+            return;
+        }
+
+        // Must match the current seat
+        Player current = activePlayersThisHand.get(actionIndex);
+        if (!current.getId().equals(p.getId())) {
+            // Not your turn
+            return;
+        }
+        listener.onAction(this, action);
+
+        switch (action.getActionType().toUpperCase()) {
+            case "FOLD":
+                p.fold();
+                activePlayersThisHand.removeIf(Player::isFolded);
+                emit(new PlayerFolded(nextSeq(), p.getId()));
+                if (activePlayersThisHand.size() == 1) {
+                    finishHandEarly(activePlayersThisHand.get(0));
+                    return;
+                }
+                // If we fold, we do playersToAct -= 1 so we don't block
+                playersToAct -= 1;
+                break;
+
+            case "CALL": {
+                int needed = highestBetThisRound - p.getCurrentBet();
+                int callAmount = Math.min(needed, p.getChipStack());
+                p.setCurrentBet(p.getCurrentBet() + callAmount);
+                p.setChipStack(p.getChipStack() - callAmount);
+                pot += callAmount;
+                playersToAct -= 1;
+                emit(new BetPlaced(nextSeq(), p.getId(), "CALL", callAmount, p.getCurrentBet(), p.getChipStack()));
+                emit(new PotUpdated(nextSeq(), pot));
+                break;
+            }
+
+            case "RAISE": {
+                int neededToCall = highestBetThisRound - p.getCurrentBet();
+                int raiseAmount = action.getAmount();
+                if (raiseAmount < neededToCall) {
+                    // minimal fix: treat as call
+                    raiseAmount = neededToCall;
+                }
+                if (raiseAmount > p.getChipStack()) {
+                    // all in
+                    raiseAmount = p.getChipStack();
+                }
+
+                int increment = raiseAmount;
+                p.setCurrentBet(p.getCurrentBet() + increment);
+                p.setChipStack(p.getChipStack() - increment);
+                pot += increment;
+                emit(new BetPlaced(nextSeq(), p.getId(), "RAISE", increment, p.getCurrentBet(), p.getChipStack()));
+                emit(new PotUpdated(nextSeq(), pot));
+
+                if (p.getCurrentBet() > highestBetThisRound) {
+                    highestBetThisRound = p.getCurrentBet();
+
+                    // new raise => reset playersToAct
+                    playersToAct = activePlayersThisHand.size() - 1;
+                    lastRaiserIndex = actionIndex;
+                }
+                break;
+            }
+
+            case "CHECK": {
+                // valid only if p.getCurrentBet() == highestBetThisRound
+                if (p.getCurrentBet() < highestBetThisRound) {
+                    // not valid => fold or something else
+                    p.fold();
+                    activePlayersThisHand.removeIf(Player::isFolded);
+                    emit(new PlayerFolded(nextSeq(), p.getId()));
+                    if (activePlayersThisHand.size() == 1) {
+                        finishHandEarly(activePlayersThisHand.get(0));
+                        return;
+                    }
+                } else {
+                    // matched the bet with 0 extra
+                    playersToAct -= 1;
+                    emit(new BetPlaced(nextSeq(), p.getId(), "CHECK", 0, p.getCurrentBet(), p.getChipStack()));
+                }
+                break;
+            }
+        }
+
+        continueBettingRound();
+    }
+
+    /**
+     * Return a JSON-friendly snapshot of the public game state, the part every subscriber may see
+     * (hole cards are left out of Player's JSON). Table thread only (see snapshot()).
+     */
+    public Map<String, Object> getGameState() {
+        Map<String, Object> state = new HashMap<>();
+        state.put("communityCards", communityCards);
+        state.put("pot", pot);
+        state.put("players", players.values());
+        state.put("gameInProgress", gameInProgress);
+        state.put("currentRound", currentRound);
+
+        // We also provide the seat order for this hand
+        state.put("activePlayersThisHand", activePlayerIds());
+        state.put("actionIndex", actionIndex);
+        state.put("allInEquity", publishedEquity);
+        state.put("turnTimeoutMillis", turnTimers != null ? turnTimers.getTimeoutMillis() : 0);
+        state.put("seq", seq);
+
+        return state;
+    }
+
+    /**
+     * What only this player may see: their hole cards and, when it's their turn, what they can do.
+     * Null if they aren't seated. Table thread only.
+     */
+    public Map<String, Object> getPrivateState(String playerId) {
+        Player p = players.get(playerId);
+        if (p == null) {
+            return null;
+        }
+        boolean yourTurn = gameInProgress
+                && actionIndex < activePlayersThisHand.size()
+                && activePlayersThisHand.get(actionIndex) == p;
+        int callAmount = getCallAmount(p);
+
+        List<String> allowedActions = new ArrayList<>(4);
+        if (yourTurn) {
+            allowedActions.add("FOLD");
+            allowedActions.add(p.getCurrentBet() >= highestBetThisRound ? "CHECK" : "CALL");
+            if (p.getChipStack() > callAmount) {
+                allowedActions.add("RAISE");
+            }
+        }
+
+        Map<String, Object> state = new HashMap<>();
+        state.put("tableId", id);
+        state.put("playerId", playerId);
+        state.put("holeCards", new ArrayList<>(p.getHoleCards()));
+        state.put("yourTurn", yourTurn);
+        // which turn it is, so two turns in a row (e.g. first to act on the next street) aren't the same payload
+        state.put("turn", yourTurn ? turnSeq : 0);
+        state.put("allowedActions", allowedActions);
+        state.put("callAmount", yourTurn ? callAmount : 0);
+        // hints: what they've made so far, and what the board allows (everyone asks about the same board)
+        if (gameInProgress && !p.getHoleCards().isEmpty()) {
+            state.put("handCategory", p.getHandCategory());
+        }
+        if (boardTextures != null && communityCards.size() >= 3) {
+            BoardTexture texture = boardTextures.get(communityMask);
+            Map<String, Object> board = new LinkedHashMap<>();
+            board.put("paired", texture.isPaired());
+            board.put("flushPossible", texture.isFlushPossible());
+            board.put("straightPossible", texture.isStraightPossible());
+            board.put("monotone", texture.isMonotone());
+            state.put("boardTexture", board);
+        }
+        return state;
+    }
+
+    /** The seated player with this id, or null. Table thread only. */
+    public Player getPlayer(String playerId) {
+        return players.get(playerId);
+    }
+
+    /** Everyone seated at the table. Table thread only. */
+    public Collection<Player> getPlayers() {
+        return players.values();
+    }
+
+    // Plain getters for code that drives the table on its own thread (simulator, bots), so it
+    // doesn't have to build the JSON maps above for every decision. Table thread only.
+
+    /** The player whose turn it is, or null if no hand is running. */
+    public Player getPlayerToAct() {
+        if (!gameInProgress || actionIndex >= activePlayersThisHand.size()) {
+            return null;
+        }
+        return activePlayersThisHand.get(actionIndex);
+    }
+
+    /** What the player has to put in to call, capped at their stack (0 means they can check). */
+    public int getCallAmount(Player p) {
+        return Math.min(Math.max(highestBetThisRound - p.getCurrentBet(), 0), p.getChipStack());
+    }
+
+    public int getPlayersInHand() {
+        return activePlayersThisHand.size();
+    }
+
+    public long getCommunityMask() {
+        return communityMask;
+    }
+
+    public int getPot() {
+        return pot;
+    }
+
+    public GameRound getCurrentRound() {
+        return currentRound;
+    }
+
+    public int getSmallBlind() {
+        return smallBlind;
+    }
+
+    public int getBigBlind() {
+        return bigBlind;
+    }
+
+    /**
+     * Once betting is closed (every player left in is all-in except at most one, and that one
+     * isn't facing a bet) the hole cards are as good as face up, so show each player's chance
+     * of winning the pot. Not while someone with chips still has a call to decide on: the
+     * numbers would tell them whether to make it.
+     *
+     * @return the board and the hands still in, folded into one key, or 0 if there's nothing to show
+     */
+    private long allInEquityKey() {
+        if (equityService == null || !gameInProgress || currentRound == GameRound.SHOWDOWN) {
+            return 0L;
+        }
+        int live = 0;
+        int withChips = 0;
+        boolean callPending = false;
+        long key = communityMask;
+        for (Player p : activePlayersThisHand) {
+            if (p.isFolded()) continue;
+            live++;
+            if (p.getChipStack() > 0) {
+                withChips++;
+                callPending |= p.getCurrentBet() < highestBetThisRound;
+            }
+            key = key * 31 + p.getHoleMask();
+        }
+        return live < 2 || withChips > 1 || callPending ? 0L : key;
+    }
+
+    /**
+     * Everything after {@code since} as {"seq", "events"}, or the full snapshot if the history
+     * doesn't go back that far (or since is from the future). Table thread only.
+     */
+    public Map<String, Object> getStateSince(long since) {
+        boolean covered = since == seq || (since < seq && !history.isEmpty() && history.peekFirst().seq() <= since + 1);
+        if (!covered) {
+            return getGameState();
+        }
+        List<TableEvent> missed = new ArrayList<>();
+        for (TableEvent e : history) {
+            if (e.seq() > since) missed.add(e);
+        }
+        Map<String, Object> state = new HashMap<>();
+        state.put("seq", seq);
+        state.put("events", missed.toArray(new TableEvent[0])); // array keeps the element type, so Jackson writes "type"
+        return state;
+    }
+
+    public long getSeq() {
+        return seq;
+    }
+
+    /**
+     * Everything needed to rebuild the table (see recover), compact and binary. Only the cards
+     * already dealt are saved, the rest of the deck gets shuffled again on the way back. Table
+     * thread only (see call).
+     */
+    public byte[] saveState() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeLong(seq);
+            out.writeInt(dealerIndex);
+            out.writeBoolean(gameInProgress);
+            out.writeByte(currentRound.ordinal());
+            out.writeInt(pot);
+            out.writeInt(highestBetThisRound);
+            out.writeInt(lastRaiserIndex);
+            out.writeInt(playersToAct);
+            out.writeInt(actionIndex);
+
+            List<Player> seated = new ArrayList<>(players.values());
+            out.writeByte(seated.size());
+            for (Player p : seated) {
+                out.writeUTF(p.getId());
+                out.writeUTF(p.getNickname());
+                out.writeInt(p.getChipStack());
+                out.writeBoolean(p.isFolded());
+                out.writeInt(p.getCurrentBet());
+                out.writeByte(p.getHoleCards().size());
+                for (Card c : p.getHoleCards()) {
+                    out.writeByte(c.getIndex());
+                }
+            }
+            out.writeByte(activePlayersThisHand.size());
+            for (Player p : activePlayersThisHand) {
+                out.writeByte(seated.indexOf(p));
+            }
+            out.writeByte(communityCards.size());
+            for (Card c : communityCards) {
+                out.writeByte(c.getIndex());
+            }
+            out.writeBoolean(deck != null);
+            out.writeLong(deck != null ? deck.getDealtMask() : 0L);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private void readState(DataInputStream in, List<Integer> nextBoardCards) throws IOException {
+        seq = in.readLong();
+        dealerIndex = in.readInt();
+        gameInProgress = in.readBoolean();
+        currentRound = GameRound.values()[in.readByte()];
+        pot = in.readInt();
+        highestBetThisRound = in.readInt();
+        lastRaiserIndex = in.readInt();
+        playersToAct = in.readInt();
+        actionIndex = in.readInt();
+        turnSeq = seq;  // not saved; it only has to differ from the turns handed out before
+
+        players.clear();
+        List<Player> seated = new ArrayList<>();
+        int count = in.readUnsignedByte();
+        for (int i = 0; i < count; i++) {
+            Player p = new Player(in.readUTF(), in.readUTF(), in.readInt());
+            giveTimeBank(p);  // not saved, everyone starts over with a full one
+            if (in.readBoolean()) {
+                p.fold();
+            }
+            p.setCurrentBet(in.readInt());
+            int holeCards = in.readUnsignedByte();
+            for (int c = 0; c < holeCards; c++) {
+                p.receiveCard(in.readUnsignedByte());
+            }
+            players.put(p.getId(), p);
+            seated.add(p);
+        }
+        activePlayersThisHand = new ArrayList<>();
+        count = in.readUnsignedByte();
+        for (int i = 0; i < count; i++) {
+            activePlayersThisHand.add(seated.get(in.readUnsignedByte()));
+        }
+        communityCards.clear();
+        communityMask = 0L;
+        count = in.readUnsignedByte();
+        for (int i = 0; i < count; i++) {
+            int card = in.readUnsignedByte();
+            communityCards.add(Card.of(card));
+            communityMask |= Cards.mask(card);
+            for (Player p : activePlayersThisHand) {
+                if (!p.isFolded()) {
+                    p.seeBoardCard(card);
+                }
+            }
+        }
+        boolean hasDeck = in.readBoolean();
+        long dealt = in.readLong();
+        deck = hasDeck ? Deck.stacked(dealt, toArray(nextBoardCards)) : null;
+    }
+
+    private static void addAll(List<Integer> list, int[] cards) {
+        for (int card : cards) {
+            list.add(card);
+        }
+    }
+
+    private static int[] toArray(List<Integer> list) {
+        int[] array = new int[list.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = list.get(i);
+        }
+        return array;
+    }
+
+    private List<String> activePlayerIds() {
+        List<String> ids = new ArrayList<>(activePlayersThisHand.size());
+        for (Player p : activePlayersThisHand) {
+            ids.add(p.getId());
+        }
+        return ids;
+    }
+
+    private long nextSeq() {
+        return ++seq;
+    }
+
+    private void emit(TableEvent event) {
+        history.addLast(event);
+        if (history.size() > HISTORY_SIZE) {
+            history.removeFirst();
+        }
+        listener.onEvent(this, event);
+    }
+
+    /**
+     * End of every table task: publish equity if it moved, then let the listener send private state.
+     */
+    private void afterTask() {
+        publishEquity();
+        updateTurnClock();
+        askBot();
+        listener.onStateChanged(this);
+    }
+
+    private void changeTurn() {
+        turnSeq = nextSeq();
+        emit(new TurnChanged(turnSeq, actionIndex));
+    }
+
+    // ------------------------------------------------------------------
+    // Turn clock
+    // ------------------------------------------------------------------
+
+    private void giveTimeBank(Player p) {
+        if (turnTimers != null) {
+            p.setTimeBankMillis(turnTimers.getTimeBankMillis());
+        }
+    }
+
+    /**
+     * Keep the clock on whoever has to act. A new turn (or the hand ending) cancels the timeout
+     * of the last one; a timeout that fires anyway finds the turn moved on and does nothing.
+     */
+    private void updateTurnClock() {
+        if (turnTimers == null) {
+            return;
+        }
+        Player toAct = getPlayerToAct();
+        long turn = toAct != null ? turnSeq : 0;
+        if (turn == clockedTurn) {
+            return;
+        }
+        stopTurnClock();
+        clockedTurn = turn;
+        clockedPlayer = toAct;
+        if (toAct != null) {
+            armTurnClock(turn, turnTimers.getTimeoutMillis());
+        }
+    }
+
+    private void armTurnClock(long turn, long millis) {
+        turnTimeout = turnTimers.schedule(() -> mailbox.execute(() -> {
+            onTurnTimeout(turn);
+            afterTask();
+        }), millis);
+    }
+
+    private void stopTurnClock() {
+        if (turnTimeout != null) {
+            turnTimeout.cancel();
+            turnTimeout = null;
+        }
+        if (timeBankStartedAt != 0) {
+            // acted (or ran out) on the time bank: what they used is gone
+            long used = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - timeBankStartedAt);
+            clockedPlayer.setTimeBankMillis(Math.max(clockedPlayer.getTimeBankMillis() - used, 0));
+            timeBankStartedAt = 0;
+        }
+        clockedTurn = 0;
+        clockedPlayer = null;
+    }
+
+    private void onTurnTimeout(long turn) {
+        if (turn != clockedTurn) {
+            return;
+        }
+        Player p = clockedPlayer;
+        if (timeBankStartedAt == 0 && p.getTimeBankMillis() > 0) {
+            timeBankStartedAt = System.nanoTime();
+            turnTimers.timeBankStarted();
+            emit(new TimeBankStarted(nextSeq(), p.getId(), p.getTimeBankMillis()));
+            armTurnClock(turn, p.getTimeBankMillis());
+            return;
+        }
+        // Out of time: the same action they could have sent, so it's logged and replayed like one
+        PlayerAction action = new PlayerAction();
+        action.setPlayerId(p.getId());
+        if (getCallAmount(p) > 0) {
+            action.setActionType("FOLD");
+        } else {
+            action.setActionType(p.getCurrentBet() >= highestBetThisRound ? "CHECK" : "CALL"); // CALL: all-in for less
+        }
+        turnTimers.autoActed(action.getActionType().equals("FOLD"));
+        handlePlayerAction(action);
+    }
+
+    // ------------------------------------------------------------------
+    // Bots
+    // ------------------------------------------------------------------
+
+    /**
+     * If a bot has to act, hand its view of the table to the bot pool. The move comes back as a
+     * mailbox task and goes through handlePlayerAction like anyone's, so it's logged and replayed
+     * the same way. A move for a turn that's gone (the clock acted first) is dropped.
+     */
+    private void askBot() {
+        if (bots == null) {
+            return;
+        }
+        Player p = getPlayerToAct();
+        if (p == null || !p.isBot() || botTurn == turnSeq) {
+            return;
+        }
+        long turn = turnSeq;
+        botTurn = turn;
+        int callAmount = getCallAmount(p);
+        // everything copied here, the decision runs on another thread
+        Spot spot = new Spot(actionIndex, p.getHoleMask(), communityMask, p.getHandStrength(), currentRound, pot,
+                callAmount, p.getChipStack(), p.getCurrentBet(), bigBlind, activePlayersThisHand.size(), botRandom.split());
+        String playerId = p.getId();
+        bots.decide(spot, decided -> mailbox.execute(() -> {
+            if (turn != turnSeq) {
+                return;
+            }
+            Move move = decided;
+            if ("RAISE".equals(move.actionType()) && callAmount >= spot.chipStack()) {
+                move = Move.CALL; // can't put in more than the call anyway
+            }
+            PlayerAction action = new PlayerAction();
+            action.setPlayerId(playerId);
+            action.setActionType(move.actionType());
+            action.setAmount(move.amount());
+            handlePlayerAction(action);
+            afterTask();
+        }));
+    }
+
+    /**
+     * Put out new equity numbers when the spot changes. The simulation runs on the equity runner
+     * and posts its result back here, the way a bot's decision does; by then the board may have
+     * moved on, and the numbers are dropped.
+     */
+    private void publishEquity() {
+        if (recovering) {
+            return; // the log has the numbers that went out
+        }
+        long key = allInEquityKey();
+        if (key == equityKey) {
+            return;
+        }
+        equityKey = key;
+        if (key == 0L) {
+            if (!publishedEquity.isEmpty()) {
+                emitEquity(Collections.emptyMap());
+            }
+            return;
+        }
+        // everything copied here, the simulation runs on another thread
+        List<Player> live = new ArrayList<>();
+        for (Player p : activePlayersThisHand) {
+            if (!p.isFolded()) live.add(p);
+        }
+        List<String> ids = new ArrayList<>(live.size());
+        long[] hands = new long[live.size()];
+        for (int i = 0; i < hands.length; i++) {
+            ids.add(live.get(i).getId());
+            hands[i] = live.get(i).getHoleMask();
+        }
+        long board = communityMask;
+        if (board == 0 && hands.length == 2) {
+            // heads-up before the flop: a table lookup instead of a simulation
+            double first = equityService.preflopHeadsUp(hands[0], hands[1]);
+            emitEquity(byPlayer(ids, new double[] {first, 100 - first}));
+            return;
+        }
+        CompletableFuture.supplyAsync(() -> equityService.calculate(hands, board).getEquity(), equityRunner)
+                .thenAccept(equity -> mailbox.execute(() -> {
+                    if (key != equityKey) {
+                        return;
+                    }
+                    emitEquity(byPlayer(ids, equity));
+                    afterTask();
+                }));
+    }
+
+    private void emitEquity(Map<String, Double> equity) {
+        publishedEquity = equity;
+        emit(new EquityUpdated(nextSeq(), equity));
+    }
+
+    private static Map<String, Double> byPlayer(List<String> ids, double[] equity) {
+        Map<String, Double> byPlayer = new HashMap<>();
+        for (int i = 0; i < equity.length; i++) {
+            byPlayer.put(ids.get(i), equity[i]);
+        }
+        return byPlayer;
+    }
+
+    // For showdown
+    private static class ShowdownResult {
+        private final Player player;
+        private final HandRank rank;
+
+        public ShowdownResult(Player p, HandRank r) {
+            player = p;
+            rank = r;
+        }
+
+        public Player getPlayer() { return player; }
+        public HandRank getRank() { return rank; }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,38 @@
+package com.adrianandsasha.texasholdem.table;
+
+import java.util.Map;
+
+/**
+ * One input a table took, as kept in the table log. Given the state before them, the joins and
+ * accepted actions decide everything else (blinds, turns, payouts, busted players); the cards
+ * are logged because the shuffle is random. See {@link Table#recover}.
+ */
+public interface TableCommand {
+
+    /** Somebody joined with the normal starting stack. */
+    record Join(String playerId, String nickname) implements TableCommand {
+    }
+
+    /** An action the table accepted (their turn, hand running), as the player sent it. */
+    record Act(String playerId, String actionType, int amount) implements TableCommand {
+    }
+
+    /** A new hand's hole cards in deal order: two for each player, starting with the dealer. */
+    record HoleCards(int[] cards) implements TableCommand {
+    }
+
+    /** Board cards dealt for a new round. */
+    record Board(int[] cards) implements TableCommand {
+    }
+
+    /**
+     * All-in equity as it went out. The numbers are worked out off the table thread, so where
+     * they landed among the other events is logged rather than replayed.
+     */
+    record Equity(Map<String, Double> equity) implements TableCommand {
+    }
+
+    /** The table was closed. Nothing before this comes back, and the id may be opened again from scratch. */
+    record Close() implements TableCommand {
+    }
+}
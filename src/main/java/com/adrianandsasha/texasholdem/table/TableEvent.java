@@ -0,0 +1,88 @@
+package com.adrianandsasha.texasholdem.table;
+
+import com.adrianandsasha.texasholdem.model.Card;
+import com.adrianandsasha.texasholdem.model.GameRound;
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One change to a table's public state. Every event carries the table's sequence number at the
+ * time, which goes up by exactly one per event, so a client that sees a jump knows it missed
+ * something and can resync (GET /api/table/{id}/state?since=seq).
+ *
+ * Applying the events in order to the snapshot with the same starting seq gives the same
+ * public state the table has.
+ */
+@JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = "type")
+@JsonSubTypes({
+        @JsonSubTypes.Type(value = TableEvent.PlayerJoined.class, name = "PlayerJoined"),
+        @JsonSubTypes.Type(value = TableEvent.PlayersRemoved.class, name = "PlayersRemoved"),
+        @JsonSubTypes.Type(value = TableEvent.HandStarted.class, name = "HandStarted"),
+        @JsonSubTypes.Type(value = TableEvent.BetPlaced.class, name = "BetPlaced"),
+        @JsonSubTypes.Type(value = TableEvent.PlayerFolded.class, name = "PlayerFolded"),
+        @JsonSubTypes.Type(value = TableEvent.PotUpdated.class, name = "PotUpdated"),
+        @JsonSubTypes.Type(value = TableEvent.CardsDealt.class, name = "CardsDealt"),
+        @JsonSubTypes.Type(value = TableEvent.TurnChanged.class, name = "TurnChanged"),
+        @JsonSubTypes.Type(value = TableEvent.TimeBankStarted.class, name = "TimeBankStarted"),
+        @JsonSubTypes.Type(value = TableEvent.HandEnded.class, name = "HandEnded"),
+        @JsonSubTypes.Type(value = TableEvent.EquityUpdated.class, name = "EquityUpdated")
+})
+public interface TableEvent {
+
+    long seq();
+
+    /** A new player sat down. */
+    record PlayerJoined(long seq, String playerId, String nickname, int chipStack) implements TableEvent {
+    }
+
+    /** Busted players left the table. */
+    record PlayersRemoved(long seq, List<String> playerIds) implements TableEvent {
+    }
+
+    /**
+     * New hand: board and pot cleared, everyone un-folded with no bet, round is PRE_FLOP.
+     */
+    record HandStarted(long seq, List<String> activePlayersThisHand) implements TableEvent {
+    }
+
+    /**
+     * Chips went in (blinds, call, raise) or a check. currentBet and chipStack are the player's new totals.
+     */
+    record BetPlaced(long seq, String playerId, String action, int amount, int currentBet, int chipStack)
+            implements TableEvent {
+    }
+
+    /** The player folded and dropped out of activePlayersThisHand. */
+    record PlayerFolded(long seq, String playerId) implements TableEvent {
+    }
+
+    record PotUpdated(long seq, int pot) implements TableEvent {
+    }
+
+    /**
+     * Board cards for a new round. A new betting round also resets everyone's currentBet to 0.
+     */
+    record CardsDealt(long seq, GameRound round, List<Card> cards) implements TableEvent {
+    }
+
+    record TurnChanged(long seq, int actionIndex) implements TableEvent {
+    }
+
+    /** The player to act ran out of turn time and is on their time bank, millis left of it. */
+    record TimeBankStarted(long seq, String playerId, long millis) implements TableEvent {
+    }
+
+    /**
+     * Hand is over (no hand in progress, pot emptied): what each winner got and everyone's stack afterwards.
+     */
+    record HandEnded(long seq, GameRound round, Map<String, Integer> payouts, Map<String, Integer> chipStacks)
+            implements TableEvent {
+    }
+
+    /** Live all-in equity changed (empty once it no longer applies). */
+    record EquityUpdated(long seq, Map<String, Double> allInEquity) implements TableEvent {
+    }
+}
@@ -0,0 +1,75 @@
+package com.adrianandsasha.texasholdem.table;
+
+import com.adrianandsasha.texasholdem.dto.PlayerAction;
+
+import java.util.List;
+
+/**
+ * Gets told about table changes. Always called on the table's own thread, so reading the
+ * table from inside the callbacks is safe.
+ */
+public interface TableListener {
+
+    TableListener NONE = new TableListener() {
+    };
+
+    /** One listener that calls each of the given ones, in order. */
+    static TableListener all(List<? extends TableListener> listeners) {
+        if (listeners.size() == 1) {
+            return listeners.get(0);
+        }
+        List<TableListener> copy = List.copyOf(listeners);
+        return new TableListener() {
+            @Override
+            public void onAction(Table table, PlayerAction action) {
+                for (TableListener l : copy) {
+                    l.onAction(table, action);
+                }
+            }
+
+            @Override
+            public void onEvent(Table table, TableEvent event) {
+                for (TableListener l : copy) {
+                    l.onEvent(table, event);
+                }
+            }
+
+            @Override
+            public void onStateChanged(Table table) {
+                for (TableListener l : copy) {
+                    l.onStateChanged(table);
+                }
+            }
+
+            @Override
+            public void onClosed(Table table) {
+                for (TableListener l : copy) {
+                    l.onClosed(table);
+                }
+            }
+        };
+    }
+
+    /**
+     * A player action the table accepted (their turn, hand running), right before it's applied.
+     * Together with the deck this is everything needed to play the hand again.
+     */
+    default void onAction(Table table, PlayerAction action) {
+    }
+
+    /** Called for every public state change, in seq order. */
+    default void onEvent(Table table, TableEvent event) {
+    }
+
+    /** Called once after each table task (join, action, ...) has finished all its changes. */
+    default void onStateChanged(Table table) {
+    }
+
+    /**
+     * The table was closed for good (see {@link Table#close}): forget whatever is kept for it.
+     * Nothing else is called for it after this, and a table opened later under the same id is
+     * a new one.
+     */
+    default void onClosed(Table table) {
+    }
+}
@@ -0,0 +1,260 @@
+package com.adrianandsasha.texasholdem.table;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * One thread keeping time for any number of timeouts (a hashed timing wheel, like Netty's
+ * HashedWheelTimer). Timeouts sit in a ring of buckets by when they're due, and every tick the
+ * thread moves on one bucket and fires what's due in it. Arming and cancelling are O(1) and a
+ * pending timeout is one small object in a list, so tens of thousands of them cost next to
+ * nothing. The price is precision: a timeout fires up to one tick late.
+ *
+ * Fired tasks run on the timer thread, so they should only hand work off (to a table's mailbox).
+ */
+public final class WheelTimer {
+    private static final Logger log = LoggerFactory.getLogger(WheelTimer.class);
+
+    // so a flood of new timeouts can't hold up the tick
+    private static final int MAX_ADDS_PER_TICK = 100_000;
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final long startTime = System.nanoTime();
+
+    // other threads only ever touch these two queues, the buckets are the timer thread's
+    private final Queue<Timeout> added = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+    private final Thread worker;
+    private volatile boolean running = true;
+    private long tick;
+
+    private final AtomicLong pending = new AtomicLong();
+    private final LongAdder armed = new LongAdder();
+    private final LongAdder cancels = new LongAdder();
+    // written by the timer thread only
+    private volatile long fired;
+    private volatile long totalLagNanos;
+    private volatile long maxLagNanos;
+
+    /**
+     * @param wheelSize buckets, rounded up to a power of two. Timeouts further out than
+     *                  wheelSize ticks go round more than once, which only costs a countdown.
+     */
+    public WheelTimer(String name, long tickMillis, int wheelSize) {
+        tickNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(tickMillis, 1));
+        int size = Integer.highestOneBit(Math.max(wheelSize, 2) - 1) << 1;
+        wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        mask = size - 1;
+        worker = new Thread(this::run, name);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /** Run the task (on the timer thread) once the delay is up, unless it's cancelled first. */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        Timeout timeout = new Timeout(this, task, System.nanoTime() - startTime + unit.toNanos(delay));
+        pending.incrementAndGet();
+        armed.increment();
+        added.add(timeout);
+        return timeout;
+    }
+
+    public void stop() {
+        running = false;
+        worker.interrupt();
+    }
+
+    /** Armed and neither fired nor cancelled yet. */
+    public long getPending() {
+        return pending.get();
+    }
+
+    public long getArmed() {
+        return armed.sum();
+    }
+
+    public long getCancelled() {
+        return cancels.sum();
+    }
+
+    public long getFired() {
+        return fired;
+    }
+
+    /** How late timeouts fired on average, past their deadline. Up to a tick is normal. */
+    public long getAverageLagNanos() {
+        long n = fired;
+        return n == 0 ? 0 : totalLagNanos / n;
+    }
+
+    public long getMaxLagNanos() {
+        return maxLagNanos;
+    }
+
+    public long getTickNanos() {
+        return tickNanos;
+    }
+
+    private void run() {
+        while (running) {
+            long deadline = tickNanos * (tick + 1);
+            long sleep;
+            while ((sleep = deadline - (System.nanoTime() - startTime)) > 0) {
+                LockSupport.parkNanos(sleep);
+                if (!running) {
+                    return;
+                }
+            }
+            removeCancelled();
+            addNew();
+            expire(wheel[(int) (tick & mask)]);
+            tick++;
+        }
+    }
+
+    private void removeCancelled() {
+        Timeout t;
+        while ((t = cancelled.poll()) != null) {
+            // null if it was cancelled before it made it into a bucket
+            if (t.bucket != null) {
+                t.bucket.remove(t);
+            }
+        }
+    }
+
+    private void addNew() {
+        for (int i = 0; i < MAX_ADDS_PER_TICK; i++) {
+            Timeout t = added.poll();
+            if (t == null) {
+                return;
+            }
+            if (t.state.get() != Timeout.WAITING) {
+                continue;
+            }
+            long due = t.deadline / tickNanos;
+            t.rounds = (due - tick) / wheel.length;
+            // already overdue goes in the bucket that's about to be expired
+            wheel[(int) (Math.max(due, tick) & mask)].add(t);
+        }
+    }
+
+    private void expire(Bucket bucket) {
+        long now = System.nanoTime() - startTime;
+        Timeout t = bucket.head;
+        while (t != null) {
+            Timeout next = t.next;
+            if (t.rounds <= 0) {
+                bucket.remove(t);
+                fire(t, now);
+            } else if (t.state.get() != Timeout.WAITING) {
+                bucket.remove(t);
+            } else {
+                t.rounds--;
+            }
+            t = next;
+        }
+    }
+
+    private void fire(Timeout t, long now) {
+        if (!t.state.compareAndSet(Timeout.WAITING, Timeout.FIRED)) {
+            return;
+        }
+        pending.decrementAndGet();
+        long lag = Math.max(now - t.deadline, 0);
+        fired++;
+        totalLagNanos += lag;
+        if (lag > maxLagNanos) {
+            maxLagNanos = lag;
+        }
+        try {
+            t.task.run();
+        } catch (RuntimeException e) {
+            log.error("Timer task failed", e);
+        }
+    }
+
+    /** Handle on an armed timeout. */
+    public static final class Timeout {
+        private static final int WAITING = 0;
+        private static final int CANCELLED = 1;
+        private static final int FIRED = 2;
+
+        private final WheelTimer timer;
+        private final Runnable task;
+        private final long deadline;   // nanos since the timer started
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+
+        // timer thread only
+        private long rounds;
+        private Bucket bucket;
+        private Timeout prev;
+        private Timeout next;
+
+        private Timeout(WheelTimer timer, Runnable task, long deadline) {
+            this.timer = timer;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /** False if it already fired (or was cancelled). Safe from any thread. */
+        public boolean cancel() {
+            if (!state.compareAndSet(WAITING, CANCELLED)) {
+                return false;
+            }
+            timer.pending.decrementAndGet();
+            timer.cancels.increment();
+            timer.cancelled.add(this);
+            return true;
+        }
+    }
+
+    // Doubly linked so a cancelled timeout comes out without a search
+    private static final class Bucket {
+        private Timeout head;
+        private Timeout tail;
+
+        void add(Timeout t) {
+            t.bucket = this;
+            t.prev = tail;
+            t.next = null;
+            if (tail == null) {
+                head = t;
+            } else {
+                tail.next = t;
+            }
+            tail = t;
+        }
+
+        void remove(Timeout t) {
+            if (t.bucket != this) {
+                return;
+            }
+            if (t.prev == null) {
+                head = t.next;
+            } else {
+                t.prev.next = t.next;
+            }
+            if (t.next == null) {
+                tail = t.prev;
+            } else {
+                t.next.prev = t.prev;
+            }
+            t.prev = null;
+            t.next = null;
+            t.bucket = null;
+        }
+    }
+}
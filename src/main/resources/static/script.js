@@ -1,11 +1,34 @@
 let playerId = null;
+// Secret from join: proves we're playerId (which everyone can see in the table state)
+let playerToken = null;
 let stompClient = null;
+// Which table to sit at: index.html?table=abc, otherwise the default one
+const tableId = new URLSearchParams(window.location.search).get("table") || "main";
+// index.html?wire=binary gets table events in the compact binary form instead of JSON
+const wireFormat = new URLSearchParams(window.location.search).get("wire") || "json";
 
 // We'll store up to 6 seats in exact turn order from the server
 let seatAssignments = new Array(6).fill(null);
 
+// Last public table state, and the part only we get to see (hole cards, allowed actions)
+let lastGameState = null;
+let privateState = null;
+
+// The server sends small numbered events instead of the whole state. lastSeq is the seq our
+// lastGameState is at (null until the first snapshot), events that show up while we're
+// fetching a snapshot wait in pendingEvents.
+let lastSeq = null;
+let resyncing = false;
+let pendingEvents = [];
+
 document.addEventListener("DOMContentLoaded", () => {
     document.getElementById("joinBtn").addEventListener("click", joinGame);
+    // tick the turn clock down
+    setInterval(() => {
+        if (lastGameState && lastGameState.turnClock) {
+            updateGameUI(lastGameState);
+        }
+    }, 1000);
 });
 
 //Helper to map rank/suit strings to filenames, e.g. "ACE" + "SPADES" => "AS.png"
@@ -44,10 +67,11 @@ function joinGame() {
         return;
     }
 
-    fetch(`/api/join?nickname=${encodeURIComponent(nickname)}`, { method: "POST" })
-        .then(response => response.text())
-        .then(id => {
-            playerId = id;
+    fetch(`/api/table/${encodeURIComponent(tableId)}/join?nickname=${encodeURIComponent(nickname)}`, { method: "POST" })
+        .then(response => response.json())
+        .then(joined => {
+            playerId = joined.playerId;
+            playerToken = joined.token;
             document.getElementById("join-section").style.display = "none";
             document.getElementById("game-section").style.display = "block";
             connectWebSocket();
@@ -58,14 +82,28 @@ function joinGame() {
 function connectWebSocket() {
     const socket = new SockJS('/ws');
     stompClient = Stomp.over(socket);
-    stompClient.connect({}, function(frame) {
+    // The token in CONNECT tells the server which player this session is: our private queue and our actions
+    stompClient.connect({ token: playerToken, wire: wireFormat }, function(frame) {
         console.log("Connected:", frame);
 
-        // Subscribe to game state broadcasts
-        stompClient.subscribe("/topic/game-state", function(message) {
+        // Subscribe to this table's events
+        stompClient.subscribe(`/topic/table/${tableId}`, function(message) {
+            if (message.body) {
+                // The server batches events, one frame is an array of them (in seq order)
+                const binary = (message.headers["content-type"] || "").startsWith("application/vnd.texasholdem.events");
+                const body = binary ? decodeBinaryEvents(message.body) : JSON.parse(message.body);
+                const events = Array.isArray(body) ? body : [body];
+                events.forEach(ev => handleTableEvent(ev, false));
+                if (lastGameState && !resyncing) {
+                    updateGameUI(lastGameState);
+                }
+            }
+        });
+
+        // Our own hole cards + what we're allowed to do, nobody else gets these
+        stompClient.subscribe("/user/queue/private", function(message) {
             if (message.body) {
-                const gameState = JSON.parse(message.body);
-                updateGameUI(gameState);
+                updatePrivateUI(JSON.parse(message.body));
             }
         });
 
@@ -75,15 +113,325 @@ function connectWebSocket() {
 }
 
 function fetchState() {
-    fetch("/api/state")
+    resyncing = true;
+    fetch(`/api/table/${encodeURIComponent(tableId)}/state`)
+        .then(res => res.json())
+        .then(state => applyResync(state))
+        .catch(err => {
+            resyncing = false;
+            console.log("State fetch error", err);
+        });
+    fetch(`/api/table/${encodeURIComponent(tableId)}/private`, { headers: { "X-Player-Token": playerToken } })
         .then(res => res.json())
         .then(state => {
-            updateGameUI(state);
+            updatePrivateUI(state);
         })
-        .catch(err => console.log("State fetch error", err));
+        .catch(err => console.log("Private state fetch error", err));
+}
+
+// ---------------------------------------------------------------
+// Binary frames (BinaryEvents on the server), base64 because SockJS only does text.
+// Decodes to the same objects JSON.parse gives for a JSON frame.
+// ---------------------------------------------------------------
+const WIRE_RANKS = ["TWO", "THREE", "FOUR", "FIVE", "SIX", "SEVEN", "EIGHT", "NINE", "TEN", "JACK", "QUEEN", "KING", "ACE"];
+const WIRE_SUITS = ["HEARTS", "DIAMONDS", "CLUBS", "SPADES"];
+const WIRE_ROUNDS = ["PRE_FLOP", "FLOP", "TURN", "RIVER", "SHOWDOWN"];
+const WIRE_ACTIONS = ["SMALL_BLIND", "BIG_BLIND", "FOLD", "CHECK", "CALL", "RAISE", "UNKNOWN"];
+
+function decodeBinaryEvents(base64) {
+    const raw = atob(base64);
+    const bytes = new Uint8Array(raw.length);
+    for (let i = 0; i < raw.length; i++) {
+        bytes[i] = raw.charCodeAt(i);
+    }
+    let pos = 0;
+    const ids = [];
+
+    const byte = () => bytes[pos++];
+    // no bit ops, seqs can go past 32 bits
+    const uint = () => {
+        let value = 0, scale = 1, b;
+        do {
+            b = bytes[pos++];
+            value += (b & 0x7f) * scale;
+            scale *= 128;
+        } while (b & 0x80);
+        return value;
+    };
+    const int = () => {
+        const z = uint();
+        return z % 2 === 0 ? z / 2 : -(z + 1) / 2;
+    };
+    const str = () => {
+        const len = uint();
+        const s = new TextDecoder().decode(bytes.subarray(pos, pos + len));
+        pos += len;
+        return s;
+    };
+    const hex = n => {
+        let s = "";
+        for (let i = 0; i < n; i++) {
+            s += bytes[pos++].toString(16).padStart(2, "0");
+        }
+        return s;
+    };
+    const id = () => {
+        const ref = uint();
+        if (ref > 0) {
+            return ids[ref - 1];
+        }
+        const kind = byte();
+        let value;
+        if (kind === 2) {
+            value = str();
+        } else {
+            value = (kind === 1 ? "bot-" : "") + [hex(4), hex(2), hex(2), hex(2), hex(6)].join("-");
+        }
+        ids.push(value);
+        return value;
+    };
+    const idList = () => {
+        const list = [];
+        for (let n = uint(); n > 0; n--) {
+            list.push(id());
+        }
+        return list;
+    };
+    const idMap = read => {
+        const map = {};
+        for (let n = uint(); n > 0; n--) {
+            const key = id();
+            map[key] = read();
+        }
+        return map;
+    };
+
+    const version = byte();
+    if (version !== 1) {
+        throw new Error(`Unknown binary frame version ${version}`);
+    }
+    const events = [];
+    let seq = 0;
+    for (let count = uint(); count > 0; count--) {
+        const type = byte();
+        seq += uint();
+        let ev;
+        switch (type) {
+            case 0:
+                ev = { type: "PlayerJoined", seq, playerId: id(), nickname: str(), chipStack: int() };
+                break;
+            case 1:
+                ev = { type: "PlayersRemoved", seq, playerIds: idList() };
+                break;
+            case 2:
+                ev = { type: "HandStarted", seq, activePlayersThisHand: idList() };
+                break;
+            case 3: {
+                const playerId = id();
+                const code = byte();
+                const action = code === 255 ? str() : WIRE_ACTIONS[code];
+                ev = { type: "BetPlaced", seq, playerId, action, amount: int(), currentBet: int(), chipStack: int() };
+                break;
+            }
+            case 4:
+                ev = { type: "PlayerFolded", seq, playerId: id() };
+                break;
+            case 5:
+                ev = { type: "PotUpdated", seq, pot: int() };
+                break;
+            case 6: {
+                const round = WIRE_ROUNDS[byte()];
+                const cards = [];
+                for (let n = byte(); n > 0; n--) {
+                    const card = byte();
+                    cards.push({ suit: WIRE_SUITS[Math.floor(card / 13)], rank: WIRE_RANKS[card % 13] });
+                }
+                ev = { type: "CardsDealt", seq, round, cards };
+                break;
+            }
+            case 7:
+                ev = { type: "TurnChanged", seq, actionIndex: int() };
+                break;
+            case 8:
+                ev = { type: "TimeBankStarted", seq, playerId: id(), millis: int() };
+                break;
+            case 9:
+                ev = { type: "HandEnded", seq, round: WIRE_ROUNDS[byte()], payouts: idMap(int), chipStacks: idMap(int) };
+                break;
+            case 10:
+                ev = { type: "EquityUpdated", seq, allInEquity: idMap(() => int() / 100) };
+                break;
+            default:
+                throw new Error(`Unknown binary event type ${type}`);
+        }
+        events.push(ev);
+    }
+    return events;
+}
+
+// ---------------------------------------------------------------
+// Event stream
+// ---------------------------------------------------------------
+function handleTableEvent(ev, render = true) {
+    if (lastSeq === null || resyncing) {
+        pendingEvents.push(ev);
+        return;
+    }
+    if (ev.seq <= lastSeq) {
+        return; // already applied
+    }
+    if (ev.seq !== lastSeq + 1) {
+        // We missed something => ask for everything after lastSeq
+        pendingEvents.push(ev);
+        resync();
+        return;
+    }
+    applyEvent(lastGameState, ev);
+    lastSeq = ev.seq;
+    if (render) {
+        updateGameUI(lastGameState);
+    }
+}
+
+function resync() {
+    resyncing = true;
+    fetch(`/api/table/${encodeURIComponent(tableId)}/state?since=${lastSeq}`)
+        .then(res => res.json())
+        .then(resp => applyResync(resp))
+        .catch(err => {
+            resyncing = false;
+            console.log("Resync error", err);
+        });
+}
+
+// Either {seq, events} (what we missed) or a full snapshot
+function applyResync(resp) {
+    if (resp.events) {
+        for (const ev of resp.events) {
+            if (ev.seq === lastSeq + 1) {
+                applyEvent(lastGameState, ev);
+                lastSeq = ev.seq;
+            }
+        }
+    } else {
+        lastGameState = resp;
+        lastSeq = resp.seq;
+    }
+    resyncing = false;
+
+    const queued = pendingEvents.sort((a, b) => a.seq - b.seq);
+    pendingEvents = [];
+    updateGameUI(lastGameState);
+    for (const ev of queued) {
+        handleTableEvent(ev);
+    }
+}
+
+function findPlayer(state, id) {
+    return (state.players || []).find(pl => pl.id === id);
+}
+
+function applyEvent(state, ev) {
+    switch (ev.type) {
+        case "PlayerJoined":
+            state.players.push({ id: ev.playerId, nickname: ev.nickname, chipStack: ev.chipStack, folded: false, currentBet: 0,
+                bot: ev.playerId.startsWith("bot-") });
+            break;
+        case "PlayersRemoved":
+            state.players = state.players.filter(pl => !ev.playerIds.includes(pl.id));
+            break;
+        case "HandStarted":
+            state.gameInProgress = true;
+            state.currentRound = "PRE_FLOP";
+            state.communityCards = [];
+            state.pot = 0;
+            state.activePlayersThisHand = ev.activePlayersThisHand;
+            for (const pl of state.players) {
+                pl.folded = false;
+                pl.currentBet = 0;
+            }
+            break;
+        case "BetPlaced": {
+            const pl = findPlayer(state, ev.playerId);
+            if (pl) {
+                pl.currentBet = ev.currentBet;
+                pl.chipStack = ev.chipStack;
+            }
+            break;
+        }
+        case "PlayerFolded": {
+            const pl = findPlayer(state, ev.playerId);
+            if (pl) {
+                pl.folded = true;
+            }
+            state.activePlayersThisHand = state.activePlayersThisHand.filter(id => id !== ev.playerId);
+            break;
+        }
+        case "PotUpdated":
+            state.pot = ev.pot;
+            break;
+        case "CardsDealt":
+            state.communityCards = state.communityCards.concat(ev.cards);
+            state.currentRound = ev.round;
+            for (const pl of state.players) {
+                pl.currentBet = 0;
+            }
+            break;
+        case "TurnChanged":
+            state.actionIndex = ev.actionIndex;
+            // our own clock from when we heard about it, close enough for a countdown
+            state.turnClock = state.turnTimeoutMillis > 0
+                ? { deadline: Date.now() + state.turnTimeoutMillis, timeBank: false } : null;
+            break;
+        case "TimeBankStarted":
+            state.turnClock = { deadline: Date.now() + ev.millis, timeBank: true };
+            break;
+        case "HandEnded":
+            state.gameInProgress = false;
+            state.turnClock = null;
+            state.currentRound = ev.round;
+            state.pot = 0;
+            for (const pl of state.players) {
+                if (ev.chipStacks[pl.id] != null) {
+                    pl.chipStack = ev.chipStacks[pl.id];
+                }
+            }
+            break;
+        case "EquityUpdated":
+            state.allInEquity = ev.allInEquity;
+            break;
+    }
+    state.seq = ev.seq;
+}
+
+function updatePrivateUI(state) {
+    privateState = state;
+    if (lastGameState) {
+        updateGameUI(lastGameState);
+    }
+
+    const allowed = (privateState && privateState.allowedActions) || [];
+    for (const action of ["FOLD", "CALL", "RAISE", "CHECK"]) {
+        const btn = document.getElementById(`btn-${action}`);
+        if (btn) {
+            btn.disabled = !allowed.includes(action);
+        }
+    }
+    const callBtn = document.getElementById("btn-CALL");
+    if (callBtn) {
+        const amount = (privateState && privateState.callAmount) || 0;
+        callBtn.textContent = amount > 0 ? `Call ${amount}` : "Call";
+    }
+}
+
+// "TWO_PAIR" -> "Two pair"
+function formatCategory(category) {
+    const words = category.toLowerCase().split("_").join(" ");
+    return words.charAt(0).toUpperCase() + words.slice(1);
 }
 
 function updateGameUI(gameState) {
+    lastGameState = gameState;
     seatAssignments.fill(null);
     const activeIds = gameState.activePlayersThisHand || [];
     for (let i = 0; i < activeIds.length && i < 6; i++) {
@@ -111,11 +459,20 @@ function updateGameUI(gameState) {
         if (thisPlayer.folded) {
             infoText += " (FOLDED)";
         }
+        // Live all-in equity, only sent once nobody can bet anymore
+        const equity = (gameState.allInEquity || {})[thisPlayer.id];
+        if (equity != null) {
+            infoText += ` | ${equity.toFixed(1)}% to win`;
+        }
+        // What I've made so far (private, only for my own seat)
+        if (thisPlayer.id === playerId && privateState && privateState.handCategory) {
+            infoText += ` | ${formatCategory(privateState.handCategory)}`;
+        }
         infoDiv.textContent = infoText;
 
-        // Show hole cards if it's me
-        if (thisPlayer.id === playerId) {
-            for (let c of thisPlayer.holeCards) {
+        // Show hole cards if it's me (they only ever come on our private queue)
+        if (thisPlayer.id === playerId && privateState && privateState.holeCards) {
+            for (let c of privateState.holeCards) {
                 const cardDiv = document.createElement("div");
                 cardDiv.className = "card";
 
@@ -131,6 +488,20 @@ function updateGameUI(gameState) {
 
     const potDiv = document.getElementById("potInfo");
     potDiv.innerHTML = `<h3>Pot: ${gameState.pot || 0}</h3>`;
+    const texture = privateState && privateState.boardTexture;
+    if (texture && gameState.communityCards && gameState.communityCards.length >= 3) {
+        const hints = [];
+        if (texture.paired) hints.push("Paired board");
+        if (texture.monotone) hints.push("Monotone");
+        else if (texture.flushPossible) hints.push("Flush possible");
+        if (texture.straightPossible) hints.push("Straight possible");
+        if (hints.length > 0) {
+            const hintDiv = document.createElement("div");
+            hintDiv.className = "board-hints";
+            hintDiv.textContent = hints.join(" · ");
+            potDiv.appendChild(hintDiv);
+        }
+    }
 
     const ccDiv = document.getElementById("communityCards");
     ccDiv.innerHTML = "";
@@ -155,6 +526,12 @@ function updateGameUI(gameState) {
             if (seatDiv) {
                 seatDiv.style.border = "2px solid gold";
             }
+            const clock = gameState.turnClock;
+            const infoDiv = document.getElementById(`player-info-${actingSeat}`);
+            if (clock && infoDiv && infoDiv.textContent) {
+                const seconds = Math.max(0, Math.ceil((clock.deadline - Date.now()) / 1000));
+                infoDiv.textContent += clock.timeBank ? ` | time bank ${seconds}s` : ` | ${seconds}s`;
+            }
         }
     }
 }
@@ -178,8 +555,8 @@ function check() {
 
 function sendAction(actionType, amount) {
     if (!stompClient) return;
-    stompClient.send("/app/action", {}, JSON.stringify({
-        playerId: playerId,
+    // no player id, the server knows who we are from the session
+    stompClient.send(`/app/table/${tableId}/action`, {}, JSON.stringify({
         actionType: actionType,
         amount: amount
     }));
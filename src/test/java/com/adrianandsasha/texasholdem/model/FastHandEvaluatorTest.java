@@ -0,0 +1,115 @@
+package com.adrianandsasha.texasholdem.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * FastHandEvaluator has to give exactly the strength TexasHoldemHandEvaluator does (same
+ * category, same tiebreakers), since showdowns, equity and the caches all compare those ints.
+ *
+ * Every 5-card hand is checked, plus a seeded sample of 6 and 7-card ones. The full 133,784,560
+ * seven-card run takes a while, so it only happens with -Dpoker.exhaustive=true.
+ */
+class FastHandEvaluatorTest {
+
+    private static final int SAMPLES = 200_000;
+
+    @Test
+    void allFiveCardHands() {
+        int[] cards = new int[5];
+        int checked = forEachHand(cards, 0, 0, 0L);
+        assertEquals(2_598_960, checked);
+    }
+
+    @Test
+    void sampledSixAndSevenCardHands() {
+        SplittableRandom random = new SplittableRandom(20240517L);
+        for (int size = 6; size <= 7; size++) {
+            for (int i = 0; i < SAMPLES; i++) {
+                assertSame(randomHand(random, size));
+            }
+        }
+    }
+
+    @Test
+    void allSevenCardHands() {
+        assumeTrue(Boolean.getBoolean("poker.exhaustive"));
+        int[] cards = new int[7];
+        assertEquals(133_784_560, forEachHand(cards, 0, 0, 0L));
+    }
+
+    @Test
+    void edgeCases() {
+        // wheel: the ace plays low, 5-high straight
+        int wheel = check("As2d3c4h5s9dKc");
+        assertEquals(HandCategory.STRAIGHT, FastHandEvaluator.category(wheel));
+        assertTrue(wheel < check("2s3d4c5h6s9dKc"), "a wheel loses to a 6-high straight");
+
+        // steel wheel: suited A-2-3-4-5 is a straight flush, not a royal and not an ace-high flush
+        int steel = check("Ah2h3h4h5h9dKc");
+        assertEquals(HandCategory.STRAIGHT_FLUSH, FastHandEvaluator.category(steel));
+        assertTrue(steel < check("2h3h4h5h6h9dKc"));
+        assertEquals(HandCategory.ROYAL_FLUSH, FastHandEvaluator.category(check("AhKhQhJh10h2d3c")));
+
+        // board flush: a higher card of the suit in the hole plays, one of another suit doesn't
+        int boardFlush = check("2h5h8hJhKh" + "3c4d");
+        int holeFlush = check("2h5h8hJhKh" + "Ah4d");
+        assertEquals(HandCategory.FLUSH, FastHandEvaluator.category(boardFlush));
+        assertTrue(holeFlush > boardFlush);
+        assertEquals(boardFlush, check("2h5h8hJhKh" + "Ac4d"));
+        // 6 or 7 of the suit: the top five count
+        assertEquals(check("5h8hJhKhAh2c3d"), check("2h5h8hJhKhAh3h"));
+
+        // two trips: a full house, the higher trip as the three and the lower one as the pair
+        int twoTrips = check("9s9d9h4c4d4hKs");
+        assertEquals(HandCategory.FULL_HOUSE, FastHandEvaluator.category(twoTrips));
+        assertEquals(check("9s9d9h4c4dKsQs"), twoTrips);
+        assertTrue(check("4s4d4h9c9d2hKs") < twoTrips);
+
+        // three pairs: only the top two count, the kicker can come from the third pair
+        assertEquals(check("AsAdKsKd7c2h3h"), check("AsAdKsKd2c2h7h"));
+        assertTrue(check("AsAdKsKdQcQh3h") > check("AsAdKsKd2c2hJh"));
+
+        // quads with a pair on board: the kicker is the best other card
+        assertEquals(check("7s7d7h7cAs2h3d"), check("7s7d7h7cAs2h2d"));
+    }
+
+    private static int forEachHand(int[] cards, int depth, int from, long mask) {
+        if (depth == cards.length) {
+            assertSame(mask);
+            return 1;
+        }
+        int count = 0;
+        for (int c = from; c <= Cards.DECK_SIZE - (cards.length - depth); c++) {
+            cards[depth] = c;
+            count += forEachHand(cards, depth + 1, c + 1, mask | Cards.mask(c));
+        }
+        return count;
+    }
+
+    private static long randomHand(SplittableRandom random, int size) {
+        long mask = 0L;
+        while (Cards.count(mask) < size) {
+            mask |= Cards.mask(random.nextInt(Cards.DECK_SIZE));
+        }
+        return mask;
+    }
+
+    private static int check(String cards) {
+        return assertSame(Cards.parseMask(cards));
+    }
+
+    private static int assertSame(long mask) {
+        int fast = FastHandEvaluator.evaluate(mask);
+        int reference = TexasHoldemHandEvaluator.getBestHandRank(mask).getStrength();
+        if (fast != reference) {
+            assertEquals(reference, fast, "Strength of " + Cards.toList(mask));
+        }
+        return fast;
+    }
+}
@@ -0,0 +1,175 @@
+package com.adrianandsasha.texasholdem.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Brute-force checks of SuitIsomorphism against actually renaming the suits.
+ */
+class SuitIsomorphismTest {
+
+    private static final int SAMPLES = 200_000;
+    private static final int[][] RENAMINGS = renamings();
+
+    @Test
+    void everyRenamingGivesTheSameKey() {
+        SplittableRandom random = new SplittableRandom(7L);
+        for (int i = 0; i < SAMPLES; i++) {
+            long hole = randomCards(random, 2, 0L);
+            long board = randomCards(random, random.nextInt(6), hole);
+            long key = SuitIsomorphism.canonical(hole, board);
+
+            for (int[] renaming : RENAMINGS) {
+                long h = rename(hole, renaming), b = rename(board, renaming);
+                assertEquals(key, SuitIsomorphism.canonical(h, b), "Renamed " + Cards.toList(hole | board));
+            }
+            assertEquals(SuitIsomorphism.classSize(hole, board), distinct(hole, board));
+
+            // the key decodes to a hand of the same class
+            long canonicalHole = SuitIsomorphism.hole(key), canonicalBoard = SuitIsomorphism.board(key);
+            assertEquals(2, Long.bitCount(canonicalHole));
+            assertEquals(Long.bitCount(board), Long.bitCount(canonicalBoard));
+            assertEquals(0L, canonicalHole & canonicalBoard);
+            assertEquals(key, SuitIsomorphism.canonical(canonicalHole, canonicalBoard));
+            assertTrue(isRenamingOf(canonicalHole, canonicalBoard, hole, board));
+
+            assertEquals(SuitIsomorphism.canonicalBoard(board), SuitIsomorphism.canonicalBoard(rename(board, RENAMINGS[i % 24])));
+            assertEquals(SuitIsomorphism.boardClassSize(board), distinct(0L, board));
+        }
+    }
+
+    @Test
+    void preflopClasses() {
+        Set<Long> keys = new HashSet<>();
+        int hands = 0;
+        for (int a = 0; a < Cards.DECK_SIZE; a++) {
+            for (int b = a + 1; b < Cards.DECK_SIZE; b++) {
+                keys.add(SuitIsomorphism.canonical(Cards.mask(a) | Cards.mask(b), 0L));
+                hands++;
+            }
+        }
+        assertEquals(1326, hands);
+        assertEquals(169, keys.size());
+        assertEquals(1326, keys.stream().mapToInt(k -> SuitIsomorphism.classSize(SuitIsomorphism.hole(k), 0L)).sum());
+    }
+
+    @Test
+    void flopClasses() {
+        Set<Long> boards = new HashSet<>();
+        for (int a = 0; a < Cards.DECK_SIZE; a++) {
+            for (int b = a + 1; b < Cards.DECK_SIZE; b++) {
+                for (int c = b + 1; c < Cards.DECK_SIZE; c++) {
+                    boards.add(SuitIsomorphism.canonicalBoard(Cards.mask(a) | Cards.mask(b) | Cards.mask(c)));
+                }
+            }
+        }
+        assertEquals(1755, boards.size());
+        assertEquals(22_100, boards.stream().mapToInt(SuitIsomorphism::boardClassSize).sum());
+    }
+
+    @Test
+    void holeAndFlopClasses() {
+        // Every hand maps to the one of its class that is its own key, so those count the classes
+        int classes = 0;
+        long hands = 0;
+        for (int h1 = 0; h1 < Cards.DECK_SIZE; h1++) {
+            for (int h2 = h1 + 1; h2 < Cards.DECK_SIZE; h2++) {
+                long hole = Cards.mask(h1) | Cards.mask(h2);
+                for (int a = 0; a < Cards.DECK_SIZE; a++) {
+                    for (int b = a + 1; b < Cards.DECK_SIZE; b++) {
+                        for (int c = b + 1; c < Cards.DECK_SIZE; c++) {
+                            long board = Cards.mask(a) | Cards.mask(b) | Cards.mask(c);
+                            if ((board & hole) != 0) {
+                                continue;
+                            }
+                            long key = SuitIsomorphism.canonical(hole, board);
+                            if (SuitIsomorphism.hole(key) == hole && SuitIsomorphism.board(key) == board) {
+                                classes++;
+                                hands += SuitIsomorphism.classSize(hole, board);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        assertEquals(1_286_792, classes);
+        assertEquals(1326L * 19600, hands);
+    }
+
+    @Test
+    void needsTwoHoleCards() {
+        assertThrows(IllegalArgumentException.class, () -> SuitIsomorphism.canonical(Cards.parseMask("Ah"), 0L));
+        assertThrows(IllegalArgumentException.class, () -> SuitIsomorphism.canonical(Cards.parseMask("AhKhQh"), 0L));
+    }
+
+    // How many different hands the 24 renamings make out of this one
+    private static int distinct(long hole, long board) {
+        long[] holes = new long[RENAMINGS.length];
+        long[] boards = new long[RENAMINGS.length];
+        int count = 0;
+        for (int[] renaming : RENAMINGS) {
+            long h = rename(hole, renaming), b = rename(board, renaming);
+            boolean seen = false;
+            for (int i = 0; i < count && !seen; i++) {
+                seen = holes[i] == h && boards[i] == b;
+            }
+            if (!seen) {
+                holes[count] = h;
+                boards[count++] = b;
+            }
+        }
+        return count;
+    }
+
+    private static boolean isRenamingOf(long hole, long board, long otherHole, long otherBoard) {
+        for (int[] renaming : RENAMINGS) {
+            if (rename(otherHole, renaming) == hole && rename(otherBoard, renaming) == board) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Suit s of the mask becomes suit renaming[s]
+    private static long rename(long mask, int[] renaming) {
+        long renamed = 0L;
+        for (int suit = 0; suit < Cards.SUITS; suit++) {
+            renamed |= (long) Cards.suitRanks(mask, suit) << (renaming[suit] * Cards.RANKS);
+        }
+        return renamed;
+    }
+
+    private static long randomCards(SplittableRandom random, int count, long dead) {
+        long mask = 0L;
+        while (Long.bitCount(mask) < count) {
+            long card = Cards.mask(random.nextInt(Cards.DECK_SIZE));
+            if ((card & dead) == 0) {
+                mask |= card;
+            }
+        }
+        return mask;
+    }
+
+    private static int[][] renamings() {
+        int[][] all = new int[SuitIsomorphism.PERMUTATIONS][];
+        int n = 0;
+        for (int a = 0; a < 4; a++) {
+            for (int b = 0; b < 4; b++) {
+                for (int c = 0; c < 4; c++) {
+                    int d = 6 - a - b - c;
+                    if (a != b && a != c && b != c && d >= 0 && d < 4 && d != a && d != b && d != c) {
+                        all[n++] = new int[] {a, b, c, d};
+                    }
+                }
+            }
+        }
+        return all;
+    }
+}
@@ -0,0 +1,148 @@
+package com.adrianandsasha.texasholdem.service;
+
+import com.adrianandsasha.texasholdem.dto.RangeEquityResult;
+import com.adrianandsasha.texasholdem.model.Cards;
+import com.adrianandsasha.texasholdem.model.Combos;
+import com.adrianandsasha.texasholdem.model.FastHandEvaluator;
+import com.adrianandsasha.texasholdem.model.HandRange;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * RangeEquityService against EquityService and against playing every hero combo against every
+ * villain combo on every runout, which is what the blocker sweep is meant to add up to.
+ */
+class RangeEquityServiceTest {
+
+    private static final double EXACT = 1e-9;
+
+    private final RangeEquityService ranges = new RangeEquityService();
+    private final EquityService equity = new EquityService();
+
+    @Test
+    void oneComboRangesMatchEquityService() {
+        String[][] spots = {
+                {"AhKh", "QdQc", "Jh7h2c"},
+                {"8s7s", "AcKd", "6s5d2h"},
+                {"AhAd", "KsKc", "Kh9d4c2h"},
+                {"Tc9c", "AdAs", "Jc8c2d3h"},
+                {"5d5c", "AhKs", "5h5sKdQc2c"},
+        };
+        for (String[] spot : spots) {
+            long hero = Cards.parseMask(spot[0]);
+            long villain = Cards.parseMask(spot[1]);
+            long board = Cards.parseMask(spot[2]);
+            RangeEquityResult range = ranges.calculate(HandRange.parse(spot[0]), HandRange.parse(spot[1]), board);
+            double expected = equity.calculate(new long[] {hero, villain}, board).getEquity()[0];
+            assertTrue(range.isExhaustive());
+            assertEquals(expected, range.getHeroEquity(), EXACT, String.join(" ", spot));
+        }
+    }
+
+    @Test
+    void acesAgainstKingsPreflop() {
+        RangeEquityResult result = ranges.calculate(HandRange.parse("AA"), HandRange.parse("KK"), 0L, 200_000, 0);
+        assertEquals(82.0, result.getHeroEquity(), 1.0);
+    }
+
+    @Test
+    void foldedRangeMatchesBruteForce() {
+        // whole hand classes on the villain side, so suit-isomorphic hero combos are played once
+        HandRange hero = HandRange.parse("QQ+, AKs, 87s");
+        HandRange villain = HandRange.parse("TT+, AQs+, KQo, 50% 65s");
+        assertTrue(villain.isSuitSymmetric());
+        assertMatchesBruteForce(hero, villain, Cards.parseMask("Qh8s7c"));
+        assertMatchesBruteForce(hero, villain, Cards.parseMask("Qh8s7c2h"));
+    }
+
+    @Test
+    void unfoldedRangeMatchesBruteForce() {
+        // one exact combo makes the villain range suit-dependent, so every hero combo is played
+        HandRange hero = HandRange.parse("QQ+, AKs, 87s");
+        HandRange villain = HandRange.parse("TT+, AQs+, KQo, 50% 65s, AhKd:0.25");
+        assertFalse(villain.isSuitSymmetric());
+        assertMatchesBruteForce(hero, villain, Cards.parseMask("Qh8s7c"));
+        assertMatchesBruteForce(hero, villain, Cards.parseMask("Qh8s7c2h"));
+    }
+
+    @Test
+    void rejectsBadInput() {
+        assertThrows(IllegalArgumentException.class, () -> HandRange.parse("AX"));
+        assertThrows(IllegalArgumentException.class, () -> HandRange.parse("150% AA"));
+        // every AA combo uses a board ace or two
+        assertThrows(IllegalArgumentException.class,
+                () -> ranges.calculate(HandRange.parse("AA"), HandRange.parse("KK"), Cards.parseMask("AhAdAc")));
+    }
+
+    private void assertMatchesBruteForce(HandRange hero, HandRange villain, long board) {
+        RangeEquityResult result = ranges.calculate(hero, villain, board);
+        assertTrue(result.isExhaustive());
+
+        double share = 0;
+        double weight = 0;
+        for (int h = 0; h < Combos.COUNT; h++) {
+            long heroMask = Combos.mask(h);
+            if (hero.weight(h) == 0 || (heroMask & board) != 0) {
+                continue;
+            }
+            double[] combo = playOut(heroMask, villain, board);
+            if (combo[1] == 0) {
+                continue;
+            }
+            assertEquals(100.0 * combo[0] / combo[1], result.comboEquity(h), EXACT, Combos.name(h));
+            share += hero.weight(h) * combo[0];
+            weight += hero.weight(h) * combo[1];
+        }
+        assertEquals(100.0 * share / weight, result.getHeroEquity(), EXACT);
+    }
+
+    // {pot share won, weight played} of one hero combo against the whole villain range, pair by pair
+    private static double[] playOut(long heroMask, HandRange villain, long board) {
+        double share = 0;
+        double weight = 0;
+        long dead = board | heroMask;
+        for (int v = 0; v < Combos.COUNT; v++) {
+            long villainMask = Combos.mask(v);
+            double w = villain.weight(v);
+            if (w == 0 || (villainMask & dead) != 0) {
+                continue;
+            }
+            long used = dead | villainMask;
+            for (long runout : runouts(used, 5 - Long.bitCount(board))) {
+                int ours = FastHandEvaluator.evaluate(board | runout | heroMask);
+                int theirs = FastHandEvaluator.evaluate(board | runout | villainMask);
+                share += ours > theirs ? w : ours == theirs ? w * 0.5 : 0;
+                weight += w;
+            }
+        }
+        return new double[] {share, weight};
+    }
+
+    private static long[] runouts(long dead, int missing) {
+        if (missing == 1) {
+            long[] one = new long[Cards.DECK_SIZE - Long.bitCount(dead)];
+            int n = 0;
+            for (int c = 0; c < Cards.DECK_SIZE; c++) {
+                if ((dead & Cards.mask(c)) == 0) {
+                    one[n++] = Cards.mask(c);
+                }
+            }
+            return one;
+        }
+        int left = Cards.DECK_SIZE - Long.bitCount(dead);
+        long[] two = new long[left * (left - 1) / 2];
+        int n = 0;
+        for (int a = 0; a < Cards.DECK_SIZE; a++) {
+            for (int b = a + 1; b < Cards.DECK_SIZE; b++) {
+                if ((dead & (Cards.mask(a) | Cards.mask(b))) == 0) {
+                    two[n++] = Cards.mask(a) | Cards.mask(b);
+                }
+            }
+        }
+        return two;
+    }
+}
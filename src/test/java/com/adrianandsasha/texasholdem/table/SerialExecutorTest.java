@@ -0,0 +1,57 @@
+package com.adrianandsasha.texasholdem.table;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SerialExecutorTest {
+
+    private final ExecutorService pool = Executors.newFixedThreadPool(4);
+    private final SerialExecutor mailbox = new SerialExecutor(pool);
+
+    @AfterEach
+    void stop() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void tasksRunInOrder() throws InterruptedException {
+        List<Integer> ran = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(1);
+        for (int i = 0; i < 1000; i++) {
+            int n = i;
+            mailbox.execute(() -> ran.add(n));
+        }
+        mailbox.execute(done::countDown);
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, ran.get(i));
+        }
+    }
+
+    @Test
+    void aFailingTaskDoesntStopTheMailbox() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(2);
+        mailbox.execute(() -> {
+            throw new IllegalStateException("expected by the test");
+        });
+        mailbox.execute(done::countDown);
+        mailbox.execute(() -> {
+            throw new AssertionError("expected by the test");
+        });
+        mailbox.execute(done::countDown);
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,95 @@
+package com.adrianandsasha.texasholdem.table;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WheelTimerTest {
+
+    private static final int TIMERS = 50_000;
+
+    // 64 buckets of 10 ms, so delays up to 1.5 s go round the wheel a couple of times
+    private final WheelTimer timer = new WheelTimer("wheel-timer-test", 10, 64);
+
+    @AfterEach
+    void stop() {
+        timer.stop();
+    }
+
+    @Test
+    void liveTimeoutsFireAndCancelledOnesDont() throws InterruptedException {
+        SplittableRandom random = new SplittableRandom(21L);
+        CountDownLatch live = new CountDownLatch(TIMERS / 2);
+        AtomicInteger cancelledRan = new AtomicInteger();
+        List<WheelTimer.Timeout> toCancel = new ArrayList<>();
+        for (int i = 0; i < TIMERS; i++) {
+            if (i % 2 == 0) {
+                timer.schedule(live::countDown, random.nextInt(1500), TimeUnit.MILLISECONDS);
+            } else {
+                // far enough out that the cancel below always gets there first
+                long delay = 300 + random.nextInt(1200);
+                toCancel.add(timer.schedule(cancelledRan::incrementAndGet, delay, TimeUnit.MILLISECONDS));
+            }
+        }
+        // cancel while they're being bucketed, as the table does when a player acts in time
+        for (WheelTimer.Timeout t : toCancel) {
+            assertTrue(t.cancel());
+            assertFalse(t.cancel());
+        }
+
+        assertTrue(live.await(10, TimeUnit.SECONDS), live.getCount() + " live timeouts never fired");
+        // anything still in a bucket would have fired by now
+        Thread.sleep(100);
+        assertEquals(0, cancelledRan.get());
+        assertEquals(TIMERS, timer.getArmed());
+        assertEquals(TIMERS / 2, timer.getCancelled());
+        assertEquals(TIMERS / 2, timer.getFired());
+        assertEquals(0, timer.getPending());
+        // late by a tick, plus whatever the scheduler adds on a busy build machine
+        assertTrue(timer.getAverageLagNanos() < TimeUnit.MILLISECONDS.toNanos(100), "average lag " + timer.getAverageLagNanos());
+    }
+
+    @Test
+    void cancelAfterFiringDoesNothing() throws InterruptedException {
+        CountDownLatch fired = new CountDownLatch(1);
+        WheelTimer.Timeout t = timer.schedule(fired::countDown, 0, TimeUnit.MILLISECONDS);
+        assertTrue(fired.await(5, TimeUnit.SECONDS));
+        assertFalse(t.cancel());
+        assertEquals(0, timer.getCancelled());
+        assertEquals(0, timer.getPending());
+    }
+
+    @Test
+    void notBeforeTheDeadline() throws InterruptedException {
+        CountDownLatch fired = new CountDownLatch(1);
+        long start = System.nanoTime();
+        long[] at = new long[1];
+        timer.schedule(() -> {
+            at[0] = System.nanoTime();
+            fired.countDown();
+        }, 700, TimeUnit.MILLISECONDS);
+        assertTrue(fired.await(5, TimeUnit.SECONDS));
+        assertTrue(at[0] - start >= TimeUnit.MILLISECONDS.toNanos(700), "fired after " + (at[0] - start) + " ns");
+    }
+
+    @Test
+    void aFailingTaskDoesntStopTheTimer() throws InterruptedException {
+        CountDownLatch after = new CountDownLatch(1);
+        timer.schedule(() -> {
+            throw new IllegalStateException("expected by the test");
+        }, 0, TimeUnit.MILLISECONDS);
+        timer.schedule(after::countDown, 30, TimeUnit.MILLISECONDS);
+        assertTrue(after.await(5, TimeUnit.SECONDS));
+        assertEquals(2, timer.getFired());
+    }
+}